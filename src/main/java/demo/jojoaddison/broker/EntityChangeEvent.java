@@ -0,0 +1,23 @@
+package demo.jojoaddison.broker;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A change of an entity, published to the {@code entity-changes} topic with the id of the entity as record key.
+ * <p>
+ * The event only tells which entity changed and how, consumers read its current state if they need it.
+ * On Kafka, it is Avro-encoded with the schema {@code avro/entity-change-event-v1.avsc}.
+ *
+ * @param entity the type of the entity, e.g. {@code Task}.
+ * @param id the id of the entity.
+ * @param operation what happened to the entity.
+ * @param timestamp when the change was recorded.
+ */
+public record EntityChangeEvent(String entity, String id, Operation operation, Instant timestamp) implements Serializable {
+    public enum Operation {
+        CREATED,
+        UPDATED,
+        DELETED,
+    }
+}
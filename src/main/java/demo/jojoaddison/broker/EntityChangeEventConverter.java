@@ -0,0 +1,99 @@
+package demo.jojoaddison.broker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.message.SchemaStore;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+/**
+ * Converts {@link EntityChangeEvent}s from and to Avro, for the bindings whose content type is {@link #CONTENT_TYPE}.
+ * <p>
+ * Events are written with the Avro single-object encoding: the payload starts with the fingerprint of the schema it was
+ * written with, followed by the binary-encoded fields, without any field name. The schemas are bundled under
+ * {@code avro/}; the fingerprint is resolved against them on read, standing in for a schema registry, so that a
+ * consumer can still read the events written with an older version of the schema once it is added to the store.
+ */
+@Component
+public class EntityChangeEventConverter extends AbstractMessageConverter {
+
+    public static final String CONTENT_TYPE = "application/vnd.entity-change-event+avro";
+
+    static final String SCHEMA_LOCATION = "avro/entity-change-event-v1.avsc";
+
+    private final Schema schema;
+
+    private final Schema operationSchema;
+
+    private final BinaryMessageEncoder<GenericRecord> encoder;
+
+    private final BinaryMessageDecoder<GenericRecord> decoder;
+
+    public EntityChangeEventConverter() {
+        super(MimeType.valueOf(CONTENT_TYPE));
+        try (InputStream in = new ClassPathResource(SCHEMA_LOCATION).getInputStream()) {
+            this.schema = new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the schema " + SCHEMA_LOCATION, e);
+        }
+        this.operationSchema = schema.getField("operation").schema();
+        SchemaStore.Cache schemas = new SchemaStore.Cache();
+        schemas.addSchema(schema);
+        this.encoder = new BinaryMessageEncoder<>(GenericData.get(), schema);
+        this.decoder = new BinaryMessageDecoder<>(GenericData.get(), schema, schemas);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return EntityChangeEvent.class.equals(clazz);
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] payload)) {
+            return null;
+        }
+        try {
+            GenericRecord record = decoder.decode(payload);
+            return new EntityChangeEvent(
+                record.get("entity").toString(),
+                record.get("id").toString(),
+                EntityChangeEvent.Operation.valueOf(record.get("operation").toString()),
+                Instant.ofEpochMilli((Long) record.get("timestamp"))
+            );
+        } catch (IOException | AvroRuntimeException e) {
+            throw new MessageConversionException(message, "Could not decode entity change event", e);
+        }
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        EntityChangeEvent event = (EntityChangeEvent) payload;
+        GenericRecord record = new GenericData.Record(schema);
+        record.put("entity", event.entity());
+        record.put("id", event.id());
+        record.put("operation", new GenericData.EnumSymbol(operationSchema, event.operation().name()));
+        record.put("timestamp", event.timestamp().toEpochMilli());
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        try {
+            encoder.encode(record, out);
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not encode entity change event " + event, e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -2,50 +2,435 @@ package demo.jojoaddison.broker;
 
 import static org.springframework.web.servlet.mvc.method.annotation.SseEmitter.event;
 
+import demo.jojoaddison.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+/**
+ * Fans the messages of the SSE topic out to the registered SSE clients.
+ * <p>
+ * A client subscribes to the messages of one topic, or of any, and optionally only to the ones whose record key is one
+ * of a set of keys (e.g. patient ids). Subscriptions are indexed by topic and key, so a message is routed by looking up
+ * its exact topic and key and their wildcards, whatever the number of clients.
+ * <p>
+ * The Kafka consumer thread only appends each message to the bounded outbound queue of every client; the queues are
+ * written to the clients by {@code application.sse.sender-threads} sender threads, with at most one thread working on
+ * a given client at a time, so a slow client never holds up consumption or the other clients. A client whose queue is
+ * full is handled according to {@code application.sse.overflow-policy}. A client is removed on completion, timeout or
+ * error of its stream.
+ * <p>
+ * Each event carries the position of its record, {@code <topic>-<partition>-<offset>}, as SSE id, and the last
+ * {@code application.sse.replay-capacity} events of each topic are kept. A client reconnecting with the
+ * {@code Last-Event-ID} of the last event it got first receives the events it missed, then the live ones. If that event
+ * is no longer kept, or too many were missed, the client gets a {@code resync} event instead and has to reload its
+ * state. Messages not read from Kafka get a {@code local-<epoch>-<sequence>} id instead, the epoch changing on every
+ * start, so an id from before a restart never matches another event.
+ */
 @Component
-public class KafkaConsumer implements Consumer<String> {
+public class KafkaConsumer implements Consumer<Message<String>> {
+
+    static final String CLIENTS_METER = "sse.clients";
+
+    static final String DROPPED_METER = "sse.messages.dropped";
+
+    static final String DISCONNECTED_METER = "sse.clients.disconnected";
+
+    static final String RESYNC_EVENT = "resync";
+
+    private static final String LOCAL_ID_PREFIX = "local-";
 
     private final Logger log = LoggerFactory.getLogger(KafkaConsumer.class);
 
-    private Map<String, SseEmitter> emitters = new HashMap<>();
+    private final ApplicationProperties.Sse properties;
+
+    private final Map<String, SseClient> clients = new ConcurrentHashMap<>();
+
+    private final Map<Subscription, Set<SseClient>> subscribers = new ConcurrentHashMap<>();
+
+    private final ExecutorService sender;
+
+    private final Counter dropped;
+
+    private final Counter disconnected;
+
+    /**
+     * Guards the replay buffers, and makes appending and routing an event atomic with respect to the registration of a
+     * client and the snapshot of the buffers its replay is looked up in, so that a resuming client neither misses nor
+     * gets twice the events received meanwhile.
+     */
+    private final Object routingLock = new Object();
+
+    private final Map<String, Deque<SseEvent>> replayBuffers = new HashMap<>();
+
+    private long sequence;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    public KafkaConsumer(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.properties = applicationProperties.getSse();
+        this.sender = Executors.newFixedThreadPool(properties.getSenderThreads(), new CustomizableThreadFactory("sse-sender-"));
+        Gauge.builder(CLIENTS_METER, clients, Map::size).description("Registered SSE clients").register(meterRegistry);
+        this.dropped = Counter
+            .builder(DROPPED_METER)
+            .description("Messages dropped for SSE clients too slow to keep up")
+            .register(meterRegistry);
+        this.disconnected = Counter
+            .builder(DISCONNECTED_METER)
+            .description("SSE clients disconnected for being too slow to keep up")
+            .register(meterRegistry);
+    }
 
+    /**
+     * Register an SSE client to every message, replacing the stream it registered before under the same key if any.
+     *
+     * @param key the key of the client.
+     * @return the stream of the client.
+     */
     public SseEmitter register(String key) {
-        log.debug("Registering sse client for {}", key);
-        SseEmitter emitter = new SseEmitter();
-        emitter.onCompletion(() -> emitters.remove(key));
-        emitters.put(key, emitter);
+        return register(key, null, Set.of(), null);
+    }
+
+    /**
+     * Register an SSE client, replacing the stream it registered before under the same key if any.
+     *
+     * @param key the key of the client.
+     * @param topic the topic of the messages to receive, {@code null} for any.
+     * @param messageKeys the record keys of the messages to receive, empty for any.
+     * @param lastEventId the id of the last event the client received before reconnecting, {@code null} if it's new.
+     * @return the stream of the client.
+     */
+    public SseEmitter register(String key, String topic, Collection<String> messageKeys, String lastEventId) {
+        log.debug("Registering sse client for {} on topic {} and keys {} after {}", key, topic, messageKeys, lastEventId);
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        List<Subscription> subscriptions = messageKeys.isEmpty()
+            ? List.of(new Subscription(topic, null))
+            : messageKeys.stream().distinct().map(messageKey -> new Subscription(topic, messageKey)).toList();
+        SseClient client = new SseClient(key, emitter, subscriptions);
+        emitter.onCompletion(() -> remove(client));
+        emitter.onTimeout(() -> {
+            log.debug("Sse emitter for {} timed out", key);
+            remove(client);
+            emitter.complete();
+        });
+        emitter.onError(e -> {
+            log.debug("Sse emitter for {} failed: {}", key, e.getMessage());
+            remove(client);
+        });
+        SseClient previous = clients.put(key, client);
+        if (previous != null) {
+            unindex(previous);
+            previous.emitter.complete();
+        }
+        List<List<SseEvent>> snapshot = null;
+        synchronized (routingLock) {
+            if (lastEventId != null) {
+                // the buffers are scanned outside the lock, the events routed meanwhile are held until the replay is done
+                snapshot = replayBuffers.values().stream().<List<SseEvent>>map(ArrayList::new).toList();
+                client.hold();
+            }
+            for (Subscription subscription : subscriptions) {
+                subscribers.compute(
+                    subscription,
+                    (s, set) -> {
+                        Set<SseClient> result = set != null ? set : ConcurrentHashMap.newKeySet();
+                        result.add(client);
+                        return result;
+                    }
+                );
+            }
+        }
+        if (snapshot != null) {
+            client.release(replay(client, lastEventId, snapshot));
+        }
         return emitter;
     }
 
     public void unregister(String key) {
         log.debug("Unregistering sse emitter for: {}", key);
-        Optional.ofNullable(emitters.get(key)).ifPresent(SseEmitter::complete);
+        SseClient client = clients.get(key);
+        if (client != null) {
+            remove(client);
+            client.emitter.complete();
+        }
     }
 
     @Override
-    public void accept(String input) {
-        log.debug("Got message from kafka stream: {}", input);
-        emitters
-            .entrySet()
+    public void accept(Message<String> message) {
+        String topic = message.getHeaders().get(KafkaHeaders.RECEIVED_TOPIC, String.class);
+        String messageKey = keyOf(message.getHeaders().get(KafkaHeaders.RECEIVED_KEY));
+        log.debug("Got message from kafka stream {} with key {}: {}", topic, messageKey, message.getPayload());
+        synchronized (routingLock) {
+            sequence++;
+            SseEvent event = new SseEvent(sequence, idOf(message, topic), topic, messageKey, null, message.getPayload());
+            if (properties.getReplayCapacity() > 0) {
+                Deque<SseEvent> buffer = replayBuffers.computeIfAbsent(Objects.toString(topic, ""), t -> new ArrayDeque<>());
+                if (buffer.size() >= properties.getReplayCapacity()) {
+                    buffer.removeFirst();
+                }
+                buffer.addLast(event);
+            }
+
+            Set<SseClient> recipients = new HashSet<>();
+            for (Subscription subscription : Subscription.matching(topic, messageKey)) {
+                Set<SseClient> set = subscribers.get(subscription);
+                if (set != null) {
+                    recipients.addAll(set);
+                }
+            }
+            recipients.forEach(client -> client.enqueue(event));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        clients.values().forEach(client -> client.emitter.complete());
+        clients.clear();
+        subscribers.clear();
+    }
+
+    int clientCount() {
+        return clients.size();
+    }
+
+    int subscriptionCount() {
+        return subscribers.size();
+    }
+
+    private void remove(SseClient client) {
+        if (clients.remove(client.key, client)) {
+            unindex(client);
+        }
+    }
+
+    private void unindex(SseClient client) {
+        for (Subscription subscription : client.subscriptions) {
+            subscribers.computeIfPresent(
+                subscription,
+                (s, set) -> {
+                    set.remove(client);
+                    return set.isEmpty() ? null : set;
+                }
+            );
+        }
+    }
+
+    /**
+     * Find the events a client missed since the event it last received in a snapshot of the replay buffers, or a resync
+     * event if they are not all kept.
+     */
+    private List<SseEvent> replay(SseClient client, String lastEventId, List<List<SseEvent>> snapshot) {
+        SseEvent last = null;
+        if (!lastEventId.startsWith(LOCAL_ID_PREFIX) || lastEventId.startsWith(LOCAL_ID_PREFIX + epoch + "-")) {
+            last = snapshot.stream().flatMap(List::stream).filter(event -> event.id().equals(lastEventId)).findFirst().orElse(null);
+        }
+        if (last == null) {
+            log.debug("Events after {} are no longer kept, sse client {} has to resync", lastEventId, client.key);
+            return List.of(resync(lastEventId));
+        }
+        long lastSequence = last.sequence();
+        List<SseEvent> missed = snapshot
             .stream()
-            .map(Map.Entry::getValue)
-            .forEach((SseEmitter emitter) -> {
+            .flatMap(List::stream)
+            .filter(event -> event.sequence() > lastSequence && client.isSubscribedTo(event))
+            .sorted(Comparator.comparingLong(SseEvent::sequence))
+            .toList();
+        if (missed.size() > properties.getQueueCapacity()) {
+            log.debug("Sse client {} missed {} events after {}, it has to resync", client.key, missed.size(), lastEventId);
+            return List.of(resync(lastEventId));
+        }
+        log.debug("Replaying {} events after {} to sse client {}", missed.size(), lastEventId, client.key);
+        return missed;
+    }
+
+    private static SseEvent resync(String lastEventId) {
+        return new SseEvent(0, lastEventId, null, null, RESYNC_EVENT, "");
+    }
+
+    private String idOf(Message<String> message, String topic) {
+        Integer partition = message.getHeaders().get(KafkaHeaders.RECEIVED_PARTITION, Integer.class);
+        Long offset = message.getHeaders().get(KafkaHeaders.OFFSET, Long.class);
+        if (topic == null || partition == null || offset == null) {
+            // not read from Kafka, e.g. by the test binder
+            return LOCAL_ID_PREFIX + epoch + "-" + sequence;
+        }
+        return topic + "-" + partition + "-" + offset;
+    }
+
+    private static String keyOf(Object recordKey) {
+        if (recordKey instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return recordKey != null ? recordKey.toString() : null;
+    }
+
+    /**
+     * A message to send to the clients; {@code name} is {@code null} for a message of the topic.
+     */
+    private record SseEvent(long sequence, String id, String topic, String key, String name, String data) {}
+
+    /**
+     * Messages a client subscribed to, a {@code null} topic or key matching any.
+     */
+    private record Subscription(String topic, String key) {
+        boolean matches(SseEvent event) {
+            return (topic == null || topic.equals(event.topic())) && (key == null || key.equals(event.key()));
+        }
+
+        static List<Subscription> matching(String topic, String key) {
+            List<Subscription> matching = new ArrayList<>(4);
+            matching.add(new Subscription(null, null));
+            if (topic != null) {
+                matching.add(new Subscription(topic, null));
+            }
+            if (key != null) {
+                matching.add(new Subscription(null, key));
+                if (topic != null) {
+                    matching.add(new Subscription(topic, key));
+                }
+            }
+            return matching;
+        }
+    }
+
+    private final class SseClient {
+
+        private final String key;
+
+        private final SseEmitter emitter;
+
+        private final List<Subscription> subscriptions;
+
+        private final BlockingQueue<SseEvent> queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /**
+         * Events routed to the client while its missed events are looked up, {@code null} once they have been queued.
+         */
+        private List<SseEvent> held;
+
+        private SseClient(String key, SseEmitter emitter, List<Subscription> subscriptions) {
+            this.key = key;
+            this.emitter = emitter;
+            this.subscriptions = subscriptions;
+        }
+
+        private boolean isSubscribedTo(SseEvent event) {
+            return subscriptions.stream().anyMatch(subscription -> subscription.matches(event));
+        }
+
+        /**
+         * Hold the events routed to the client from now on, until {@link #release(List)}.
+         */
+        private synchronized void hold() {
+            held = new ArrayList<>();
+        }
+
+        /**
+         * Queue the replayed events, then the events held meanwhile, which all come after them.
+         */
+        private synchronized void release(List<SseEvent> replayed) {
+            List<SseEvent> routed = held;
+            held = null;
+            replayed.forEach(this::enqueue);
+            routed.forEach(this::enqueue);
+        }
+
+        /**
+         * Queue an event, or hold it while the client is being replayed the events it missed.
+         */
+        private synchronized void enqueue(SseEvent message) {
+            if (held != null) {
+                held.add(message);
+                return;
+            }
+            if (!queue.offer(message)) {
+                switch (properties.getOverflowPolicy()) {
+                    case DROP_OLDEST -> {
+                        queue.poll();
+                        queue.offer(message);
+                        dropped.increment();
+                    }
+                    case DROP_NEWEST -> dropped.increment();
+                    case DISCONNECT -> {
+                        log.debug("Sse client {} is {} messages behind, disconnecting it", key, queue.size());
+                        disconnected.increment();
+                        remove(this);
+                        emitter.complete();
+                        return;
+                    }
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
                 try {
-                    emitter.send(event().data(input, MediaType.TEXT_PLAIN));
-                } catch (IOException e) {
-                    log.debug("error sending sse message, {}", input);
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * Write the messages queued so far, then give the thread back so that clients are served in turn.
+         */
+        private void drain() {
+            try {
+                for (int i = queue.size(); i > 0; i--) {
+                    SseEvent message = queue.poll();
+                    if (message == null) {
+                        break;
+                    }
+                    SseEmitter.SseEventBuilder builder = event().id(message.id()).data(message.data(), MediaType.TEXT_PLAIN);
+                    emitter.send(message.name() != null ? builder.name(message.name()) : builder);
                 }
-            });
+            } catch (IOException | IllegalStateException e) {
+                log.debug("error sending sse message to {}, removing it: {}", key, e.getMessage());
+                remove(this);
+                queue.clear();
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
     }
 }
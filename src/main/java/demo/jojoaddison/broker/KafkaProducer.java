@@ -1,13 +1,45 @@
 package demo.jojoaddison.broker;
 
 import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
 
+/**
+ * Publishes messages on demand to the {@code kafkaProducer-out-0} binding.
+ * <p>
+ * Being reactive, the supplier is subscribed to once by Spring Cloud Stream instead of being polled, so only the
+ * messages passed to {@link #send(String)} reach Kafka, where the producer batches them. The sink outlives its
+ * subscriber: when the binding cancels (e.g. on a rebind), messages are buffered until it subscribes again.
+ */
 @Component
-public class KafkaProducer implements Supplier<String> {
+public class KafkaProducer implements Supplier<Flux<String>> {
+
+    private final Logger log = LoggerFactory.getLogger(KafkaProducer.class);
+
+    private final Sinks.Many<String> sink = Sinks.many().multicast().onBackpressureBuffer(Queues.SMALL_BUFFER_SIZE, false);
+
+    /**
+     * Queue a message for publication.
+     *
+     * @param message the message.
+     * @return {@code true} if the message was queued, {@code false} if the buffer is full or the sink is terminated.
+     */
+    public synchronized boolean send(String message) {
+        // serialized by the monitor, so the only failures left are overflow and termination
+        Sinks.EmitResult result = sink.tryEmitNext(message);
+        if (result.isFailure()) {
+            log.warn("Could not queue message for Kafka: {}", result);
+            return false;
+        }
+        return true;
+    }
 
     @Override
-    public String get() {
-        return "kakfa_producer";
+    public Flux<String> get() {
+        return sink.asFlux();
     }
 }
@@ -1,5 +1,8 @@
 package demo.jojoaddison.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,7 +13,418 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Search search = new Search();
+
+    private final Cache cache = new Cache();
+
+    private final Sse sse = new Sse();
+
+    private final Outbox outbox = new Outbox();
+
+    private final BulkWrite bulkWrite = new BulkWrite();
+
     // jhipster-needle-application-properties-property
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Sse getSse() {
+        return sse;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public BulkWrite getBulkWrite() {
+        return bulkWrite;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class Search {
+
+        private final Bulk bulk = new Bulk();
+
+        private final ChangeStream changeStream = new ChangeStream();
+
+        private final Reindex reindex = new Reindex();
+
+        /**
+         * Index the entities written through the REST API right away, on top of the entity-changes topic. Only needed when
+         * the entityChangeIndexer function isn't bound, otherwise each write gets indexed twice.
+         */
+        private boolean indexOnRequest = false;
+
+        public Bulk getBulk() {
+            return bulk;
+        }
+
+        public ChangeStream getChangeStream() {
+            return changeStream;
+        }
+
+        public Reindex getReindex() {
+            return reindex;
+        }
+
+        public boolean isIndexOnRequest() {
+            return indexOnRequest;
+        }
+
+        public void setIndexOnRequest(boolean indexOnRequest) {
+            this.indexOnRequest = indexOnRequest;
+        }
+
+        public static class Bulk {
+
+            /**
+             * Number of buffered operations on one index that triggers a flush.
+             */
+            private int batchSize = 500;
+
+            /**
+             * Approximate size in bytes of the buffered documents on one index that triggers a flush.
+             */
+            private long maxBytes = 5L * 1024 * 1024;
+
+            /**
+             * Interval at which every non-empty buffer is flushed, whatever its size.
+             */
+            private Duration flushInterval = Duration.ofSeconds(1);
+
+            /**
+             * Number of times a document rejected by Elasticsearch is retried before being dropped. Operations failing
+             * because Elasticsearch is unreachable or overloaded are retried until it is back.
+             */
+            private int maxRetries = 3;
+
+            /**
+             * Delay before the first retry of a failed operation, doubled on every further attempt.
+             */
+            private Duration retryBackoff = Duration.ofSeconds(1);
+
+            /**
+             * Maximum delay between two retries of a failed operation.
+             */
+            private Duration maxRetryBackoff = Duration.ofMinutes(1);
+
+            /**
+             * Maximum number of operations buffered on one index, failed ones included, beyond which the oldest are dropped.
+             */
+            private int maxPending = 100_000;
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public long getMaxBytes() {
+                return maxBytes;
+            }
+
+            public void setMaxBytes(long maxBytes) {
+                this.maxBytes = maxBytes;
+            }
+
+            public Duration getFlushInterval() {
+                return flushInterval;
+            }
+
+            public void setFlushInterval(Duration flushInterval) {
+                this.flushInterval = flushInterval;
+            }
+
+            public int getMaxRetries() {
+                return maxRetries;
+            }
+
+            public void setMaxRetries(int maxRetries) {
+                this.maxRetries = maxRetries;
+            }
+
+            public Duration getRetryBackoff() {
+                return retryBackoff;
+            }
+
+            public void setRetryBackoff(Duration retryBackoff) {
+                this.retryBackoff = retryBackoff;
+            }
+
+            public Duration getMaxRetryBackoff() {
+                return maxRetryBackoff;
+            }
+
+            public void setMaxRetryBackoff(Duration maxRetryBackoff) {
+                this.maxRetryBackoff = maxRetryBackoff;
+            }
+
+            public int getMaxPending() {
+                return maxPending;
+            }
+
+            public void setMaxPending(int maxPending) {
+                this.maxPending = maxPending;
+            }
+        }
+
+        public static class ChangeStream {
+
+            /**
+             * Feed the search indices from MongoDB change streams. Requires MongoDB to run as a replica set.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Interval at which buffered index operations are flushed and the resume token is persisted.
+             */
+            private Duration checkpointInterval = Duration.ofSeconds(5);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getCheckpointInterval() {
+                return checkpointInterval;
+            }
+
+            public void setCheckpointInterval(Duration checkpointInterval) {
+                this.checkpointInterval = checkpointInterval;
+            }
+        }
+
+        public static class Reindex {
+
+            /**
+             * Number of id ranges of a collection that are read and indexed in parallel.
+             */
+            private int slices = 4;
+
+            /**
+             * Number of documents sent to Elasticsearch in one bulk request.
+             */
+            private int batchSize = 1000;
+
+            /**
+             * Reindex at startup every index whose entity mapping changed, into a new version swapped in once complete.
+             */
+            private boolean onMappingChange = true;
+
+            public int getSlices() {
+                return slices;
+            }
+
+            public void setSlices(int slices) {
+                this.slices = slices;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public boolean isOnMappingChange() {
+                return onMappingChange;
+            }
+
+            public void setOnMappingChange(boolean onMappingChange) {
+                this.onMappingChange = onMappingChange;
+            }
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Bounds of the caches of entities read by id, by cache name; a cache not listed gets the default bounds.
+         */
+        private final Map<String, Bounds> entities = new HashMap<>();
+
+        /**
+         * Bounds of the cache of search result pages.
+         */
+        private final Bounds search = new Bounds();
+
+        public Map<String, Bounds> getEntities() {
+            return entities;
+        }
+
+        public Bounds getSearch() {
+            return search;
+        }
+
+        public static class Bounds {
+
+            /**
+             * Maximum number of entries, the least recently used ones are evicted beyond it.
+             */
+            private long maxEntries = 1000;
+
+            /**
+             * Time after which an entry is evicted, bounding how stale it can be when the entity was changed outside the API.
+             */
+            private Duration timeToLive = Duration.ofMinutes(10);
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+        }
+    }
+
+    public static class Sse {
+
+        /**
+         * What to do with a message for a client whose outbound queue is full.
+         */
+        public enum OverflowPolicy {
+            /**
+             * Discard the oldest queued message to make room for the new one.
+             */
+            DROP_OLDEST,
+            /**
+             * Discard the new message.
+             */
+            DROP_NEWEST,
+            /**
+             * Complete the stream of the client, which has to register again.
+             */
+            DISCONNECT,
+        }
+
+        /**
+         * Number of messages queued for one client before the overflow policy applies.
+         */
+        private int queueCapacity = 256;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+        /**
+         * Number of threads writing the queued messages to the clients.
+         */
+        private int senderThreads = 8;
+
+        /**
+         * Time after which the stream of a client is completed, the client has to register again.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /**
+         * Number of recent events kept per topic for the clients resuming their stream with a {@code Last-Event-ID}.
+         */
+        private int replayCapacity = 1000;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getReplayCapacity() {
+            return replayCapacity;
+        }
+
+        public void setReplayCapacity(int replayCapacity) {
+            this.replayCapacity = replayCapacity;
+        }
+    }
+
+    public static class Outbox {
+
+        /**
+         * Interval at which the recorded entity changes are relayed to Kafka.
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * Number of entity changes read from the outbox at a time.
+         */
+        private int batchSize = 500;
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class BulkWrite {
+
+        /**
+         * Maximum number of items of one {@code _bulk} request, larger requests are rejected.
+         */
+        private int maxItems = 1000;
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -0,0 +1,89 @@
+package demo.jojoaddison.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import demo.jojoaddison.repository.EntityCacheEvictor;
+import demo.jojoaddison.repository.HCPayOptionRepository;
+import demo.jojoaddison.repository.MembershipRepository;
+import demo.jojoaddison.repository.MetadataRepository;
+import demo.jojoaddison.repository.TeamRepository;
+import java.io.Serializable;
+import java.util.List;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * In-process Caffeine caches in front of the reads by id of the entities that are read far more than written.
+ * <p>
+ * Every cache is created at startup with its own bounds and records its statistics, so Spring Boot binds it to the
+ * {@code cache.gets}, {@code cache.puts} and {@code cache.evictions} metrics.
+ * <p>
+ * Entities are mutable, so the caches store and return copies: a caller changing the entity it read doesn't change the
+ * one served to the others. The persistence layer evicts an entry whenever it writes the entity, see
+ * {@link EntityCacheEvictor}; writes done by other instances or other services without the change stream enabled are
+ * picked up once the entry expires.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    private static final List<String> ENTITY_CACHES = List.of(
+        TeamRepository.TEAMS_BY_ID_CACHE,
+        MembershipRepository.MEMBERSHIPS_BY_ID_CACHE,
+        HCPayOptionRepository.HC_PAY_OPTIONS_BY_ID_CACHE,
+        MetadataRepository.METADATA_BY_ID_CACHE
+    );
+
+    @Bean
+    public CacheManager cacheManager(ApplicationProperties applicationProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                return new CopyingCaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+        // only the caches registered below exist, a typo in a cache name fails instead of creating an unbounded cache
+        cacheManager.setCacheNames(List.of());
+        for (String cacheName : ENTITY_CACHES) {
+            ApplicationProperties.Cache.Bounds bounds = applicationProperties
+                .getCache()
+                .getEntities()
+                .getOrDefault(cacheName, new ApplicationProperties.Cache.Bounds());
+            cacheManager.registerCustomCache(
+                cacheName,
+                Caffeine.newBuilder().maximumSize(bounds.getMaxEntries()).expireAfterWrite(bounds.getTimeToLive()).recordStats().build()
+            );
+        }
+        return cacheManager;
+    }
+
+    /**
+     * Caffeine cache storing and returning serialized copies of the values.
+     */
+    static class CopyingCaffeineCache extends CaffeineCache {
+
+        CopyingCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        protected Object toStoreValue(@Nullable Object userValue) {
+            return super.toStoreValue(copy(userValue));
+        }
+
+        @Override
+        protected Object fromStoreValue(@Nullable Object storeValue) {
+            return copy(super.fromStoreValue(storeValue));
+        }
+
+        private static Object copy(@Nullable Object value) {
+            return value instanceof Serializable serializable ? SerializationUtils.clone(serializable) : value;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package demo.jojoaddison.config;
+
+import java.time.Duration;
+import java.util.Map;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+
+/**
+ * Error handling of the Kafka consumers bound by Spring Cloud Stream.
+ * <p>
+ * The binder doesn't retry batch consumers, so a batch of entity changes the search indexer fails on is retried here,
+ * with an exponential backoff since Elasticsearch is then most likely unavailable or overloaded. Once the retries are
+ * exhausted, the events of the batch are published to the {@code <destination>.DLT} topic, to be replayed once the
+ * cause is fixed, and the partition moves on.
+ */
+@Configuration
+public class KafkaConfiguration {
+
+    private static final String DEAD_LETTER_SUFFIX = ".DLT";
+
+    private static final int ENTITY_CHANGES_MAX_RETRIES = 10;
+
+    private static final Duration ENTITY_CHANGES_INITIAL_BACKOFF = Duration.ofSeconds(1);
+
+    private static final Duration ENTITY_CHANGES_MAX_BACKOFF = Duration.ofMinutes(1);
+
+    @Bean
+    public ListenerContainerCustomizer<AbstractMessageListenerContainer<?, ?>> entityChangesErrorHandlerCustomizer(
+        @Value("${spring.cloud.stream.bindings.entityChangeIndexer-in-0.destination}") String entityChangesDestination,
+        @Value("${spring.cloud.stream.kafka.binder.brokers:localhost:9092}") String brokers
+    ) {
+        // events are relayed as raw bytes, the dead letters are published as they were received
+        KafkaTemplate<byte[], byte[]> deadLetterTemplate = new KafkaTemplate<>(
+            new DefaultKafkaProducerFactory<>(
+                Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers),
+                new ByteArraySerializer(),
+                new ByteArraySerializer()
+            )
+        );
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
+            deadLetterTemplate,
+            (record, exception) -> new TopicPartition(record.topic() + DEAD_LETTER_SUFFIX, -1)
+        );
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(ENTITY_CHANGES_MAX_RETRIES);
+        backOff.setInitialInterval(ENTITY_CHANGES_INITIAL_BACKOFF.toMillis());
+        backOff.setMaxInterval(ENTITY_CHANGES_MAX_BACKOFF.toMillis());
+        return (container, destination, group) -> {
+            if (entityChangesDestination.equals(destination)) {
+                container.setCommonErrorHandler(new DefaultErrorHandler(recoverer, backOff));
+            }
+        };
+    }
+}
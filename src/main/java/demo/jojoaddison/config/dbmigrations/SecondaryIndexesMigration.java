@@ -0,0 +1,62 @@
+package demo.jojoaddison.config.dbmigrations;
+
+import demo.jojoaddison.domain.Condition;
+import demo.jojoaddison.domain.HCPayOption;
+import demo.jojoaddison.domain.Medication;
+import demo.jojoaddison.domain.Report;
+import demo.jojoaddison.domain.Stat;
+import demo.jojoaddison.domain.Task;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import java.util.List;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Creates the secondary indexes backing the finders of the repositories.
+ * <p>
+ * Clinical records are read per patient, most recent first, so they get a {@code (patient_id, created_date)} index;
+ * tasks are also read per team and per attendant over a schedule range. Creating an index that already exists with the
+ * same definition is a no-op, so the migration can safely run against a database where some of them were added by hand.
+ */
+@ChangeUnit(id = "secondary-indexes", order = "001")
+public class SecondaryIndexesMigration {
+
+    private static final List<Class<?>> PATIENT_RECORDS = List.of(Condition.class, Medication.class, Report.class, Stat.class, Task.class);
+
+    private final MongoTemplate template;
+
+    public SecondaryIndexesMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        for (Class<?> entityClass : PATIENT_RECORDS) {
+            template
+                .indexOps(entityClass)
+                .ensureIndex(
+                    new Index().named("patient_id_created_date").on("patient_id", Direction.ASC).on("created_date", Direction.DESC)
+                );
+        }
+        template
+            .indexOps(Task.class)
+            .ensureIndex(new Index().named("team_id_created_date").on("team_id", Direction.ASC).on("created_date", Direction.DESC));
+        template
+            .indexOps(Task.class)
+            .ensureIndex(new Index().named("attendant_id_schedule").on("attendant_id", Direction.ASC).on("schedule", Direction.ASC));
+        template.indexOps(HCPayOption.class).ensureIndex(new Index().named("user_id").on("user_id", Direction.ASC));
+    }
+
+    @RollbackExecution
+    public void rollback() {
+        for (Class<?> entityClass : PATIENT_RECORDS) {
+            template.indexOps(entityClass).dropIndex("patient_id_created_date");
+        }
+        template.indexOps(Task.class).dropIndex("team_id_created_date");
+        template.indexOps(Task.class).dropIndex("attendant_id_schedule");
+        template.indexOps(HCPayOption.class).dropIndex("user_id");
+    }
+}
@@ -10,7 +10,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * A Address.
  */
 @Document(collection = "address")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "address")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "address", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Address implements Serializable {
 
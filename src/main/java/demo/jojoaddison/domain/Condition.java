@@ -10,7 +10,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * A Condition.
  */
 @Document(collection = "condition")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "condition")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "condition", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Condition implements Serializable {
 
@@ -28,10 +28,22 @@ public class Condition implements Serializable {
     private String description;
 
     @Field("patient_id")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = @org.springframework.data.elasticsearch.annotations.InnerField(
+            suffix = "keyword",
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+        )
+    )
     private String patientId;
 
     @Field("created_date")
+    @org.springframework.data.elasticsearch.annotations.Field(
+        type = org.springframework.data.elasticsearch.annotations.FieldType.Date,
+        format = org.springframework.data.elasticsearch.annotations.DateFormat.date
+    )
     private LocalDate createdDate;
 
     @Field("modified_date")
@@ -10,7 +10,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * A HCCredential.
  */
 @Document(collection = "hccredential")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "hccredential")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "hccredential", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class HCCredential implements Serializable {
 
@@ -20,7 +20,15 @@ public class HCCredential implements Serializable {
     private String id;
 
     @Field("email")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = @org.springframework.data.elasticsearch.annotations.InnerField(
+            suffix = "keyword",
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+        )
+    )
     private String email;
 
     @Field("phone_number")
@@ -9,7 +9,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * A HCPayOption.
  */
 @Document(collection = "hcpay_option")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "hcpayoption")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "hcpayoption", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class HCPayOption implements Serializable {
 
@@ -23,7 +23,15 @@ public class HCPayOption implements Serializable {
     private String type;
 
     @Field("user_id")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = @org.springframework.data.elasticsearch.annotations.InnerField(
+            suffix = "keyword",
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+        )
+    )
     private String userID;
 
     @Field("metadata")
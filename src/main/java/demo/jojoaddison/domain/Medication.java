@@ -10,7 +10,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * A Medication.
  */
 @Document(collection = "medication")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "medication")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "medication", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Medication implements Serializable {
 
@@ -28,7 +28,15 @@ public class Medication implements Serializable {
     private String description;
 
     @Field("patient_id")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = @org.springframework.data.elasticsearch.annotations.InnerField(
+            suffix = "keyword",
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+        )
+    )
     private String patientId;
 
     @Field("prescription")
@@ -36,6 +44,10 @@ public class Medication implements Serializable {
     private String prescription;
 
     @Field("created_date")
+    @org.springframework.data.elasticsearch.annotations.Field(
+        type = org.springframework.data.elasticsearch.annotations.FieldType.Date,
+        format = org.springframework.data.elasticsearch.annotations.DateFormat.date
+    )
     private LocalDate createdDate;
 
     @Field("modified_date")
@@ -10,7 +10,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * A Membership.
  */
 @Document(collection = "membership")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "membership")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "membership", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Membership implements Serializable {
 
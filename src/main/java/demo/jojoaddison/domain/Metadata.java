@@ -10,7 +10,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * A Metadata.
  */
 @Document(collection = "metadata")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "metadata")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "metadata", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Metadata implements Serializable {
 
@@ -10,7 +10,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * A Profile.
  */
 @Document(collection = "profile")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "profile")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "profile", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Profile implements Serializable {
 
@@ -51,7 +51,15 @@ public class Profile implements Serializable {
     private String phoneNumber;
 
     @Field("email")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = @org.springframework.data.elasticsearch.annotations.InnerField(
+            suffix = "keyword",
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+        )
+    )
     private String email;
 
     @Field("card_type")
@@ -59,7 +67,15 @@ public class Profile implements Serializable {
     private String cardType;
 
     @Field("card_number")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = @org.springframework.data.elasticsearch.annotations.InnerField(
+            suffix = "keyword",
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+        )
+    )
     private String cardNumber;
 
     @Field("contacts")
@@ -10,7 +10,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * A Report.
  */
 @Document(collection = "report")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "report")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "report", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Report implements Serializable {
 
@@ -36,10 +36,22 @@ public class Report implements Serializable {
     private String url;
 
     @Field("patient_id")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = @org.springframework.data.elasticsearch.annotations.InnerField(
+            suffix = "keyword",
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+        )
+    )
     private String patientId;
 
     @Field("created_date")
+    @org.springframework.data.elasticsearch.annotations.Field(
+        type = org.springframework.data.elasticsearch.annotations.FieldType.Date,
+        format = org.springframework.data.elasticsearch.annotations.DateFormat.date
+    )
     private LocalDate createdDate;
 
     @Field("modified_date")
@@ -10,7 +10,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * A Stat.
  */
 @Document(collection = "stat")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "stat")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "stat", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Stat implements Serializable {
 
@@ -39,10 +39,22 @@ public class Stat implements Serializable {
     private String note;
 
     @Field("patient_id")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = @org.springframework.data.elasticsearch.annotations.InnerField(
+            suffix = "keyword",
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+        )
+    )
     private String patientId;
 
     @Field("created_date")
+    @org.springframework.data.elasticsearch.annotations.Field(
+        type = org.springframework.data.elasticsearch.annotations.FieldType.Date,
+        format = org.springframework.data.elasticsearch.annotations.DateFormat.date
+    )
     private LocalDate createdDate;
 
     @Field("created_by")
@@ -9,7 +9,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * A Team.
  */
 @Document(collection = "team")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "team")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "team", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Team implements Serializable {
 
@@ -0,0 +1,41 @@
+package demo.jojoaddison.management;
+
+import demo.jojoaddison.service.ChangeStreamIndexer;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports on {@code /management/health} whether the change stream feeding the search indices is still tailed.
+ * <p>
+ * The indicator is down when the worker thread died or the stream lost changes that the search indices are still being
+ * reindexed for, and carries the last checkpoint and the current failure, if any,
+ * as details otherwise.
+ */
+@Component("searchChangeStream")
+@ConditionalOnProperty(prefix = "application.search.change-stream", name = "enabled", havingValue = "true")
+public class ChangeStreamIndexerHealthIndicator extends AbstractHealthIndicator {
+
+    private final ChangeStreamIndexer changeStreamIndexer;
+
+    public ChangeStreamIndexerHealthIndicator(ChangeStreamIndexer changeStreamIndexer) {
+        super("Change stream health check failed");
+        this.changeStreamIndexer = changeStreamIndexer;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        if ((changeStreamIndexer.isRunning() && !changeStreamIndexer.isWorkerAlive()) || changeStreamIndexer.isMissingChanges()) {
+            builder.down();
+        } else {
+            builder.up();
+        }
+        if (changeStreamIndexer.getLastCheckpoint() != null) {
+            builder.withDetail("lastCheckpoint", changeStreamIndexer.getLastCheckpoint());
+        }
+        if (changeStreamIndexer.getLastError() != null) {
+            builder.withDetail("error", changeStreamIndexer.getLastError());
+        }
+    }
+}
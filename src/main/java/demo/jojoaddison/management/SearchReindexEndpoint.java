@@ -0,0 +1,60 @@
+package demo.jojoaddison.management;
+
+import demo.jojoaddison.service.SearchReindexJob;
+import demo.jojoaddison.service.SearchReindexService;
+import java.util.Collection;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint triggering full search reindexes and reporting their progress.
+ * <p>
+ * {@code POST /management/searchreindex/{index}} reindexes one index and {@code POST /management/searchreindex} all of
+ * them, {@code GET} on the same paths returns the progress, throughput and ETA of the jobs. Only the instance running a
+ * job mirrors the writes into the new index, so the application must run as a single instance until it completes.
+ */
+@Component
+@Endpoint(id = "searchreindex")
+public class SearchReindexEndpoint {
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexEndpoint.class);
+
+    private final SearchReindexService searchReindexService;
+
+    public SearchReindexEndpoint(SearchReindexService searchReindexService) {
+        this.searchReindexService = searchReindexService;
+    }
+
+    @ReadOperation
+    public Collection<SearchReindexJob> jobs() {
+        return searchReindexService.findAll();
+    }
+
+    @ReadOperation
+    public SearchReindexJob job(@Selector String index) {
+        return searchReindexService.findOne(index);
+    }
+
+    @WriteOperation
+    public List<SearchReindexJob> reindexAll() {
+        log.info("Request to reindex every search index");
+        return searchReindexService.reindexAll();
+    }
+
+    @WriteOperation
+    public SearchReindexJob reindex(@Selector String index) {
+        log.info("Request to reindex search index {}", index);
+        try {
+            return searchReindexService.reindex(index);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package demo.jojoaddison.repository;
 
 import demo.jojoaddison.domain.Address;
+import java.util.stream.Stream;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,20 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AddressRepository extends MongoRepository<Address, String> {}
+public interface AddressRepository extends MongoRepository<Address, String>, AtomicUpdateRepository<Address> {
+    /**
+     * Stream all the addresses from a cursor fetching them by batches, so they are never all in memory.
+     *
+     * @return the stream of all the addresses, to be closed once consumed.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<Address> streamAllBy();
+
+    /**
+     * Delete the address with an id, telling whether there was one.
+     *
+     * @param id the id of the address.
+     * @return the number of deleted addresses, {@code 0} if there was none with that id.
+     */
+    long removeById(String id);
+}
@@ -0,0 +1,27 @@
+package demo.jojoaddison.repository;
+
+import java.util.Optional;
+
+/**
+ * Repository fragment updating documents with a single atomic MongoDB operation instead of a read-modify-write.
+ *
+ * @param <T> the type of the entity.
+ */
+public interface AtomicUpdateRepository<T> {
+    /**
+     * Set the non-null fields of an entity on the stored document with the same id, in one {@code findAndModify}.
+     * Concurrent updates of other fields are never overwritten.
+     *
+     * @param patch the entity holding the id and the fields to set.
+     * @return the updated entity, or empty if there is no document with that id.
+     */
+    Optional<T> partialUpdate(T patch);
+
+    /**
+     * Replace the stored document with the same id as an entity, in one round trip, without ever creating it.
+     *
+     * @param entity the entity to store.
+     * @return the entity, or empty if there is no document with that id.
+     */
+    Optional<T> replaceIfExists(T entity);
+}
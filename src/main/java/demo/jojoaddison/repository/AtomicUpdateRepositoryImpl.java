@@ -0,0 +1,69 @@
+package demo.jojoaddison.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import java.util.Optional;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * {@link AtomicUpdateRepository} implementation shared by the entity repositories.
+ */
+class AtomicUpdateRepositoryImpl<T> implements AtomicUpdateRepository<T> {
+
+    private static final String ID_FIELD = "_id";
+
+    private static final String TYPE_FIELD = "_class";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final EntityCacheEvictor entityCacheEvictor;
+
+    AtomicUpdateRepositoryImpl(MongoTemplate mongoTemplate, EntityCacheEvictor entityCacheEvictor) {
+        this.mongoTemplate = mongoTemplate;
+        this.entityCacheEvictor = entityCacheEvictor;
+    }
+
+    @Override
+    public Optional<T> partialUpdate(T patch) {
+        @SuppressWarnings("unchecked")
+        Class<T> entityClass = (Class<T>) patch.getClass();
+        Query byId = Query.query(Criteria.where(ID_FIELD).is(idOf(patch)));
+
+        // the converter leaves out null properties, so the document only holds the fields to set
+        Document fields = new Document();
+        mongoTemplate.getConverter().write(patch, fields);
+        fields.remove(ID_FIELD);
+        fields.remove(TYPE_FIELD);
+        if (fields.isEmpty()) {
+            return Optional.ofNullable(mongoTemplate.findOne(byId, entityClass));
+        }
+
+        Update update = new Update();
+        fields.forEach(update::set);
+        T result = mongoTemplate.findAndModify(byId, update, FindAndModifyOptions.options().returnNew(true), entityClass);
+        // neither the update nor the replace below raise the mapping events the cache evictor listens to
+        entityCacheEvictor.evict(entityClass, idOf(patch));
+        return Optional.ofNullable(result);
+    }
+
+    @Override
+    public Optional<T> replaceIfExists(T entity) {
+        // the replace doesn't upsert, nothing matched means there is no such document
+        UpdateResult result = mongoTemplate.replace(Query.query(Criteria.where(ID_FIELD).is(idOf(entity))), entity);
+        entityCacheEvictor.evict(entity.getClass(), idOf(entity));
+        return result.getMatchedCount() > 0 ? Optional.of(entity) : Optional.empty();
+    }
+
+    private Object idOf(T entity) {
+        MongoPersistentEntity<?> persistentEntity = mongoTemplate
+            .getConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(entity.getClass());
+        return persistentEntity.getIdentifierAccessor(entity).getRequiredIdentifier();
+    }
+}
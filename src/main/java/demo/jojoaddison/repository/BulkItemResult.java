@@ -0,0 +1,34 @@
+package demo.jojoaddison.repository;
+
+import java.io.Serializable;
+
+/**
+ * Outcome of one item of a bulk write, see {@link EntityBulkWriter}.
+ *
+ * @param id the id of the entity, {@code null} if it had none.
+ * @param status what happened to the item.
+ * @param error why the item was not written, {@code null} if it was.
+ */
+public record BulkItemResult(String id, Status status, String error) implements Serializable {
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        INVALID,
+        NOT_FOUND,
+        CONFLICT,
+        FAILED,
+    }
+
+    static BulkItemResult of(String id, Status status) {
+        return new BulkItemResult(id, status, null);
+    }
+
+    static BulkItemResult failed(String id, Status status, String error) {
+        return new BulkItemResult(id, status, error);
+    }
+
+    public boolean succeeded() {
+        return error == null;
+    }
+}
@@ -0,0 +1,13 @@
+package demo.jojoaddison.repository;
+
+/**
+ * Thrown when a bulk write holds more items than {@code application.bulk-write.max-items}.
+ */
+public class BulkTooLargeException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BulkTooLargeException(int size, int maxItems) {
+        super("A bulk request holds at most " + maxItems + " items, got " + size);
+    }
+}
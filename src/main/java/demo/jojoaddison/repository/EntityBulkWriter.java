@@ -0,0 +1,211 @@
+package demo.jojoaddison.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import demo.jojoaddison.config.ApplicationProperties;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.bson.types.ObjectId;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes batches of entities with one unordered MongoDB bulk write each, deletions aside, reporting the outcome of every
+ * item.
+ * <p>
+ * Items are independent: an invalid, missing or rejected item doesn't prevent the others from being written. Results
+ * are returned in the order of the items. A batch holds at most {@code application.bulk-write.max-items} items. The
+ * cached entries of the replaced entities are evicted here, the ones of the deleted entities by their delete events.
+ */
+@Component
+public class EntityBulkWriter {
+
+    private static final String ID_FIELD = "_id";
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final EntityCacheEvictor entityCacheEvictor;
+
+    private final int maxItems;
+
+    public EntityBulkWriter(
+        MongoTemplate mongoTemplate,
+        EntityCacheEvictor entityCacheEvictor,
+        ApplicationProperties applicationProperties
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.entityCacheEvictor = entityCacheEvictor;
+        this.maxItems = applicationProperties.getBulkWrite().getMaxItems();
+    }
+
+    /**
+     * Insert new entities. Their ids are assigned before the write, so the entities can be indexed afterwards.
+     *
+     * @param entityClass the type of the entities.
+     * @param entities the entities to insert, none of them can have an id.
+     * @param <T> the type of the entities.
+     * @return the result of each item.
+     * @throws BulkTooLargeException if there are more than {@code max-items} entities.
+     */
+    public <T> List<BulkItemResult> insertAll(Class<T> entityClass, List<T> entities) {
+        checkSize(entities);
+        MongoPersistentEntity<?> persistentEntity = persistentEntity(entityClass);
+        MongoPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        BulkItemResult[] results = new BulkItemResult[entities.size()];
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, entityClass);
+        List<Integer> queued = new ArrayList<>();
+        for (int i = 0; i < entities.size(); i++) {
+            PersistentPropertyAccessor<T> accessor = persistentEntity.getPropertyAccessor(entities.get(i));
+            Object id = accessor.getProperty(idProperty);
+            if (id != null) {
+                results[i] = BulkItemResult.failed(id.toString(), BulkItemResult.Status.INVALID, "idexists");
+                continue;
+            }
+            String newId = new ObjectId().toHexString();
+            accessor.setProperty(idProperty, newId);
+            bulk.insert(entities.get(i));
+            queued.add(i);
+            results[i] = BulkItemResult.of(newId, BulkItemResult.Status.CREATED);
+        }
+        execute(bulk, queued, results);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Replace existing entities. Entities without a stored document are reported as not found, never created.
+     * <p>
+     * The replacements never upsert, so which ones matched is told by the write itself: when fewer documents matched
+     * than were replaced, the ids still stored are read back and the others reported as not found.
+     *
+     * @param entityClass the type of the entities.
+     * @param entities the entities to replace.
+     * @param <T> the type of the entities.
+     * @return the result of each item.
+     * @throws BulkTooLargeException if there are more than {@code max-items} entities.
+     */
+    public <T> List<BulkItemResult> replaceAll(Class<T> entityClass, List<T> entities) {
+        checkSize(entities);
+        MongoPersistentEntity<?> persistentEntity = persistentEntity(entityClass);
+        BulkItemResult[] results = new BulkItemResult[entities.size()];
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, entityClass);
+        List<Integer> queued = new ArrayList<>();
+        for (int i = 0; i < entities.size(); i++) {
+            String id = idOf(persistentEntity, entities.get(i));
+            if (id == null) {
+                results[i] = BulkItemResult.failed(null, BulkItemResult.Status.INVALID, "idnull");
+            } else {
+                bulk.replaceOne(byId(id), entities.get(i));
+                queued.add(i);
+                results[i] = BulkItemResult.of(id, BulkItemResult.Status.UPDATED);
+            }
+        }
+        int matched = execute(bulk, queued, results);
+
+        List<Integer> replaced = queued.stream().filter(i -> results[i].succeeded()).toList();
+        if (matched < replaced.size()) {
+            // a document that is stored now was stored when its replacement was applied
+            Set<String> existingIds = existingIds(entityClass, replaced.stream().map(i -> results[i].id()).toList());
+            for (int i : replaced) {
+                if (!existingIds.contains(results[i].id())) {
+                    results[i] = BulkItemResult.failed(results[i].id(), BulkItemResult.Status.NOT_FOUND, "idnotfound");
+                }
+            }
+        }
+        replaced.forEach(i -> entityCacheEvictor.evict(entityClass, results[i].id()));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Delete entities by id.
+     * <p>
+     * A bulk write only reports how many documents it deleted in total, so each entity is deleted with its own write,
+     * which tells whether it was still stored.
+     *
+     * @param entityClass the type of the entities.
+     * @param ids the ids of the entities to delete.
+     * @return the result of each item.
+     * @throws BulkTooLargeException if there are more than {@code max-items} ids.
+     */
+    public List<BulkItemResult> deleteAllById(Class<?> entityClass, List<String> ids) {
+        checkSize(ids);
+        return ids
+            .stream()
+            .map(id -> {
+                if (id == null) {
+                    return BulkItemResult.failed(null, BulkItemResult.Status.INVALID, "idnull");
+                }
+                return mongoTemplate.remove(byId(id), entityClass).getDeletedCount() > 0
+                    ? BulkItemResult.of(id, BulkItemResult.Status.DELETED)
+                    : BulkItemResult.failed(id, BulkItemResult.Status.NOT_FOUND, "idnotfound");
+            })
+            .toList();
+    }
+
+    private void checkSize(List<?> items) {
+        if (items.size() > maxItems) {
+            throw new BulkTooLargeException(items.size(), maxItems);
+        }
+    }
+
+    /**
+     * @return the number of documents matched by the updates and replacements of the bulk write.
+     */
+    private int execute(BulkOperations bulk, List<Integer> queued, BulkItemResult[] results) {
+        if (queued.isEmpty()) {
+            return 0;
+        }
+        try {
+            return bulk.execute().getMatchedCount();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                int position = queued.get(error.getIndex());
+                BulkItemResult.Status status = error.getCode() == DUPLICATE_KEY
+                    ? BulkItemResult.Status.CONFLICT
+                    : BulkItemResult.Status.FAILED;
+                results[position] = BulkItemResult.failed(results[position].id(), status, error.getMessage());
+            }
+            return e.getResult().getMatchedCount();
+        }
+    }
+
+    private Set<String> existingIds(Class<?> entityClass, List<String> ids) {
+        List<String> candidates = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        Query query = Query.query(Criteria.where(ID_FIELD).in(candidates));
+        query.fields().include(ID_FIELD);
+        MongoPersistentEntity<?> persistentEntity = persistentEntity(entityClass);
+        return mongoTemplate
+            .find(query, entityClass)
+            .stream()
+            .map(entity -> idOf(persistentEntity, entity))
+            .collect(Collectors.toSet());
+    }
+
+    private MongoPersistentEntity<?> persistentEntity(Class<?> entityClass) {
+        return mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityClass);
+    }
+
+    private static String idOf(MongoPersistentEntity<?> persistentEntity, Object entity) {
+        Object id = persistentEntity.getIdentifierAccessor(entity).getIdentifier();
+        return id != null ? id.toString() : null;
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where(ID_FIELD).is(id));
+    }
+}
@@ -0,0 +1,108 @@
+package demo.jojoaddison.repository;
+
+import demo.jojoaddison.domain.HCPayOption;
+import demo.jojoaddison.domain.Membership;
+import demo.jojoaddison.domain.Metadata;
+import demo.jojoaddison.domain.Team;
+import java.util.Collection;
+import java.util.Map;
+import org.bson.Document;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts the entries of the caches of entities read by id whenever the persistence layer writes them.
+ * <p>
+ * Saves and deletes through the repositories are caught from the MongoDB mapping events; the writes that don't raise
+ * them (atomic updates, bulk writes, changes tailed from the change stream) evict their entries explicitly. Within a
+ * transaction, entries are evicted again once it completes, since a read in between still sees the previous state.
+ */
+@Component
+public class EntityCacheEvictor extends AbstractMongoEventListener<Object> {
+
+    private static final String ID_FIELD = "_id";
+
+    private static final Map<Class<?>, String> CACHES_BY_ENTITY = Map.of(
+        Team.class,
+        TeamRepository.TEAMS_BY_ID_CACHE,
+        Membership.class,
+        MembershipRepository.MEMBERSHIPS_BY_ID_CACHE,
+        HCPayOption.class,
+        HCPayOptionRepository.HC_PAY_OPTIONS_BY_ID_CACHE,
+        Metadata.class,
+        MetadataRepository.METADATA_BY_ID_CACHE
+    );
+
+    private final CacheManager cacheManager;
+
+    public EntityCacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Evict the cached entity with an id, if its type is cached.
+     *
+     * @param entityClass the type of the entity.
+     * @param id the id of the entity.
+     */
+    public void evict(Class<?> entityClass, Object id) {
+        Cache cache = cacheOf(entityClass);
+        if (cache != null && id != null) {
+            // an id stored as an ObjectId prints as the hex string the entity is read by
+            evict(cache, String.valueOf(id));
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        Document document = event.getDocument();
+        evict(event.getSource().getClass(), document != null ? document.get(ID_FIELD) : null);
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        Cache cache = cacheOf(event.getType());
+        if (cache == null) {
+            return;
+        }
+        Object id = event.getDocument().get(ID_FIELD);
+        if (id instanceof Document operators && operators.get("$in") instanceof Collection<?> ids) {
+            ids.forEach(each -> evict(cache, String.valueOf(each)));
+        } else if (id != null && !(id instanceof Document)) {
+            evict(cache, String.valueOf(id));
+        } else {
+            // deleted by other criteria, the deleted ids are unknown
+            cache.clear();
+            afterTransaction(cache::clear);
+        }
+    }
+
+    private static void evict(Cache cache, String key) {
+        cache.evict(key);
+        afterTransaction(() -> cache.evict(key));
+    }
+
+    private static void afterTransaction(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        eviction.run();
+                    }
+                }
+            );
+        }
+    }
+
+    private Cache cacheOf(Class<?> entityClass) {
+        String cacheName = entityClass != null ? CACHES_BY_ENTITY.get(entityClass) : null;
+        return cacheName != null ? cacheManager.getCache(cacheName) : null;
+    }
+}
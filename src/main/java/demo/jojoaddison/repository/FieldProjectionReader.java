@@ -0,0 +1,55 @@
+package demo.jojoaddison.repository;
+
+import java.util.List;
+import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads pages of entities holding only some of their fields.
+ * <p>
+ * The projection is applied by MongoDB, so the other fields are neither sent over the network nor mapped. The fields
+ * that aren't requested are left {@code null} in the returned entities, except for the id which is always read.
+ */
+@Component
+public class FieldProjectionReader {
+
+    private final MongoTemplate mongoTemplate;
+
+    public FieldProjectionReader(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Get a page of entities with only the given fields.
+     *
+     * @param entityClass the type of the entities.
+     * @param fields the names of the properties to read.
+     * @param pageable the pagination information.
+     * @param <T> the type of the entities.
+     * @return the page of partial entities.
+     * @throws UnknownFieldException if a field isn't a property of the entity.
+     */
+    public <T> Page<T> findAll(Class<T> entityClass, Set<String> fields, Pageable pageable) {
+        MongoPersistentEntity<?> persistentEntity = mongoTemplate
+            .getConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(entityClass);
+        Query query = new Query().with(pageable);
+        for (String field : fields) {
+            if (persistentEntity.getPersistentProperty(field) == null) {
+                throw new UnknownFieldException(field);
+            }
+            // the property name is mapped to the document field name by the template
+            query.fields().include(field);
+        }
+        List<T> content = mongoTemplate.find(query, entityClass);
+        Query countQuery = Query.of(query).limit(-1).skip(-1);
+        return PageableExecutionUtils.getPage(content, pageable, () -> mongoTemplate.count(countQuery, entityClass));
+    }
+}
@@ -1,6 +1,8 @@
 package demo.jojoaddison.repository;
 
 import demo.jojoaddison.domain.HCCredential;
+import java.util.stream.Stream;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,20 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface HCCredentialRepository extends MongoRepository<HCCredential, String> {}
+public interface HCCredentialRepository extends MongoRepository<HCCredential, String>, AtomicUpdateRepository<HCCredential> {
+    /**
+     * Stream all the hCCredentials from a cursor fetching them by batches, so they are never all in memory.
+     *
+     * @return the stream of all the hCCredentials, to be closed once consumed.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<HCCredential> streamAllBy();
+
+    /**
+     * Delete the hCCredential with an id, telling whether there was one.
+     *
+     * @param id the id of the hCCredential.
+     * @return the number of deleted hCCredentials, {@code 0} if there was none with that id.
+     */
+    long removeById(String id);
+}
@@ -1,6 +1,11 @@
 package demo.jojoaddison.repository;
 
 import demo.jojoaddison.domain.HCPayOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +14,42 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface HCPayOptionRepository extends MongoRepository<HCPayOption, String> {}
+public interface HCPayOptionRepository extends MongoRepository<HCPayOption, String>, AtomicUpdateRepository<HCPayOption> {
+    String HC_PAY_OPTIONS_BY_ID_CACHE = "hCPayOptionsById";
+
+    /**
+     * Get one hCPayOption by id, read through the {@value #HC_PAY_OPTIONS_BY_ID_CACHE} cache.
+     * <p>
+     * Writes through the REST API evict the entry of the hCPayOption they change.
+     *
+     * @param id the id of the hCPayOption.
+     * @return the hCPayOption, or empty if there is none with that id.
+     */
+    @Override
+    @Cacheable(cacheNames = HC_PAY_OPTIONS_BY_ID_CACHE)
+    Optional<HCPayOption> findById(String id);
+
+    /**
+     * Stream all the hCPayOptions from a cursor fetching them by batches, so they are never all in memory.
+     *
+     * @return the stream of all the hCPayOptions, to be closed once consumed.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<HCPayOption> streamAllBy();
+
+    /**
+     * Delete the hCPayOption with an id, telling whether there was one.
+     *
+     * @param id the id of the hCPayOption.
+     * @return the number of deleted hCPayOptions, {@code 0} if there was none with that id.
+     */
+    long removeById(String id);
+
+    /**
+     * Get the pay options of a user, served by the {@code user_id} index.
+     *
+     * @param userID the id of the user.
+     * @return the pay options.
+     */
+    List<HCPayOption> findByUserID(String userID);
+}
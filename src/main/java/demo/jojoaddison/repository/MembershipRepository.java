@@ -1,6 +1,10 @@
 package demo.jojoaddison.repository;
 
 import demo.jojoaddison.domain.Membership;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +13,34 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface MembershipRepository extends MongoRepository<Membership, String> {}
+public interface MembershipRepository extends MongoRepository<Membership, String>, AtomicUpdateRepository<Membership> {
+    String MEMBERSHIPS_BY_ID_CACHE = "membershipsById";
+
+    /**
+     * Get one membership by id, read through the {@value #MEMBERSHIPS_BY_ID_CACHE} cache.
+     * <p>
+     * Writes through the REST API evict the entry of the membership they change.
+     *
+     * @param id the id of the membership.
+     * @return the membership, or empty if there is none with that id.
+     */
+    @Override
+    @Cacheable(cacheNames = MEMBERSHIPS_BY_ID_CACHE)
+    Optional<Membership> findById(String id);
+
+    /**
+     * Stream all the memberships from a cursor fetching them by batches, so they are never all in memory.
+     *
+     * @return the stream of all the memberships, to be closed once consumed.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<Membership> streamAllBy();
+
+    /**
+     * Delete the membership with an id, telling whether there was one.
+     *
+     * @param id the id of the membership.
+     * @return the number of deleted memberships, {@code 0} if there was none with that id.
+     */
+    long removeById(String id);
+}
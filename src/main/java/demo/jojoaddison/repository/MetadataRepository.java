@@ -1,6 +1,10 @@
 package demo.jojoaddison.repository;
 
 import demo.jojoaddison.domain.Metadata;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +13,34 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface MetadataRepository extends MongoRepository<Metadata, String> {}
+public interface MetadataRepository extends MongoRepository<Metadata, String>, AtomicUpdateRepository<Metadata> {
+    String METADATA_BY_ID_CACHE = "metadataById";
+
+    /**
+     * Get one metadata by id, read through the {@value #METADATA_BY_ID_CACHE} cache.
+     * <p>
+     * Writes through the REST API evict the entry of the metadata they change.
+     *
+     * @param id the id of the metadata.
+     * @return the metadata, or empty if there is none with that id.
+     */
+    @Override
+    @Cacheable(cacheNames = METADATA_BY_ID_CACHE)
+    Optional<Metadata> findById(String id);
+
+    /**
+     * Stream all the metadata from a cursor fetching them by batches, so they are never all in memory.
+     *
+     * @return the stream of all the metadata, to be closed once consumed.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<Metadata> streamAllBy();
+
+    /**
+     * Delete the metadata with an id, telling whether there was one.
+     *
+     * @param id the id of the metadata.
+     * @return the number of deleted metadata, {@code 0} if there was none with that id.
+     */
+    long removeById(String id);
+}
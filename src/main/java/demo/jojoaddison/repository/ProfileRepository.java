@@ -1,6 +1,8 @@
 package demo.jojoaddison.repository;
 
 import demo.jojoaddison.domain.Profile;
+import java.util.stream.Stream;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,20 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ProfileRepository extends MongoRepository<Profile, String> {}
+public interface ProfileRepository extends MongoRepository<Profile, String>, AtomicUpdateRepository<Profile> {
+    /**
+     * Stream all the profiles from a cursor fetching them by batches, so they are never all in memory.
+     *
+     * @return the stream of all the profiles, to be closed once consumed.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<Profile> streamAllBy();
+
+    /**
+     * Delete the profile with an id, telling whether there was one.
+     *
+     * @param id the id of the profile.
+     * @return the number of deleted profiles, {@code 0} if there was none with that id.
+     */
+    long removeById(String id);
+}
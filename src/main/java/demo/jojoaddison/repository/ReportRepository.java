@@ -1,6 +1,11 @@
 package demo.jojoaddison.repository;
 
 import demo.jojoaddison.domain.Report;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +14,40 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ReportRepository extends MongoRepository<Report, String> {}
+public interface ReportRepository extends MongoRepository<Report, String>, AtomicUpdateRepository<Report> {
+    /**
+     * Stream all the reports from a cursor fetching them by batches, so they are never all in memory.
+     *
+     * @return the stream of all the reports, to be closed once consumed.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<Report> streamAllBy();
+
+    /**
+     * Delete the report with an id, telling whether there was one.
+     *
+     * @param id the id of the report.
+     * @return the number of deleted reports, {@code 0} if there was none with that id.
+     */
+    long removeById(String id);
+
+    /**
+     * Get a page of the reports of a patient, served by the {@code patient_id_created_date} index.
+     *
+     * @param patientId the id of the patient.
+     * @param pageable the pagination information, sort by {@code createdDate} to read the index in order.
+     * @return the page of reports.
+     */
+    Page<Report> findByPatientId(String patientId, Pageable pageable);
+
+    /**
+     * Get a page of the reports of a patient created between two dates, bounds excluded.
+     *
+     * @param patientId the id of the patient.
+     * @param from the lower bound of the creation date.
+     * @param to the upper bound of the creation date.
+     * @param pageable the pagination information.
+     * @return the page of reports.
+     */
+    Page<Report> findByPatientIdAndCreatedDateBetween(String patientId, LocalDate from, LocalDate to, Pageable pageable);
+}
@@ -1,6 +1,11 @@
 package demo.jojoaddison.repository;
 
 import demo.jojoaddison.domain.Task;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +14,61 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface TaskRepository extends MongoRepository<Task, String> {}
+public interface TaskRepository extends MongoRepository<Task, String>, AtomicUpdateRepository<Task> {
+    /**
+     * Stream all the tasks from a cursor fetching them by batches, so they are never all in memory.
+     *
+     * @return the stream of all the tasks, to be closed once consumed.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<Task> streamAllBy();
+
+    /**
+     * Delete the task with an id, telling whether there was one.
+     *
+     * @param id the id of the task.
+     * @return the number of deleted tasks, {@code 0} if there was none with that id.
+     */
+    long removeById(String id);
+
+    /**
+     * Get a page of the tasks of a patient, served by the {@code patient_id_created_date} index.
+     *
+     * @param patientId the id of the patient.
+     * @param pageable the pagination information, sort by {@code createdDate} to read the index in order.
+     * @return the page of tasks.
+     */
+    Page<Task> findByPatientId(String patientId, Pageable pageable);
+
+    /**
+     * Get a page of the tasks of a patient created between two dates, bounds excluded.
+     *
+     * @param patientId the id of the patient.
+     * @param from the lower bound of the creation date.
+     * @param to the upper bound of the creation date.
+     * @param pageable the pagination information.
+     * @return the page of tasks.
+     */
+    Page<Task> findByPatientIdAndCreatedDateBetween(String patientId, LocalDate from, LocalDate to, Pageable pageable);
+
+    /**
+     * Get a page of the tasks of a team, served by the {@code team_id_created_date} index.
+     *
+     * @param teamId the id of the team.
+     * @param pageable the pagination information.
+     * @return the page of tasks.
+     */
+    Page<Task> findByTeamId(String teamId, Pageable pageable);
+
+    /**
+     * Get the tasks of an attendant scheduled between two dates, bounds excluded, served by the
+     * {@code attendant_id_schedule} index.
+     *
+     * @param attendantId the id of the attendant.
+     * @param from the lower bound of the schedule.
+     * @param to the upper bound of the schedule.
+     * @param pageable the pagination information.
+     * @return the page of tasks.
+     */
+    Page<Task> findByAttendantIdAndScheduleBetween(String attendantId, LocalDate from, LocalDate to, Pageable pageable);
+}
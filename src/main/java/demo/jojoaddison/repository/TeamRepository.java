@@ -1,6 +1,10 @@
 package demo.jojoaddison.repository;
 
 import demo.jojoaddison.domain.Team;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +13,34 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface TeamRepository extends MongoRepository<Team, String> {}
+public interface TeamRepository extends MongoRepository<Team, String>, AtomicUpdateRepository<Team> {
+    String TEAMS_BY_ID_CACHE = "teamsById";
+
+    /**
+     * Get one team by id, read through the {@value #TEAMS_BY_ID_CACHE} cache.
+     * <p>
+     * Writes through the REST API evict the entry of the team they change.
+     *
+     * @param id the id of the team.
+     * @return the team, or empty if there is none with that id.
+     */
+    @Override
+    @Cacheable(cacheNames = TEAMS_BY_ID_CACHE)
+    Optional<Team> findById(String id);
+
+    /**
+     * Stream all the teams from a cursor fetching them by batches, so they are never all in memory.
+     *
+     * @return the stream of all the teams, to be closed once consumed.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<Team> streamAllBy();
+
+    /**
+     * Delete the team with an id, telling whether there was one.
+     *
+     * @param id the id of the team.
+     * @return the number of deleted teams, {@code 0} if there was none with that id.
+     */
+    long removeById(String id);
+}
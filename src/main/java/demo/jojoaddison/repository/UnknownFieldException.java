@@ -0,0 +1,13 @@
+package demo.jojoaddison.repository;
+
+/**
+ * Thrown when a projection names a field the entity doesn't have.
+ */
+public class UnknownFieldException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UnknownFieldException(String field) {
+        super("Unknown field: " + field);
+    }
+}
@@ -1,15 +1,18 @@
 package demo.jojoaddison.repository.search;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import demo.jojoaddison.config.ApplicationProperties;
 import demo.jojoaddison.domain.Address;
-import demo.jojoaddison.repository.AddressRepository;
-import java.util.stream.Stream;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Address} entity.
@@ -17,45 +20,76 @@ import org.springframework.scheduling.annotation.Async;
 public interface AddressSearchRepository extends ElasticsearchRepository<Address, String>, AddressSearchRepositoryInternal {}
 
 interface AddressSearchRepositoryInternal {
-    Stream<Address> search(String query);
+    Page<Address> search(String query, Pageable pageable);
 
-    Stream<Address> search(Query query);
+    Page<Address> search(Query query);
+
+    SearchCursorPage<Address> search(String query, String cursor, int size);
 
-    @Async
     void index(Address entity);
 
-    @Async
     void deleteFromIndexById(String id);
 }
 
 class AddressSearchRepositoryInternalImpl implements AddressSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final AddressRepository repository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final SearchResultCache searchResultCache;
+    private final boolean indexOnRequest;
 
-    AddressSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, AddressRepository repository) {
+    AddressSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.bulkIndexer = bulkIndexer;
+        this.searchResultCache = searchResultCache;
+        this.indexOnRequest = applicationProperties.getSearch().isIndexOnRequest();
+    }
+
+    @Override
+    public Page<Address> search(String query, Pageable pageable) {
+        return searchResultCache.get(
+            Address.class,
+            query,
+            pageable,
+            () -> {
+                NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                return search(nativeQuery.setPageable(pageable));
+            }
+        );
     }
 
     @Override
-    public Stream<Address> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+    public Page<Address> search(Query query) {
+        SearchHits<Address> searchHits = elasticsearchTemplate.search(query, Address.class);
+        List<Address> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
     @Override
-    public Stream<Address> search(Query query) {
-        return elasticsearchTemplate.search(query, Address.class).map(SearchHit::getContent).stream();
+    public SearchCursorPage<Address> search(String query, String cursor, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, query, cursor, size, Address.class);
     }
 
     @Override
     public void index(Address entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.index(entity.getId(), entity);
+        searchResultCache.invalidate(Address.class);
     }
 
     @Override
     public void deleteFromIndexById(String id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Address.class);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.delete(id, Address.class);
+        searchResultCache.invalidate(Address.class);
     }
 }
@@ -1,15 +1,18 @@
 package demo.jojoaddison.repository.search;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import demo.jojoaddison.config.ApplicationProperties;
 import demo.jojoaddison.domain.Condition;
-import demo.jojoaddison.repository.ConditionRepository;
-import java.util.stream.Stream;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Condition} entity.
@@ -17,45 +20,83 @@ import org.springframework.scheduling.annotation.Async;
 public interface ConditionSearchRepository extends ElasticsearchRepository<Condition, String>, ConditionSearchRepositoryInternal {}
 
 interface ConditionSearchRepositoryInternal {
-    Stream<Condition> search(String query);
+    Page<Condition> search(String query, Pageable pageable);
 
-    Stream<Condition> search(Query query);
+    Page<Condition> search(Query query);
+
+    SearchCursorPage<Condition> search(String query, String cursor, int size);
+
+    Page<Condition> findByPatientId(String patientId, Pageable pageable);
 
-    @Async
     void index(Condition entity);
 
-    @Async
     void deleteFromIndexById(String id);
 }
 
 class ConditionSearchRepositoryInternalImpl implements ConditionSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final ConditionRepository repository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final SearchResultCache searchResultCache;
+    private final boolean indexOnRequest;
 
-    ConditionSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, ConditionRepository repository) {
+    ConditionSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.bulkIndexer = bulkIndexer;
+        this.searchResultCache = searchResultCache;
+        this.indexOnRequest = applicationProperties.getSearch().isIndexOnRequest();
+    }
+
+    @Override
+    public Page<Condition> search(String query, Pageable pageable) {
+        return searchResultCache.get(
+            Condition.class,
+            query,
+            pageable,
+            () -> {
+                NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                return search(nativeQuery.setPageable(pageable));
+            }
+        );
+    }
+
+    @Override
+    public Page<Condition> search(Query query) {
+        SearchHits<Condition> searchHits = elasticsearchTemplate.search(query, Condition.class);
+        List<Condition> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
     @Override
-    public Stream<Condition> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+    public SearchCursorPage<Condition> search(String query, String cursor, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, query, cursor, size, Condition.class);
     }
 
     @Override
-    public Stream<Condition> search(Query query) {
-        return elasticsearchTemplate.search(query, Condition.class).map(SearchHit::getContent).stream();
+    public Page<Condition> findByPatientId(String patientId, Pageable pageable) {
+        return search(ExactMatchQuery.of("patientId", patientId, pageable));
     }
 
     @Override
     public void index(Condition entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.index(entity.getId(), entity);
+        searchResultCache.invalidate(Condition.class);
     }
 
     @Override
     public void deleteFromIndexById(String id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Condition.class);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.delete(id, Condition.class);
+        searchResultCache.invalidate(Condition.class);
     }
 }
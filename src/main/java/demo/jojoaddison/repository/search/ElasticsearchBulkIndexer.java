@@ -0,0 +1,484 @@
+package demo.jojoaddison.repository.search;
+
+import co.elastic.clients.elasticsearch._types.ErrorCause;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import demo.jojoaddison.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buffers index and delete operations per index and writes them to Elasticsearch in bulk.
+ * <p>
+ * Operations are keyed by document id, so only the latest operation for a document is sent. A buffer is flushed
+ * when it reaches {@code application.search.bulk.batch-size} operations or {@code max-bytes} of source, and every
+ * {@code flush-interval} otherwise. Indexings and deletions of a flush are sent as one {@code _bulk} request, deletions
+ * by id, so that a document is deleted even if the index hasn't been refreshed since it was indexed.
+ * <p>
+ * Failed operations stay buffered and are retried with an exponential backoff, starting at {@code retry-backoff} and
+ * capped at {@code max-retry-backoff}, unless a newer operation for the same document has been buffered in the
+ * meantime. Operations that failed because Elasticsearch was unreachable or overloaded are retried until it is back;
+ * documents Elasticsearch rejected are dropped after {@code max-retries} attempts. A buffer holds at most
+ * {@code max-pending} operations, beyond which its oldest operations are dropped. Callers that must know their writes
+ * reached the index, before committing a position in a feed for instance, use {@link #flushAllAcknowledged()}, which
+ * also fails when operations were dropped since it was last called.
+ * <p>
+ * Entities declaring a {@link org.springframework.data.annotation.Version @Version} property are indexed with that
+ * version as an external Elasticsearch version, so a stale write that arrives late can never overwrite a newer
+ * document, neither in the buffer nor in the index.
+ * <p>
+ * Every batch sent invalidates the cached search results of its index, see {@link SearchResultCache}.
+ * <p>
+ * While an index is being rebuilt, its operations can be mirrored to the new physical index so that the writes done
+ * during the rebuild aren't lost when the alias is switched to it. Mirrored operations aren't retried, the ones that
+ * failed are counted instead, see {@link #mirrorFailures(Class)}.
+ */
+@Component
+public class ElasticsearchBulkIndexer {
+
+    private static final String FLUSH_METER = "search.bulk.flush";
+    private static final String BATCH_SIZE_METER = "search.bulk.batch.size";
+    private static final String RETRIES_METER = "search.bulk.retries";
+    private static final String DROPPED_METER = "search.bulk.dropped";
+    private static final String VERSION_CONFLICT = "version_conflict_engine_exception";
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final Set<String> TRANSIENT_FAILURES = Set.of(
+        "es_rejected_execution_exception",
+        "unavailable_shards_exception",
+        "cluster_block_exception",
+        "circuit_breaking_exception"
+    );
+
+    private final Logger log = LoggerFactory.getLogger(ElasticsearchBulkIndexer.class);
+
+    private final ElasticsearchTemplate elasticsearchTemplate;
+
+    private final ApplicationProperties.Search.Bulk properties;
+
+    private final Executor taskExecutor;
+
+    private final MeterRegistry meterRegistry;
+
+    private final SearchResultCache searchResultCache;
+
+    private final Map<String, Buffer> buffers = new ConcurrentHashMap<>();
+
+    private final Map<String, Mirror> mirrors = new ConcurrentHashMap<>();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    public ElasticsearchBulkIndexer(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ApplicationProperties applicationProperties,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        MeterRegistry meterRegistry,
+        SearchResultCache searchResultCache
+    ) {
+        this.elasticsearchTemplate = elasticsearchTemplate;
+        this.properties = applicationProperties.getSearch().getBulk();
+        this.taskExecutor = taskExecutor;
+        this.meterRegistry = meterRegistry;
+        this.searchResultCache = searchResultCache;
+    }
+
+    /**
+     * Buffer the indexing of an already persisted entity.
+     *
+     * @param id the id of the entity.
+     * @param entity the entity to index.
+     */
+    public void index(String id, Object entity) {
+        ElasticsearchConverter converter = elasticsearchTemplate.getElasticsearchConverter();
+        String source = converter.mapObject(entity).toJson();
+        enqueue(entity.getClass(), Operation.of(id, source, versionOf(converter, entity)));
+    }
+
+    /**
+     * Buffer the removal of a document from the index of an entity type.
+     *
+     * @param id the id of the document.
+     * @param entityClass the type of the entity.
+     */
+    public void delete(String id, Class<?> entityClass) {
+        enqueue(entityClass, Operation.of(id, null, null));
+    }
+
+    /**
+     * Also send the operations on an entity type to another index, until {@link #stopMirroring(Class)} is called.
+     *
+     * @param entityClass the type of the entity.
+     * @param mirror the index receiving a copy of the operations.
+     */
+    public void mirror(Class<?> entityClass, IndexCoordinates mirror) {
+        mirrors.put(elasticsearchTemplate.getIndexCoordinatesFor(entityClass).getIndexName(), new Mirror(mirror, new AtomicLong()));
+    }
+
+    /**
+     * Count the operations on an entity type that could not be mirrored since {@link #mirror(Class, IndexCoordinates)}.
+     *
+     * @param entityClass the type of the entity.
+     * @return the number of operations missing from the mirror, {@code 0} if the entity type isn't mirrored.
+     */
+    public long mirrorFailures(Class<?> entityClass) {
+        Mirror mirror = mirrors.get(elasticsearchTemplate.getIndexCoordinatesFor(entityClass).getIndexName());
+        return mirror != null ? mirror.failures().get() : 0;
+    }
+
+    /**
+     * Stop mirroring the operations on an entity type.
+     *
+     * @param entityClass the type of the entity.
+     */
+    public void stopMirroring(Class<?> entityClass) {
+        mirrors.remove(elasticsearchTemplate.getIndexCoordinatesFor(entityClass).getIndexName());
+    }
+
+    /**
+     * Flush every buffer, whatever its size.
+     */
+    @Scheduled(fixedDelayString = "${application.search.bulk.flush-interval:PT1S}")
+    @PreDestroy
+    public void flushAll() {
+        buffers.values().forEach(buffer -> flush(buffer, false));
+    }
+
+    /**
+     * Flush every buffer, including the operations waiting for their retry backoff, and check that every operation
+     * buffered so far has been acknowledged by Elasticsearch.
+     *
+     * @throws SearchIndexingException if some operations failed, they are kept buffered and retried later, or if some
+     * operations were dropped since the previous call, they have to be buffered again.
+     */
+    public void flushAllAcknowledged() {
+        int pending = 0;
+        for (Buffer buffer : buffers.values()) {
+            pending += flush(buffer, true);
+        }
+        if (pending > 0) {
+            throw new SearchIndexingException(pending + " search index operations were not acknowledged by Elasticsearch");
+        }
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            throw new SearchIndexingException(lost + " search index operations were dropped before reaching Elasticsearch");
+        }
+    }
+
+    private Long versionOf(ElasticsearchConverter converter, Object entity) {
+        ElasticsearchPersistentEntity<?> persistentEntity = converter.getMappingContext().getPersistentEntity(entity.getClass());
+        if (persistentEntity == null || !persistentEntity.hasVersionProperty()) {
+            return null;
+        }
+        Object version = persistentEntity.getPropertyAccessor(entity).getProperty(persistentEntity.getRequiredVersionProperty());
+        return version instanceof Number number ? number.longValue() : null;
+    }
+
+    private void enqueue(Class<?> entityClass, Operation operation) {
+        IndexCoordinates index = elasticsearchTemplate.getIndexCoordinatesFor(entityClass);
+        Buffer buffer = buffers.computeIfAbsent(index.getIndexName(), name -> new Buffer(index));
+        boolean full;
+        synchronized (buffer) {
+            buffer.put(operation);
+            full = buffer.operations.size() >= properties.getBatchSize() || buffer.bytes >= properties.getMaxBytes();
+            evictOverflow(buffer);
+        }
+        if (full && buffer.flushScheduled.compareAndSet(false, true)) {
+            try {
+                taskExecutor.execute(() -> {
+                    buffer.flushScheduled.set(false);
+                    flush(buffer, false);
+                });
+            } catch (RejectedExecutionException e) {
+                // the operation is buffered, the scheduled flush will send it
+                buffer.flushScheduled.set(false);
+                log.warn("Could not schedule the flush of {}: {}", index.getIndexName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Send the buffered operations of an index.
+     *
+     * @param buffer the buffer of the index.
+     * @param force whether to also send the operations waiting for their retry backoff.
+     * @return the number of operations that failed and were buffered again.
+     */
+    private int flush(Buffer buffer, boolean force) {
+        // one flush at a time per index, so that operations on a document can't be reordered
+        buffer.flushLock.lock();
+        try {
+            List<Operation> batch;
+            synchronized (buffer) {
+                batch = buffer.drain(force);
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            String indexName = buffer.index.getIndexName();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            Map<String, Failure> failed = send(buffer, batch);
+            // the cached results may have been computed before the batch reached the index
+            searchResultCache.invalidate(indexName);
+            sample.stop(meterRegistry.timer(FLUSH_METER, "index", indexName));
+            DistributionSummary.builder(BATCH_SIZE_METER).tag("index", indexName).register(meterRegistry).record(batch.size());
+            return failed.isEmpty() ? 0 : retry(buffer, batch, failed);
+        } finally {
+            buffer.flushLock.unlock();
+        }
+    }
+
+    private Map<String, Failure> send(Buffer buffer, List<Operation> batch) {
+        Map<String, Failure> failed = new HashMap<>();
+        try {
+            BulkResponse response = bulk(buffer.index, batch);
+            if (response.errors()) {
+                log.warn("Bulk request to {} partially failed", buffer.index.getIndexName());
+            }
+            for (BulkResponseItem item : response.items()) {
+                ErrorCause error = item.error();
+                // a version conflict means the index already holds a newer version of the document, nothing to retry
+                if (error != null && !VERSION_CONFLICT.equals(error.type())) {
+                    boolean transientFailure = TRANSIENT_FAILURES.contains(error.type()) || item.status() == TOO_MANY_REQUESTS;
+                    failed.put(item.id(), transientFailure ? Failure.UNAVAILABLE : Failure.REJECTED);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Bulk request to {} failed: {}", buffer.index.getIndexName(), e.getMessage());
+            batch.forEach(operation -> failed.put(operation.id(), Failure.UNAVAILABLE));
+        }
+
+        Mirror mirror = mirrors.get(buffer.index.getIndexName());
+        if (mirror != null) {
+            sendToMirror(mirror, batch);
+        }
+        return failed;
+    }
+
+    private void sendToMirror(Mirror mirror, List<Operation> batch) {
+        String indexName = mirror.index().getIndexName();
+        try {
+            BulkResponse response = bulk(mirror.index(), batch);
+            long failed = response
+                .items()
+                .stream()
+                .filter(item -> item.error() != null && !VERSION_CONFLICT.equals(item.error().type()))
+                .count();
+            if (failed > 0) {
+                log.warn("Mirroring of {} operations to {} failed", failed, indexName);
+                mirror.failures().addAndGet(failed);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Mirroring to {} failed: {}", indexName, e.getMessage());
+            mirror.failures().addAndGet(batch.size());
+        }
+    }
+
+    private BulkResponse bulk(IndexCoordinates index, List<Operation> batch) {
+        String indexName = index.getIndexName();
+        List<BulkOperation> operations = new ArrayList<>(batch.size());
+        for (Operation operation : batch) {
+            if (operation.source() != null) {
+                operations.add(
+                    BulkOperation.of(builder ->
+                        builder.index(indexing -> {
+                            indexing.index(indexName).id(operation.id()).document(Document.parse(operation.source()));
+                            if (operation.version() != null) {
+                                indexing.version(operation.version()).versionType(VersionType.External);
+                            }
+                            return indexing;
+                        })
+                    )
+                );
+            } else {
+                operations.add(BulkOperation.of(builder -> builder.delete(deletion -> deletion.index(indexName).id(operation.id()))));
+            }
+        }
+        Refresh refresh = refreshOf(elasticsearchTemplate.getRefreshPolicy());
+        BulkRequest request = BulkRequest.of(builder -> builder.operations(operations).refresh(refresh));
+        return elasticsearchTemplate.execute(client -> client.bulk(request));
+    }
+
+    private static Refresh refreshOf(RefreshPolicy refreshPolicy) {
+        if (refreshPolicy == null) {
+            return null;
+        }
+        return switch (refreshPolicy) {
+            case IMMEDIATE -> Refresh.True;
+            case WAIT_UNTIL -> Refresh.WaitFor;
+            case NONE -> Refresh.False;
+        };
+    }
+
+    private int retry(Buffer buffer, List<Operation> batch, Map<String, Failure> failed) {
+        String indexName = buffer.index.getIndexName();
+        int retried = 0;
+        synchronized (buffer) {
+            for (Operation operation : batch) {
+                Failure failure = failed.get(operation.id());
+                if (failure == null) {
+                    continue;
+                }
+                // an unreachable cluster will come back, a rejected document most likely won't
+                if (failure == Failure.REJECTED && operation.attempt() >= properties.getMaxRetries()) {
+                    drop(indexName, operation, "after " + (operation.attempt() + 1) + " attempts");
+                    continue;
+                }
+                // a newer operation on the same document supersedes the failed one
+                if (buffer.putIfAbsent(operation.retried(backoff(operation.attempt())))) {
+                    Counter.builder(RETRIES_METER).tag("index", indexName).register(meterRegistry).increment();
+                    retried++;
+                }
+            }
+            evictOverflow(buffer);
+        }
+        return retried;
+    }
+
+    private Duration backoff(int attempt) {
+        Duration backoff = properties.getRetryBackoff().multipliedBy(1L << Math.min(attempt, 30));
+        return backoff.compareTo(properties.getMaxRetryBackoff()) > 0 ? properties.getMaxRetryBackoff() : backoff;
+    }
+
+    private void evictOverflow(Buffer buffer) {
+        while (buffer.operations.size() > properties.getMaxPending()) {
+            drop(buffer.index.getIndexName(), buffer.removeOldest(), "because " + properties.getMaxPending() + " operations are pending");
+        }
+    }
+
+    private void drop(String indexName, Operation operation, String reason) {
+        log.error("Dropping {} of document {} on {} {}", operation.describe(), operation.id(), indexName, reason);
+        Counter.builder(DROPPED_METER).tag("index", indexName).register(meterRegistry).increment();
+        dropped.incrementAndGet();
+    }
+
+    private enum Failure {
+        /**
+         * Elasticsearch could not process the operation for now.
+         */
+        UNAVAILABLE,
+        /**
+         * Elasticsearch refused the document itself.
+         */
+        REJECTED,
+    }
+
+    private record Mirror(IndexCoordinates index, AtomicLong failures) {}
+
+    private record Operation(String id, String source, Long version, int attempt, long notBefore) {
+        static Operation of(String id, String source, Long version) {
+            return new Operation(id, source, version, 0, System.nanoTime());
+        }
+
+        Operation retried(Duration backoff) {
+            return new Operation(id, source, version, attempt + 1, System.nanoTime() + backoff.toNanos());
+        }
+
+        boolean isDue(long now) {
+            return now - notBefore >= 0;
+        }
+
+        boolean isOlderThan(Operation other) {
+            return version != null && other.version != null && version < other.version;
+        }
+
+        String describe() {
+            return source != null ? "indexing" : "deletion";
+        }
+
+        long bytes() {
+            return source != null ? source.length() : id.length();
+        }
+    }
+
+    private static final class Buffer {
+
+        private final IndexCoordinates index;
+
+        private final ReentrantLock flushLock = new ReentrantLock();
+
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+        private final LinkedHashMap<String, Operation> operations = new LinkedHashMap<>();
+
+        private long bytes;
+
+        private Buffer(IndexCoordinates index) {
+            this.index = index;
+        }
+
+        private void put(Operation operation) {
+            Operation previous = operations.get(operation.id());
+            if (previous != null && operation.isOlderThan(previous)) {
+                return;
+            }
+            operations.remove(operation.id());
+            if (previous != null) {
+                bytes -= previous.bytes();
+            }
+            operations.put(operation.id(), operation);
+            bytes += operation.bytes();
+        }
+
+        private boolean putIfAbsent(Operation operation) {
+            if (operations.containsKey(operation.id())) {
+                return false;
+            }
+            put(operation);
+            return true;
+        }
+
+        private Operation removeOldest() {
+            Iterator<Operation> iterator = operations.values().iterator();
+            Operation oldest = iterator.next();
+            iterator.remove();
+            bytes -= oldest.bytes();
+            return oldest;
+        }
+
+        private List<Operation> drain(boolean force) {
+            long now = System.nanoTime();
+            List<Operation> drained = new ArrayList<>(operations.size());
+            Iterator<Operation> iterator = operations.values().iterator();
+            while (iterator.hasNext()) {
+                Operation operation = iterator.next();
+                if (force || operation.isDue(now)) {
+                    drained.add(operation);
+                    iterator.remove();
+                    bytes -= operation.bytes();
+                }
+            }
+            return drained;
+        }
+    }
+}
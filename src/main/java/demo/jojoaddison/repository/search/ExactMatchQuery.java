@@ -0,0 +1,26 @@
+package demo.jojoaddison.repository.search;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+
+/**
+ * Exact lookups on the {@code keyword} subfield of identifier fields.
+ * <p>
+ * The term query runs in filter context: it doesn't score, so Elasticsearch can answer it from its filter cache.
+ */
+final class ExactMatchQuery {
+
+    static final String KEYWORD_SUFFIX = ".keyword";
+
+    private ExactMatchQuery() {}
+
+    static NativeQuery of(String field, String value, Pageable pageable) {
+        NativeQuery nativeQuery = new NativeQuery(
+            BoolQuery.of(bool -> bool.filter(TermQuery.of(term -> term.field(field + KEYWORD_SUFFIX).value(value))._toQuery()))._toQuery()
+        );
+        nativeQuery.setPageable(pageable);
+        return nativeQuery;
+    }
+}
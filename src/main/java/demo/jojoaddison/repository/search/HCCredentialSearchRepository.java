@@ -1,15 +1,18 @@
 package demo.jojoaddison.repository.search;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import demo.jojoaddison.config.ApplicationProperties;
 import demo.jojoaddison.domain.HCCredential;
-import demo.jojoaddison.repository.HCCredentialRepository;
-import java.util.stream.Stream;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link HCCredential} entity.
@@ -17,45 +20,76 @@ import org.springframework.scheduling.annotation.Async;
 public interface HCCredentialSearchRepository extends ElasticsearchRepository<HCCredential, String>, HCCredentialSearchRepositoryInternal {}
 
 interface HCCredentialSearchRepositoryInternal {
-    Stream<HCCredential> search(String query);
+    Page<HCCredential> search(String query, Pageable pageable);
 
-    Stream<HCCredential> search(Query query);
+    Page<HCCredential> search(Query query);
+
+    SearchCursorPage<HCCredential> search(String query, String cursor, int size);
 
-    @Async
     void index(HCCredential entity);
 
-    @Async
     void deleteFromIndexById(String id);
 }
 
 class HCCredentialSearchRepositoryInternalImpl implements HCCredentialSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final HCCredentialRepository repository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final SearchResultCache searchResultCache;
+    private final boolean indexOnRequest;
 
-    HCCredentialSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, HCCredentialRepository repository) {
+    HCCredentialSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.bulkIndexer = bulkIndexer;
+        this.searchResultCache = searchResultCache;
+        this.indexOnRequest = applicationProperties.getSearch().isIndexOnRequest();
+    }
+
+    @Override
+    public Page<HCCredential> search(String query, Pageable pageable) {
+        return searchResultCache.get(
+            HCCredential.class,
+            query,
+            pageable,
+            () -> {
+                NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                return search(nativeQuery.setPageable(pageable));
+            }
+        );
     }
 
     @Override
-    public Stream<HCCredential> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+    public Page<HCCredential> search(Query query) {
+        SearchHits<HCCredential> searchHits = elasticsearchTemplate.search(query, HCCredential.class);
+        List<HCCredential> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
     @Override
-    public Stream<HCCredential> search(Query query) {
-        return elasticsearchTemplate.search(query, HCCredential.class).map(SearchHit::getContent).stream();
+    public SearchCursorPage<HCCredential> search(String query, String cursor, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, query, cursor, size, HCCredential.class);
     }
 
     @Override
     public void index(HCCredential entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.index(entity.getId(), entity);
+        searchResultCache.invalidate(HCCredential.class);
     }
 
     @Override
     public void deleteFromIndexById(String id) {
-        elasticsearchTemplate.delete(String.valueOf(id), HCCredential.class);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.delete(id, HCCredential.class);
+        searchResultCache.invalidate(HCCredential.class);
     }
 }
@@ -1,15 +1,18 @@
 package demo.jojoaddison.repository.search;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import demo.jojoaddison.config.ApplicationProperties;
 import demo.jojoaddison.domain.HCPayOption;
-import demo.jojoaddison.repository.HCPayOptionRepository;
-import java.util.stream.Stream;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link HCPayOption} entity.
@@ -17,45 +20,76 @@ import org.springframework.scheduling.annotation.Async;
 public interface HCPayOptionSearchRepository extends ElasticsearchRepository<HCPayOption, String>, HCPayOptionSearchRepositoryInternal {}
 
 interface HCPayOptionSearchRepositoryInternal {
-    Stream<HCPayOption> search(String query);
+    Page<HCPayOption> search(String query, Pageable pageable);
 
-    Stream<HCPayOption> search(Query query);
+    Page<HCPayOption> search(Query query);
+
+    SearchCursorPage<HCPayOption> search(String query, String cursor, int size);
 
-    @Async
     void index(HCPayOption entity);
 
-    @Async
     void deleteFromIndexById(String id);
 }
 
 class HCPayOptionSearchRepositoryInternalImpl implements HCPayOptionSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final HCPayOptionRepository repository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final SearchResultCache searchResultCache;
+    private final boolean indexOnRequest;
 
-    HCPayOptionSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, HCPayOptionRepository repository) {
+    HCPayOptionSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.bulkIndexer = bulkIndexer;
+        this.searchResultCache = searchResultCache;
+        this.indexOnRequest = applicationProperties.getSearch().isIndexOnRequest();
+    }
+
+    @Override
+    public Page<HCPayOption> search(String query, Pageable pageable) {
+        return searchResultCache.get(
+            HCPayOption.class,
+            query,
+            pageable,
+            () -> {
+                NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                return search(nativeQuery.setPageable(pageable));
+            }
+        );
     }
 
     @Override
-    public Stream<HCPayOption> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+    public Page<HCPayOption> search(Query query) {
+        SearchHits<HCPayOption> searchHits = elasticsearchTemplate.search(query, HCPayOption.class);
+        List<HCPayOption> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
     @Override
-    public Stream<HCPayOption> search(Query query) {
-        return elasticsearchTemplate.search(query, HCPayOption.class).map(SearchHit::getContent).stream();
+    public SearchCursorPage<HCPayOption> search(String query, String cursor, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, query, cursor, size, HCPayOption.class);
     }
 
     @Override
     public void index(HCPayOption entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.index(entity.getId(), entity);
+        searchResultCache.invalidate(HCPayOption.class);
     }
 
     @Override
     public void deleteFromIndexById(String id) {
-        elasticsearchTemplate.delete(String.valueOf(id), HCPayOption.class);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.delete(id, HCPayOption.class);
+        searchResultCache.invalidate(HCPayOption.class);
     }
 }
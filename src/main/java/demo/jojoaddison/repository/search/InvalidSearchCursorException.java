@@ -0,0 +1,13 @@
+package demo.jojoaddison.repository.search;
+
+/**
+ * Thrown when a search continuation token cannot be decoded.
+ */
+public class InvalidSearchCursorException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidSearchCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,15 +1,18 @@
 package demo.jojoaddison.repository.search;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import demo.jojoaddison.config.ApplicationProperties;
 import demo.jojoaddison.domain.Medication;
-import demo.jojoaddison.repository.MedicationRepository;
-import java.util.stream.Stream;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Medication} entity.
@@ -17,45 +20,83 @@ import org.springframework.scheduling.annotation.Async;
 public interface MedicationSearchRepository extends ElasticsearchRepository<Medication, String>, MedicationSearchRepositoryInternal {}
 
 interface MedicationSearchRepositoryInternal {
-    Stream<Medication> search(String query);
+    Page<Medication> search(String query, Pageable pageable);
 
-    Stream<Medication> search(Query query);
+    Page<Medication> search(Query query);
+
+    SearchCursorPage<Medication> search(String query, String cursor, int size);
+
+    Page<Medication> findByPatientId(String patientId, Pageable pageable);
 
-    @Async
     void index(Medication entity);
 
-    @Async
     void deleteFromIndexById(String id);
 }
 
 class MedicationSearchRepositoryInternalImpl implements MedicationSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final MedicationRepository repository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final SearchResultCache searchResultCache;
+    private final boolean indexOnRequest;
 
-    MedicationSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, MedicationRepository repository) {
+    MedicationSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.bulkIndexer = bulkIndexer;
+        this.searchResultCache = searchResultCache;
+        this.indexOnRequest = applicationProperties.getSearch().isIndexOnRequest();
+    }
+
+    @Override
+    public Page<Medication> search(String query, Pageable pageable) {
+        return searchResultCache.get(
+            Medication.class,
+            query,
+            pageable,
+            () -> {
+                NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                return search(nativeQuery.setPageable(pageable));
+            }
+        );
+    }
+
+    @Override
+    public Page<Medication> search(Query query) {
+        SearchHits<Medication> searchHits = elasticsearchTemplate.search(query, Medication.class);
+        List<Medication> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
     @Override
-    public Stream<Medication> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+    public SearchCursorPage<Medication> search(String query, String cursor, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, query, cursor, size, Medication.class);
     }
 
     @Override
-    public Stream<Medication> search(Query query) {
-        return elasticsearchTemplate.search(query, Medication.class).map(SearchHit::getContent).stream();
+    public Page<Medication> findByPatientId(String patientId, Pageable pageable) {
+        return search(ExactMatchQuery.of("patientId", patientId, pageable));
     }
 
     @Override
     public void index(Medication entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.index(entity.getId(), entity);
+        searchResultCache.invalidate(Medication.class);
     }
 
     @Override
     public void deleteFromIndexById(String id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Medication.class);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.delete(id, Medication.class);
+        searchResultCache.invalidate(Medication.class);
     }
 }
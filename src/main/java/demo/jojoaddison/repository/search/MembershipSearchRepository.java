@@ -1,15 +1,18 @@
 package demo.jojoaddison.repository.search;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import demo.jojoaddison.config.ApplicationProperties;
 import demo.jojoaddison.domain.Membership;
-import demo.jojoaddison.repository.MembershipRepository;
-import java.util.stream.Stream;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Membership} entity.
@@ -17,45 +20,76 @@ import org.springframework.scheduling.annotation.Async;
 public interface MembershipSearchRepository extends ElasticsearchRepository<Membership, String>, MembershipSearchRepositoryInternal {}
 
 interface MembershipSearchRepositoryInternal {
-    Stream<Membership> search(String query);
+    Page<Membership> search(String query, Pageable pageable);
 
-    Stream<Membership> search(Query query);
+    Page<Membership> search(Query query);
+
+    SearchCursorPage<Membership> search(String query, String cursor, int size);
 
-    @Async
     void index(Membership entity);
 
-    @Async
     void deleteFromIndexById(String id);
 }
 
 class MembershipSearchRepositoryInternalImpl implements MembershipSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final MembershipRepository repository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final SearchResultCache searchResultCache;
+    private final boolean indexOnRequest;
 
-    MembershipSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, MembershipRepository repository) {
+    MembershipSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.bulkIndexer = bulkIndexer;
+        this.searchResultCache = searchResultCache;
+        this.indexOnRequest = applicationProperties.getSearch().isIndexOnRequest();
+    }
+
+    @Override
+    public Page<Membership> search(String query, Pageable pageable) {
+        return searchResultCache.get(
+            Membership.class,
+            query,
+            pageable,
+            () -> {
+                NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                return search(nativeQuery.setPageable(pageable));
+            }
+        );
     }
 
     @Override
-    public Stream<Membership> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+    public Page<Membership> search(Query query) {
+        SearchHits<Membership> searchHits = elasticsearchTemplate.search(query, Membership.class);
+        List<Membership> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
     @Override
-    public Stream<Membership> search(Query query) {
-        return elasticsearchTemplate.search(query, Membership.class).map(SearchHit::getContent).stream();
+    public SearchCursorPage<Membership> search(String query, String cursor, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, query, cursor, size, Membership.class);
     }
 
     @Override
     public void index(Membership entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.index(entity.getId(), entity);
+        searchResultCache.invalidate(Membership.class);
     }
 
     @Override
     public void deleteFromIndexById(String id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Membership.class);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.delete(id, Membership.class);
+        searchResultCache.invalidate(Membership.class);
     }
 }
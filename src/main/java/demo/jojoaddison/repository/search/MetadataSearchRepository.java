@@ -1,15 +1,18 @@
 package demo.jojoaddison.repository.search;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import demo.jojoaddison.config.ApplicationProperties;
 import demo.jojoaddison.domain.Metadata;
-import demo.jojoaddison.repository.MetadataRepository;
-import java.util.stream.Stream;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Metadata} entity.
@@ -17,45 +20,76 @@ import org.springframework.scheduling.annotation.Async;
 public interface MetadataSearchRepository extends ElasticsearchRepository<Metadata, String>, MetadataSearchRepositoryInternal {}
 
 interface MetadataSearchRepositoryInternal {
-    Stream<Metadata> search(String query);
+    Page<Metadata> search(String query, Pageable pageable);
 
-    Stream<Metadata> search(Query query);
+    Page<Metadata> search(Query query);
+
+    SearchCursorPage<Metadata> search(String query, String cursor, int size);
 
-    @Async
     void index(Metadata entity);
 
-    @Async
     void deleteFromIndexById(String id);
 }
 
 class MetadataSearchRepositoryInternalImpl implements MetadataSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final MetadataRepository repository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final SearchResultCache searchResultCache;
+    private final boolean indexOnRequest;
 
-    MetadataSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, MetadataRepository repository) {
+    MetadataSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.bulkIndexer = bulkIndexer;
+        this.searchResultCache = searchResultCache;
+        this.indexOnRequest = applicationProperties.getSearch().isIndexOnRequest();
+    }
+
+    @Override
+    public Page<Metadata> search(String query, Pageable pageable) {
+        return searchResultCache.get(
+            Metadata.class,
+            query,
+            pageable,
+            () -> {
+                NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                return search(nativeQuery.setPageable(pageable));
+            }
+        );
     }
 
     @Override
-    public Stream<Metadata> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+    public Page<Metadata> search(Query query) {
+        SearchHits<Metadata> searchHits = elasticsearchTemplate.search(query, Metadata.class);
+        List<Metadata> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
     @Override
-    public Stream<Metadata> search(Query query) {
-        return elasticsearchTemplate.search(query, Metadata.class).map(SearchHit::getContent).stream();
+    public SearchCursorPage<Metadata> search(String query, String cursor, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, query, cursor, size, Metadata.class);
     }
 
     @Override
     public void index(Metadata entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.index(entity.getId(), entity);
+        searchResultCache.invalidate(Metadata.class);
     }
 
     @Override
     public void deleteFromIndexById(String id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Metadata.class);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.delete(id, Metadata.class);
+        searchResultCache.invalidate(Metadata.class);
     }
 }
@@ -0,0 +1,102 @@
+package demo.jojoaddison.repository.search;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.Query;
+
+/**
+ * Cursor-style deep pagination with a point-in-time and {@code search_after}.
+ * <p>
+ * Every page costs the same regardless of its depth, unlike {@code from/size} paging. The point-in-time is opened
+ * on the first page, its keep-alive is extended by every subsequent page, and it is closed once the last page has
+ * been read. Cursors that are abandoned simply expire after {@link #KEEP_ALIVE}.
+ */
+final class PointInTimeSearch {
+
+    static final Duration KEEP_ALIVE = Duration.ofMinutes(1);
+
+    private static final ObjectMapper CURSOR_MAPPER = new ObjectMapper();
+
+    private PointInTimeSearch() {}
+
+    static <T> SearchCursorPage<T> search(
+        ElasticsearchTemplate elasticsearchTemplate,
+        String query,
+        String cursor,
+        int size,
+        Class<T> clazz
+    ) {
+        return search(elasticsearchTemplate, QueryStringQuery.of(qs -> qs.query(query))._toQuery(), cursor, size, clazz);
+    }
+
+    static <T> SearchCursorPage<T> search(
+        ElasticsearchTemplate elasticsearchTemplate,
+        co.elastic.clients.elasticsearch._types.query_dsl.Query query,
+        String cursor,
+        int size,
+        Class<T> clazz
+    ) {
+        Cursor current = decode(cursor);
+        String pit = current != null
+            ? current.pit()
+            : elasticsearchTemplate.openPointInTime(elasticsearchTemplate.getIndexCoordinatesFor(clazz), KEEP_ALIVE);
+
+        NativeQueryBuilder builder = NativeQuery
+            .builder()
+            .withQuery(query)
+            .withPointInTime(new Query.PointInTime(pit, KEEP_ALIVE))
+            // the point-in-time adds the implicit _shard_doc tiebreaker, which makes the sort total
+            .withSort(Sort.by(Sort.Direction.DESC, "_score"))
+            .withPageable(PageRequest.of(0, size));
+        if (current != null) {
+            builder.withSearchAfter(current.after());
+        }
+        SearchHits<T> searchHits = elasticsearchTemplate.search(builder.build(), clazz);
+        List<SearchHit<T>> hits = searchHits.getSearchHits();
+        String nextPit = searchHits.getPointInTimeId() != null ? searchHits.getPointInTimeId() : pit;
+
+        if (hits.size() < size) {
+            elasticsearchTemplate.closePointInTime(nextPit);
+            return new SearchCursorPage<>(hits.stream().map(SearchHit::getContent).toList(), null);
+        }
+        List<Object> after = hits.get(hits.size() - 1).getSortValues();
+        return new SearchCursorPage<>(hits.stream().map(SearchHit::getContent).toList(), encode(new Cursor(nextPit, after)));
+    }
+
+    private static String encode(Cursor cursor) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(CURSOR_MAPPER.writeValueAsBytes(cursor));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode search cursor", e);
+        }
+    }
+
+    private static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        Cursor decoded;
+        try {
+            decoded = CURSOR_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), Cursor.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidSearchCursorException("Malformed search cursor", e);
+        }
+        if (decoded.pit() == null || decoded.after() == null || decoded.after().isEmpty()) {
+            throw new InvalidSearchCursorException("Incomplete search cursor", null);
+        }
+        return decoded;
+    }
+
+    record Cursor(String pit, List<Object> after) {}
+}
@@ -1,15 +1,19 @@
 package demo.jojoaddison.repository.search;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import demo.jojoaddison.config.ApplicationProperties;
 import demo.jojoaddison.domain.Profile;
-import demo.jojoaddison.repository.ProfileRepository;
-import java.util.stream.Stream;
+import java.util.List;
+import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Profile} entity.
@@ -17,45 +21,85 @@ import org.springframework.scheduling.annotation.Async;
 public interface ProfileSearchRepository extends ElasticsearchRepository<Profile, String>, ProfileSearchRepositoryInternal {}
 
 interface ProfileSearchRepositoryInternal {
-    Stream<Profile> search(String query);
+    Page<Profile> search(String query, Pageable pageable);
 
-    Stream<Profile> search(Query query);
+    Page<Profile> search(String query, Set<String> fields, Pageable pageable);
+
+    Page<Profile> search(Query query);
+
+    SearchCursorPage<Profile> search(String query, String cursor, int size);
 
-    @Async
     void index(Profile entity);
 
-    @Async
     void deleteFromIndexById(String id);
 }
 
 class ProfileSearchRepositoryInternalImpl implements ProfileSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final ProfileRepository repository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final SearchResultCache searchResultCache;
+    private final boolean indexOnRequest;
 
-    ProfileSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, ProfileRepository repository) {
+    ProfileSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.bulkIndexer = bulkIndexer;
+        this.searchResultCache = searchResultCache;
+        this.indexOnRequest = applicationProperties.getSearch().isIndexOnRequest();
+    }
+
+    @Override
+    public Page<Profile> search(String query, Pageable pageable) {
+        return searchResultCache.get(
+            Profile.class,
+            query,
+            pageable,
+            () -> {
+                NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                return search(nativeQuery.setPageable(pageable));
+            }
+        );
     }
 
     @Override
-    public Stream<Profile> search(String query) {
+    public Page<Profile> search(String query, Set<String> fields, Pageable pageable) {
         NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+        nativeQuery.addSourceFilter(SourceFilters.include(elasticsearchTemplate, Profile.class, fields));
+        return search(nativeQuery.setPageable(pageable));
+    }
+
+    @Override
+    public Page<Profile> search(Query query) {
+        SearchHits<Profile> searchHits = elasticsearchTemplate.search(query, Profile.class);
+        List<Profile> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
     @Override
-    public Stream<Profile> search(Query query) {
-        return elasticsearchTemplate.search(query, Profile.class).map(SearchHit::getContent).stream();
+    public SearchCursorPage<Profile> search(String query, String cursor, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, query, cursor, size, Profile.class);
     }
 
     @Override
     public void index(Profile entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.index(entity.getId(), entity);
+        searchResultCache.invalidate(Profile.class);
     }
 
     @Override
     public void deleteFromIndexById(String id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Profile.class);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.delete(id, Profile.class);
+        searchResultCache.invalidate(Profile.class);
     }
 }
@@ -1,15 +1,18 @@
 package demo.jojoaddison.repository.search;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import demo.jojoaddison.config.ApplicationProperties;
 import demo.jojoaddison.domain.Report;
-import demo.jojoaddison.repository.ReportRepository;
-import java.util.stream.Stream;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Report} entity.
@@ -17,45 +20,83 @@ import org.springframework.scheduling.annotation.Async;
 public interface ReportSearchRepository extends ElasticsearchRepository<Report, String>, ReportSearchRepositoryInternal {}
 
 interface ReportSearchRepositoryInternal {
-    Stream<Report> search(String query);
+    Page<Report> search(String query, Pageable pageable);
 
-    Stream<Report> search(Query query);
+    Page<Report> search(Query query);
+
+    SearchCursorPage<Report> search(String query, String cursor, int size);
+
+    Page<Report> findByPatientId(String patientId, Pageable pageable);
 
-    @Async
     void index(Report entity);
 
-    @Async
     void deleteFromIndexById(String id);
 }
 
 class ReportSearchRepositoryInternalImpl implements ReportSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final ReportRepository repository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final SearchResultCache searchResultCache;
+    private final boolean indexOnRequest;
 
-    ReportSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, ReportRepository repository) {
+    ReportSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.bulkIndexer = bulkIndexer;
+        this.searchResultCache = searchResultCache;
+        this.indexOnRequest = applicationProperties.getSearch().isIndexOnRequest();
+    }
+
+    @Override
+    public Page<Report> search(String query, Pageable pageable) {
+        return searchResultCache.get(
+            Report.class,
+            query,
+            pageable,
+            () -> {
+                NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                return search(nativeQuery.setPageable(pageable));
+            }
+        );
+    }
+
+    @Override
+    public Page<Report> search(Query query) {
+        SearchHits<Report> searchHits = elasticsearchTemplate.search(query, Report.class);
+        List<Report> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
     @Override
-    public Stream<Report> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+    public SearchCursorPage<Report> search(String query, String cursor, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, query, cursor, size, Report.class);
     }
 
     @Override
-    public Stream<Report> search(Query query) {
-        return elasticsearchTemplate.search(query, Report.class).map(SearchHit::getContent).stream();
+    public Page<Report> findByPatientId(String patientId, Pageable pageable) {
+        return search(ExactMatchQuery.of("patientId", patientId, pageable));
     }
 
     @Override
     public void index(Report entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.index(entity.getId(), entity);
+        searchResultCache.invalidate(Report.class);
     }
 
     @Override
     public void deleteFromIndexById(String id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Report.class);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.delete(id, Report.class);
+        searchResultCache.invalidate(Report.class);
     }
 }
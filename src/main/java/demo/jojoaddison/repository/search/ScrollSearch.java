@@ -0,0 +1,31 @@
+package demo.jojoaddison.repository.search;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import java.time.Duration;
+import java.util.stream.Stream;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.SearchHit;
+
+/**
+ * Scroll-backed streaming of every hit of a query, for exports that need the whole result set.
+ * <p>
+ * Only one scroll batch is held in memory at a time. The returned stream must be closed so the scroll context is
+ * cleared on the cluster; a consumer that stalls longer than {@link #KEEP_ALIVE} between two batches loses it.
+ */
+final class ScrollSearch {
+
+    static final Duration KEEP_ALIVE = Duration.ofMinutes(1);
+
+    static final int BATCH_SIZE = 500;
+
+    private ScrollSearch() {}
+
+    static <T> Stream<T> stream(ElasticsearchTemplate elasticsearchTemplate, String query, Class<T> clazz) {
+        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+        nativeQuery.setPageable(PageRequest.of(0, BATCH_SIZE));
+        nativeQuery.setScrollTime(KEEP_ALIVE);
+        return elasticsearchTemplate.searchForStream(nativeQuery, clazz).stream().map(SearchHit::getContent);
+    }
+}
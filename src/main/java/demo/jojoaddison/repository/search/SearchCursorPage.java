@@ -0,0 +1,35 @@
+package demo.jojoaddison.repository.search;
+
+import java.util.List;
+
+/**
+ * A page of search hits read through a point-in-time, together with the opaque cursor to fetch the following page.
+ *
+ * @param <T> the type of the entities.
+ */
+public class SearchCursorPage<T> {
+
+    private final List<T> content;
+
+    private final String nextCursor;
+
+    public SearchCursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the continuation token for the next page, or {@code null} when the result set is exhausted.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
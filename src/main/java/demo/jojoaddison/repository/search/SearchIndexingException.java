@@ -0,0 +1,13 @@
+package demo.jojoaddison.repository.search;
+
+/**
+ * Thrown when buffered search index operations could not be written to Elasticsearch.
+ */
+public class SearchIndexingException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SearchIndexingException(String message) {
+        super(message);
+    }
+}
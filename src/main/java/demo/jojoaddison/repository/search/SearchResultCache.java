@@ -0,0 +1,167 @@
+package demo.jojoaddison.repository.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import demo.jojoaddison.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of search result pages, keyed by index, normalized query and page.
+ * <p>
+ * Each index has a generation counter, part of the key of its entries, which is bumped whenever a document of the
+ * index is written: when the write is buffered and again once it has been sent to Elasticsearch. Entries of older
+ * generations are never read again and age out of the cache. Until the index has been refreshed after a write, searches
+ * bypass the cache so that a page missing that write is not kept.
+ * <p>
+ * The cache is local to the instance, while the writes may be sent to Elasticsearch by any instance: the invalidations
+ * that follow a batch sent to the index are handed to the registered listeners, which relay them to the other instances
+ * (see {@code SearchResultInvalidations}), where they are applied with {@link #invalidateLocally(String)}.
+ */
+@Component
+public class SearchResultCache {
+
+    static final String CACHE_NAME = "searchResults";
+
+    /**
+     * Default {@code index.refresh_interval} of Elasticsearch, after which a write is visible to searches.
+     */
+    private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(1);
+
+    private final ElasticsearchTemplate elasticsearchTemplate;
+
+    private final Cache<Key, Page<?>> results;
+
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+    private final List<Consumer<String>> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    public SearchResultCache(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.elasticsearchTemplate = elasticsearchTemplate;
+        ApplicationProperties.Cache.Bounds bounds = applicationProperties.getCache().getSearch();
+        this.results = Caffeine
+            .newBuilder()
+            .maximumSize(bounds.getMaxEntries())
+            .expireAfterWrite(bounds.getTimeToLive())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+    }
+
+    /**
+     * Get a page of results from the cache, or run the search and cache its results.
+     *
+     * @param entityClass the type of the searched entities.
+     * @param query the query string.
+     * @param pageable the pagination information.
+     * @param search the search to run on a miss.
+     * @param <T> the type of the searched entities.
+     * @return the page of results.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Page<T> get(Class<T> entityClass, String query, Pageable pageable, Supplier<Page<T>> search) {
+        String index = indexOf(entityClass);
+        Generation generation = generations.computeIfAbsent(index, name -> new Generation());
+        long current = generation.counter.get();
+        if (System.nanoTime() - generation.lastWriteNanos < REFRESH_INTERVAL.toNanos()) {
+            return search.get();
+        }
+        Key key = new Key(index, current, normalize(query), pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+        return (Page<T>) results.get(key, k -> search.get());
+    }
+
+    /**
+     * Invalidate every cached result of the index of an entity type on this instance, when a write is buffered; the other
+     * instances are told once the write has been sent to Elasticsearch.
+     *
+     * @param entityClass the type of the written entity.
+     */
+    public void invalidate(Class<?> entityClass) {
+        invalidateLocally(indexOf(entityClass));
+    }
+
+    /**
+     * Register a listener of the invalidations following the writes sent to Elasticsearch.
+     *
+     * @param listener the listener, called with the name of the invalidated index.
+     */
+    public void addInvalidationListener(Consumer<String> listener) {
+        invalidationListeners.add(listener);
+    }
+
+    /**
+     * Invalidate every cached result of an index on this instance only, when another instance wrote to the index.
+     *
+     * @param index the name of the index.
+     */
+    public void invalidateLocally(String index) {
+        Generation generation = generations.computeIfAbsent(index, name -> new Generation());
+        generation.lastWriteNanos = System.nanoTime();
+        generation.counter.incrementAndGet();
+    }
+
+    void invalidate(String index) {
+        invalidateLocally(index);
+        invalidationListeners.forEach(listener -> listener.accept(index));
+    }
+
+    private String indexOf(Class<?> entityClass) {
+        return elasticsearchTemplate.getIndexCoordinatesFor(entityClass).getIndexName();
+    }
+
+    /**
+     * Trim the query and collapse its whitespace outside quoted phrases, which doesn't change its meaning. Inside a phrase
+     * whitespace is kept as is, since it is significant to a match on a keyword field.
+     */
+    static String normalize(String query) {
+        StringBuilder normalized = new StringBuilder(query.length());
+        boolean quoted = false;
+        boolean escaped = false;
+        boolean pendingSpace = false;
+        for (char c : query.strip().toCharArray()) {
+            if (!quoted && Character.isWhitespace(c)) {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            normalized.append(c);
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                quoted = !quoted;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static final class Generation {
+
+        private final AtomicLong counter = new AtomicLong();
+
+        private volatile long lastWriteNanos = System.nanoTime() - REFRESH_INTERVAL.toNanos();
+    }
+
+    private record Key(String index, long generation, String query, int page, int size, Sort sort) {}
+}
@@ -0,0 +1,37 @@
+package demo.jojoaddison.repository.search;
+
+import demo.jojoaddison.repository.UnknownFieldException;
+import java.util.Set;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentProperty;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import org.springframework.data.elasticsearch.core.query.SourceFilter;
+
+/**
+ * Source filters restricting search hits to some fields of an entity.
+ * <p>
+ * Elasticsearch only returns the included fields of {@code _source}, the id of a hit is read from its metadata.
+ */
+final class SourceFilters {
+
+    private SourceFilters() {}
+
+    static SourceFilter include(ElasticsearchTemplate elasticsearchTemplate, Class<?> entityClass, Set<String> fields) {
+        ElasticsearchPersistentEntity<?> persistentEntity = elasticsearchTemplate
+            .getElasticsearchConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(entityClass);
+        String[] includes = fields
+            .stream()
+            .map(field -> {
+                ElasticsearchPersistentProperty property = persistentEntity.getPersistentProperty(field);
+                if (property == null) {
+                    throw new UnknownFieldException(field);
+                }
+                return property.getFieldName();
+            })
+            .toArray(String[]::new);
+        return new FetchSourceFilterBuilder().withIncludes(includes).build();
+    }
+}
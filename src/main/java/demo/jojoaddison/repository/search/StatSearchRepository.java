@@ -1,15 +1,19 @@
 package demo.jojoaddison.repository.search;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import demo.jojoaddison.config.ApplicationProperties;
 import demo.jojoaddison.domain.Stat;
-import demo.jojoaddison.repository.StatRepository;
+import java.util.List;
 import java.util.stream.Stream;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Stat} entity.
@@ -17,45 +21,90 @@ import org.springframework.scheduling.annotation.Async;
 public interface StatSearchRepository extends ElasticsearchRepository<Stat, String>, StatSearchRepositoryInternal {}
 
 interface StatSearchRepositoryInternal {
-    Stream<Stat> search(String query);
+    Page<Stat> search(String query, Pageable pageable);
 
-    Stream<Stat> search(Query query);
+    Page<Stat> search(Query query);
+
+    SearchCursorPage<Stat> search(String query, String cursor, int size);
+
+    Page<Stat> findByPatientId(String patientId, Pageable pageable);
+
+    Stream<Stat> searchForStream(String query);
 
-    @Async
     void index(Stat entity);
 
-    @Async
     void deleteFromIndexById(String id);
 }
 
 class StatSearchRepositoryInternalImpl implements StatSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final StatRepository repository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final SearchResultCache searchResultCache;
+    private final boolean indexOnRequest;
 
-    StatSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, StatRepository repository) {
+    StatSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.bulkIndexer = bulkIndexer;
+        this.searchResultCache = searchResultCache;
+        this.indexOnRequest = applicationProperties.getSearch().isIndexOnRequest();
+    }
+
+    @Override
+    public Page<Stat> search(String query, Pageable pageable) {
+        return searchResultCache.get(
+            Stat.class,
+            query,
+            pageable,
+            () -> {
+                NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                return search(nativeQuery.setPageable(pageable));
+            }
+        );
+    }
+
+    @Override
+    public Page<Stat> search(Query query) {
+        SearchHits<Stat> searchHits = elasticsearchTemplate.search(query, Stat.class);
+        List<Stat> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
+    }
+
+    @Override
+    public SearchCursorPage<Stat> search(String query, String cursor, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, query, cursor, size, Stat.class);
     }
 
     @Override
-    public Stream<Stat> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+    public Stream<Stat> searchForStream(String query) {
+        return ScrollSearch.stream(elasticsearchTemplate, query, Stat.class);
     }
 
     @Override
-    public Stream<Stat> search(Query query) {
-        return elasticsearchTemplate.search(query, Stat.class).map(SearchHit::getContent).stream();
+    public Page<Stat> findByPatientId(String patientId, Pageable pageable) {
+        return search(ExactMatchQuery.of("patientId", patientId, pageable));
     }
 
     @Override
     public void index(Stat entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.index(entity.getId(), entity);
+        searchResultCache.invalidate(Stat.class);
     }
 
     @Override
     public void deleteFromIndexById(String id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Stat.class);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.delete(id, Stat.class);
+        searchResultCache.invalidate(Stat.class);
     }
 }
@@ -1,15 +1,20 @@
 package demo.jojoaddison.repository.search;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import demo.jojoaddison.config.ApplicationProperties;
 import demo.jojoaddison.domain.Task;
-import demo.jojoaddison.repository.TaskRepository;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Task} entity.
@@ -17,45 +22,106 @@ import org.springframework.scheduling.annotation.Async;
 public interface TaskSearchRepository extends ElasticsearchRepository<Task, String>, TaskSearchRepositoryInternal {}
 
 interface TaskSearchRepositoryInternal {
-    Stream<Task> search(String query);
+    Page<Task> search(String query, Pageable pageable);
 
-    Stream<Task> search(Query query);
+    Page<Task> search(String query, Set<String> fields, Pageable pageable);
+
+    Page<Task> search(Query query);
+
+    SearchCursorPage<Task> search(String query, String cursor, int size);
+
+    Page<Task> findByPatientId(String patientId, Pageable pageable);
+
+    Page<Task> findByTeamId(String teamId, Pageable pageable);
+
+    Stream<Task> searchForStream(String query);
 
-    @Async
     void index(Task entity);
 
-    @Async
     void deleteFromIndexById(String id);
 }
 
 class TaskSearchRepositoryInternalImpl implements TaskSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final TaskRepository repository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final SearchResultCache searchResultCache;
+    private final boolean indexOnRequest;
 
-    TaskSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, TaskRepository repository) {
+    TaskSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.bulkIndexer = bulkIndexer;
+        this.searchResultCache = searchResultCache;
+        this.indexOnRequest = applicationProperties.getSearch().isIndexOnRequest();
     }
 
     @Override
-    public Stream<Task> search(String query) {
+    public Page<Task> search(String query, Pageable pageable) {
+        return searchResultCache.get(
+            Task.class,
+            query,
+            pageable,
+            () -> {
+                NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                return search(nativeQuery.setPageable(pageable));
+            }
+        );
+    }
+
+    @Override
+    public Page<Task> search(String query, Set<String> fields, Pageable pageable) {
         NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+        nativeQuery.addSourceFilter(SourceFilters.include(elasticsearchTemplate, Task.class, fields));
+        return search(nativeQuery.setPageable(pageable));
+    }
+
+    @Override
+    public Page<Task> search(Query query) {
+        SearchHits<Task> searchHits = elasticsearchTemplate.search(query, Task.class);
+        List<Task> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
+    }
+
+    @Override
+    public SearchCursorPage<Task> search(String query, String cursor, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, query, cursor, size, Task.class);
+    }
+
+    @Override
+    public Stream<Task> searchForStream(String query) {
+        return ScrollSearch.stream(elasticsearchTemplate, query, Task.class);
+    }
+
+    @Override
+    public Page<Task> findByPatientId(String patientId, Pageable pageable) {
+        return search(ExactMatchQuery.of("patientId", patientId, pageable));
     }
 
     @Override
-    public Stream<Task> search(Query query) {
-        return elasticsearchTemplate.search(query, Task.class).map(SearchHit::getContent).stream();
+    public Page<Task> findByTeamId(String teamId, Pageable pageable) {
+        return search(ExactMatchQuery.of("teamId", teamId, pageable));
     }
 
     @Override
     public void index(Task entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.index(entity.getId(), entity);
+        searchResultCache.invalidate(Task.class);
     }
 
     @Override
     public void deleteFromIndexById(String id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Task.class);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.delete(id, Task.class);
+        searchResultCache.invalidate(Task.class);
     }
 }
@@ -1,15 +1,18 @@
 package demo.jojoaddison.repository.search;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import demo.jojoaddison.config.ApplicationProperties;
 import demo.jojoaddison.domain.Team;
-import demo.jojoaddison.repository.TeamRepository;
-import java.util.stream.Stream;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Team} entity.
@@ -17,45 +20,76 @@ import org.springframework.scheduling.annotation.Async;
 public interface TeamSearchRepository extends ElasticsearchRepository<Team, String>, TeamSearchRepositoryInternal {}
 
 interface TeamSearchRepositoryInternal {
-    Stream<Team> search(String query);
+    Page<Team> search(String query, Pageable pageable);
 
-    Stream<Team> search(Query query);
+    Page<Team> search(Query query);
+
+    SearchCursorPage<Team> search(String query, String cursor, int size);
 
-    @Async
     void index(Team entity);
 
-    @Async
     void deleteFromIndexById(String id);
 }
 
 class TeamSearchRepositoryInternalImpl implements TeamSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final TeamRepository repository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final SearchResultCache searchResultCache;
+    private final boolean indexOnRequest;
 
-    TeamSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, TeamRepository repository) {
+    TeamSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.bulkIndexer = bulkIndexer;
+        this.searchResultCache = searchResultCache;
+        this.indexOnRequest = applicationProperties.getSearch().isIndexOnRequest();
+    }
+
+    @Override
+    public Page<Team> search(String query, Pageable pageable) {
+        return searchResultCache.get(
+            Team.class,
+            query,
+            pageable,
+            () -> {
+                NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                return search(nativeQuery.setPageable(pageable));
+            }
+        );
     }
 
     @Override
-    public Stream<Team> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+    public Page<Team> search(Query query) {
+        SearchHits<Team> searchHits = elasticsearchTemplate.search(query, Team.class);
+        List<Team> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
     @Override
-    public Stream<Team> search(Query query) {
-        return elasticsearchTemplate.search(query, Team.class).map(SearchHit::getContent).stream();
+    public SearchCursorPage<Team> search(String query, String cursor, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, query, cursor, size, Team.class);
     }
 
     @Override
     public void index(Team entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.index(entity.getId(), entity);
+        searchResultCache.invalidate(Team.class);
     }
 
     @Override
     public void deleteFromIndexById(String id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Team.class);
+        if (!indexOnRequest) {
+            return;
+        }
+        bulkIndexer.delete(id, Team.class);
+        searchResultCache.invalidate(Team.class);
     }
 }
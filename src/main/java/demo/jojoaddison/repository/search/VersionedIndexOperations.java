@@ -0,0 +1,181 @@
+package demo.jojoaddison.repository.search;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.IndexInformation;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Component;
+
+/**
+ * Manages the versioned physical indices behind the index name of an entity.
+ * <p>
+ * The {@code indexName} of an entity is used as an alias pointing to a physical index named {@code <indexName>_v<n>}.
+ * A new version is created empty, filled, then swapped in atomically, so searches never see a partial index. An index
+ * created before versioning was introduced, whose physical name is the alias itself, is replaced by the alias on the
+ * first swap.
+ * <p>
+ * Each physical index records a hash of the settings and mapping it was created with in its {@code _meta}, so that a
+ * change to an entity's mapping can be detected and rolled out as a new version.
+ */
+@Component
+public class VersionedIndexOperations {
+
+    private static final String VERSION_SEPARATOR = "_v";
+
+    private static final String META = "_meta";
+
+    private static final String MAPPING_HASH = "mapping_hash";
+
+    private final Logger log = LoggerFactory.getLogger(VersionedIndexOperations.class);
+
+    private final ElasticsearchTemplate elasticsearchTemplate;
+
+    public VersionedIndexOperations(ElasticsearchTemplate elasticsearchTemplate) {
+        this.elasticsearchTemplate = elasticsearchTemplate;
+    }
+
+    /**
+     * Get the alias through which an entity type is read and written.
+     *
+     * @param entityClass the type of the entity.
+     * @return the alias.
+     */
+    public String aliasOf(Class<?> entityClass) {
+        return elasticsearchTemplate.getIndexCoordinatesFor(entityClass).getIndexName();
+    }
+
+    /**
+     * Get the physical indices currently behind the alias of an entity type.
+     *
+     * @param entityClass the type of the entity.
+     * @return the names of the physical indices, empty if the alias doesn't exist yet.
+     */
+    public List<String> physicalIndicesOf(Class<?> entityClass) {
+        IndexOperations aliasOperations = elasticsearchTemplate.indexOps(IndexCoordinates.of(aliasOf(entityClass)));
+        if (!aliasOperations.exists()) {
+            return List.of();
+        }
+        return aliasOperations.getInformation().stream().map(IndexInformation::getName).toList();
+    }
+
+    /**
+     * Create an empty physical index with the current settings and mapping of an entity type, under the next free
+     * version number. The alias isn't touched.
+     *
+     * @param entityClass the type of the entity.
+     * @return the coordinates of the new physical index.
+     */
+    public IndexCoordinates createNextVersion(Class<?> entityClass) {
+        String alias = aliasOf(entityClass);
+        int version = physicalIndicesOf(entityClass).stream().mapToInt(name -> versionOf(alias, name)).max().orElse(0);
+        IndexCoordinates target;
+        do {
+            version++;
+            target = IndexCoordinates.of(alias + VERSION_SEPARATOR + version);
+        } while (elasticsearchTemplate.indexOps(target).exists());
+
+        IndexOperations entityOperations = elasticsearchTemplate.indexOps(entityClass);
+        Map<String, Object> settings = entityOperations.createSettings(entityClass);
+        Document mapping = entityOperations.createMapping(entityClass);
+        mapping.put(META, Map.of(MAPPING_HASH, mappingHashOf(entityClass)));
+        elasticsearchTemplate.indexOps(target).create(settings, mapping);
+        log.debug("Created index {} for alias {}", target.getIndexName(), alias);
+        return target;
+    }
+
+    /**
+     * Check that the alias of an entity type points to versioned indices created with its current settings and mapping.
+     *
+     * @param entityClass the type of the entity.
+     * @return {@code true} if the indices are up to date, {@code false} if they need to be rebuilt or don't exist.
+     */
+    public boolean isUpToDate(Class<?> entityClass) {
+        String alias = aliasOf(entityClass);
+        String mappingHash = mappingHashOf(entityClass);
+        List<String> physicalIndices = physicalIndicesOf(entityClass);
+        return (
+            !physicalIndices.isEmpty() &&
+            physicalIndices
+                .stream()
+                .allMatch(index -> !index.equals(alias) && mappingHash.equals(recordedMappingHashOf(IndexCoordinates.of(index))))
+        );
+    }
+
+    /**
+     * Atomically point the alias of an entity type to a physical index, then delete the indices it pointed to before.
+     *
+     * @param entityClass the type of the entity.
+     * @param target the physical index to switch to.
+     */
+    public void switchAlias(Class<?> entityClass, IndexCoordinates target) {
+        String alias = aliasOf(entityClass);
+        List<String> previous = physicalIndicesOf(entityClass);
+
+        List<AliasAction> actions = new ArrayList<>();
+        for (String index : previous) {
+            if (index.equals(alias)) {
+                // an index created before versioning: it has to go for the alias to take its name
+                actions.add(new AliasAction.RemoveIndex(AliasActionParameters.builder().withIndices(index).build()));
+            } else {
+                actions.add(new AliasAction.Remove(AliasActionParameters.builder().withIndices(index).withAliases(alias).build()));
+            }
+        }
+        actions.add(
+            new AliasAction.Add(
+                AliasActionParameters.builder().withIndices(target.getIndexName()).withAliases(alias).withIsWriteIndex(true).build()
+            )
+        );
+        elasticsearchTemplate.indexOps(target).alias(new AliasActions(actions.toArray(AliasAction[]::new)));
+        log.info("Alias {} switched from {} to {}", alias, previous, target.getIndexName());
+
+        previous
+            .stream()
+            .filter(index -> !index.equals(alias) && !index.equals(target.getIndexName()))
+            .forEach(index -> elasticsearchTemplate.indexOps(IndexCoordinates.of(index)).delete());
+    }
+
+    /**
+     * Delete a physical index that was never switched to, e.g. after a failed reindex.
+     *
+     * @param target the physical index to delete.
+     */
+    public void discard(IndexCoordinates target) {
+        elasticsearchTemplate.indexOps(target).delete();
+    }
+
+    private String mappingHashOf(Class<?> entityClass) {
+        IndexOperations entityOperations = elasticsearchTemplate.indexOps(entityClass);
+        String definition = entityOperations.createSettings(entityClass).toJson() + entityOperations.createMapping(entityClass).toJson();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(definition.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String recordedMappingHashOf(IndexCoordinates index) {
+        Object meta = elasticsearchTemplate.indexOps(index).getMapping().get(META);
+        return meta instanceof Map<?, ?> metaMap ? (String) metaMap.get(MAPPING_HASH) : null;
+    }
+
+    private static int versionOf(String alias, String index) {
+        Matcher matcher = Pattern.compile(Pattern.quote(alias + VERSION_SEPARATOR) + "(\\d+)").matcher(index);
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+}
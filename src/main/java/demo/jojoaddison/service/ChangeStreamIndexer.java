@@ -0,0 +1,305 @@
+package demo.jojoaddison.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import demo.jojoaddison.config.ApplicationProperties;
+import demo.jojoaddison.repository.EntityCacheEvictor;
+import demo.jojoaddison.repository.search.ElasticsearchBulkIndexer;
+import demo.jojoaddison.repository.search.SearchIndexingException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.domain.EntityScanner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Feeds the search indices from MongoDB change streams.
+ * <p>
+ * A single database-level change stream is opened on the collections of every entity that is both a MongoDB and an
+ * Elasticsearch {@code @Document}, so writes done by Mongock migrations, scripts or other services reach the search
+ * indices as well as the ones done through the REST API. Changes are handed to the {@link ElasticsearchBulkIndexer},
+ * where they are merged with the REST-side operations on the same documents, and evict the cached entities they change.
+ * <p>
+ * Every {@code application.search.change-stream.checkpoint-interval} the bulk indexer is flushed and the resume token
+ * is persisted only once Elasticsearch acknowledged every operation buffered so far, so a restart resumes from the last
+ * change known to be in Elasticsearch (at-least-once).
+ * <p>
+ * When the resume token fell off the oplog, the changes in between are lost: every search index is reindexed, see
+ * {@link SearchReindexService}, and the indexer reports them as missing changes until their reindex completes.
+ * <p>
+ * A change whose document can't be mapped to its entity is logged and skipped, any other failure, including operations
+ * Elasticsearch didn't acknowledge at a checkpoint, pauses the worker before the stream is reopened from the last
+ * checkpoint.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.search.change-stream", name = "enabled", havingValue = "true")
+public class ChangeStreamIndexer implements SmartLifecycle {
+
+    static final String CHECKPOINT_COLLECTION = "search_index_checkpoint";
+
+    static final String CHECKPOINT_ID = "change-stream";
+
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final Logger log = LoggerFactory.getLogger(ChangeStreamIndexer.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ElasticsearchBulkIndexer bulkIndexer;
+
+    private final EntityCacheEvictor entityCacheEvictor;
+
+    private final SearchReindexService searchReindexService;
+
+    private final Duration checkpointInterval;
+
+    private final Map<String, Class<?>> entityClassesByCollection = new HashMap<>();
+
+    private volatile boolean running;
+
+    private volatile Instant lastCheckpoint;
+
+    private volatile String lastError;
+
+    private volatile List<String> reindexedAfterHistoryLoss = List.of();
+
+    private Thread worker;
+
+    public ChangeStreamIndexer(
+        MongoTemplate mongoTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        EntityCacheEvictor entityCacheEvictor,
+        SearchReindexService searchReindexService,
+        ApplicationProperties applicationProperties,
+        ApplicationContext applicationContext
+    ) throws ClassNotFoundException {
+        this.mongoTemplate = mongoTemplate;
+        this.bulkIndexer = bulkIndexer;
+        this.entityCacheEvictor = entityCacheEvictor;
+        this.searchReindexService = searchReindexService;
+        this.checkpointInterval = applicationProperties.getSearch().getChangeStream().getCheckpointInterval();
+        for (Class<?> entityClass : new EntityScanner(applicationContext).scan(
+            org.springframework.data.mongodb.core.mapping.Document.class
+        )) {
+            if (entityClass.isAnnotationPresent(org.springframework.data.elasticsearch.annotations.Document.class)) {
+                entityClassesByCollection.put(mongoTemplate.getCollectionName(entityClass), entityClass);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "search-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return whether the worker tailing the change stream is alive.
+     */
+    public boolean isWorkerAlive() {
+        return worker != null && worker.isAlive();
+    }
+
+    /**
+     * @return the time the resume token was last persisted, {@code null} if it wasn't yet.
+     */
+    public Instant getLastCheckpoint() {
+        return lastCheckpoint;
+    }
+
+    /**
+     * @return the failure of the change stream since the last checkpoint, {@code null} if none.
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @return whether some search indices miss changes the stream lost, until their reindex completed.
+     */
+    public boolean isMissingChanges() {
+        return reindexedAfterHistoryLoss
+            .stream()
+            .map(searchReindexService::findOne)
+            .anyMatch(job -> job == null || job.getState() != SearchReindexJob.State.COMPLETED);
+    }
+
+    private void run() {
+        log.info("Tailing change streams of collections {} into the search indices", entityClassesByCollection.keySet());
+        while (running) {
+            try {
+                tail();
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    log.error("Resume token fell off the oplog, changes were missed: reindexing every search index");
+                    lastError = "Changes were missed, the search indices are reindexed: " + e.getMessage();
+                    checkpoints().deleteOne(Filters.eq("_id", CHECKPOINT_ID));
+                    reindexedAfterHistoryLoss = searchReindexService.reindexAll().stream().map(SearchReindexJob::getIndex).toList();
+                } else {
+                    log.warn("Change stream failed, retrying in {}: {}", RETRY_DELAY, e.getMessage());
+                    lastError = e.toString();
+                    pause();
+                }
+            } catch (RuntimeException e) {
+                if (running) {
+                    log.error("Change stream failed, retrying in {}", RETRY_DELAY, e);
+                    lastError = e.toString();
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void tail() {
+        ChangeStreamIterable<Document> changeStream = mongoTemplate
+            .getDb()
+            .watch(
+                List.of(
+                    Aggregates.match(
+                        Filters.and(
+                            Filters.in("ns.coll", entityClassesByCollection.keySet()),
+                            Filters.in(
+                                "operationType",
+                                OperationType.INSERT.getValue(),
+                                OperationType.UPDATE.getValue(),
+                                OperationType.REPLACE.getValue(),
+                                OperationType.DELETE.getValue()
+                            )
+                        )
+                    )
+                )
+            )
+            .fullDocument(FullDocument.UPDATE_LOOKUP)
+            .maxAwaitTime(1, TimeUnit.SECONDS);
+        BsonDocument resumeToken = loadResumeToken();
+        if (resumeToken != null) {
+            changeStream = changeStream.resumeAfter(resumeToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream.cursor()) {
+            Instant nextCheckpoint = Instant.now().plus(checkpointInterval);
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null) {
+                    apply(change);
+                }
+                if (Instant.now().isAfter(nextCheckpoint)) {
+                    checkpoint(cursor.getResumeToken());
+                    nextCheckpoint = Instant.now().plus(checkpointInterval);
+                }
+            }
+            checkpoint(cursor.getResumeToken());
+        }
+    }
+
+    private void apply(ChangeStreamDocument<Document> change) {
+        Class<?> entityClass = entityClassesByCollection.get(change.getNamespace().getCollectionName());
+        if (entityClass == null || change.getDocumentKey() == null) {
+            return;
+        }
+        String id = idOf(change.getDocumentKey().get("_id"));
+        // the change may have been written by another service, bypassing the repositories
+        entityCacheEvictor.evict(entityClass, id);
+        if (change.getOperationType() == OperationType.DELETE) {
+            bulkIndexer.delete(id, entityClass);
+        } else if (change.getFullDocument() != null) {
+            // a null full document means it was deleted since, the deletion event follows
+            Object entity;
+            try {
+                entity = mongoTemplate.getConverter().read(entityClass, change.getFullDocument());
+            } catch (RuntimeException e) {
+                // retrying won't fix the document, stalling on it would block every later change
+                log.error("Skipping change of {} {} which can't be read: {}", entityClass.getSimpleName(), id, e.getMessage());
+                return;
+            }
+            bulkIndexer.index(id, entity);
+        }
+    }
+
+    private void checkpoint(BsonDocument resumeToken) {
+        if (resumeToken == null) {
+            return;
+        }
+        try {
+            bulkIndexer.flushAllAcknowledged();
+        } catch (SearchIndexingException e) {
+            // operations may have been dropped, reopening the stream from the last checkpoint replays their changes
+            log.warn("Not persisting the change stream resume token: {}", e.getMessage());
+            lastError = e.getMessage();
+            throw e;
+        }
+        Instant now = Instant.now();
+        Document checkpoint = new Document("_id", CHECKPOINT_ID)
+            .append("token", resumeToken.getString("_data").getValue())
+            .append("updatedAt", now);
+        checkpoints().replaceOne(Filters.eq("_id", CHECKPOINT_ID), checkpoint, new ReplaceOptions().upsert(true));
+        lastCheckpoint = now;
+        lastError = null;
+    }
+
+    private BsonDocument loadResumeToken() {
+        Document checkpoint = checkpoints().find(Filters.eq("_id", CHECKPOINT_ID)).first();
+        if (checkpoint == null || checkpoint.getString("token") == null) {
+            return null;
+        }
+        return new BsonDocument("_data", new BsonString(checkpoint.getString("token")));
+    }
+
+    private MongoCollection<Document> checkpoints() {
+        return mongoTemplate.getCollection(CHECKPOINT_COLLECTION);
+    }
+
+    private static String idOf(BsonValue id) {
+        if (id instanceof BsonObjectId objectId) {
+            return objectId.getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RETRY_DELAY.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package demo.jojoaddison.service;
+
+import demo.jojoaddison.broker.EntityChangeEvent;
+import demo.jojoaddison.repository.search.ElasticsearchBulkIndexer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.domain.EntityScanner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Indexes the entities named by the batches of events of the {@code entity-changes} topic.
+ * <p>
+ * A batch is reduced to the latest event of each entity, the entities still existing are read back from MongoDB with one
+ * query per type, and the resulting operations are handed to the {@link ElasticsearchBulkIndexer} and flushed at the end
+ * of the batch, so that a batch costs one bulk request per index it touches. If Elasticsearch doesn't acknowledge every
+ * operation, the batch fails so that its offsets aren't committed, and it is retried with a backoff before its events
+ * are sent to a dead-letter topic, see {@link demo.jojoaddison.config.KafkaConfiguration}. Delivery being at-least-once,
+ * replaying an event only indexes the current state of its entity again.
+ * <p>
+ * The time between a change and its indexing is recorded as {@code search.indexer.lag}; the consumer lag in records is
+ * reported by the Kafka binder as {@code spring.cloud.stream.binder.kafka.offset}.
+ */
+@Component
+public class EntityChangeIndexer implements Consumer<List<EntityChangeEvent>> {
+
+    static final String LAG_METER = "search.indexer.lag";
+
+    private final Logger log = LoggerFactory.getLogger(EntityChangeIndexer.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ElasticsearchBulkIndexer bulkIndexer;
+
+    private final Timer lag;
+
+    private final Map<String, Class<?>> entityClassesByName = new HashMap<>();
+
+    public EntityChangeIndexer(
+        MongoTemplate mongoTemplate,
+        ElasticsearchBulkIndexer bulkIndexer,
+        MeterRegistry meterRegistry,
+        ApplicationContext applicationContext
+    ) throws ClassNotFoundException {
+        this.mongoTemplate = mongoTemplate;
+        this.bulkIndexer = bulkIndexer;
+        this.lag = Timer.builder(LAG_METER).description("Time between an entity change and its indexing").register(meterRegistry);
+        for (Class<?> entityClass : new EntityScanner(applicationContext).scan(
+            org.springframework.data.mongodb.core.mapping.Document.class
+        )) {
+            if (entityClass.isAnnotationPresent(org.springframework.data.elasticsearch.annotations.Document.class)) {
+                entityClassesByName.put(entityClass.getSimpleName(), entityClass);
+            }
+        }
+    }
+
+    @Override
+    public void accept(List<EntityChangeEvent> events) {
+        log.debug("Indexing a batch of {} entity changes", events.size());
+        Map<String, Map<String, EntityChangeEvent>> latest = new LinkedHashMap<>();
+        for (EntityChangeEvent event : events) {
+            if (!entityClassesByName.containsKey(event.entity())) {
+                log.debug("Ignoring change of unindexed entity {}", event.entity());
+                continue;
+            }
+            // the changes of one entity come in order from its partition, a later one supersedes the earlier ones
+            latest.computeIfAbsent(event.entity(), entity -> new LinkedHashMap<>()).merge(event.id(), event, EntityChangeIndexer::later);
+        }
+
+        latest.forEach((entity, changes) -> index(entityClassesByName.get(entity), changes));
+        // throws if some operations failed, so the offsets of the batch aren't committed
+        bulkIndexer.flushAllAcknowledged();
+
+        Instant now = Instant.now();
+        latest.values().forEach(changes -> changes.values().forEach(event -> lag.record(Duration.between(event.timestamp(), now))));
+    }
+
+    private void index(Class<?> entityClass, Map<String, EntityChangeEvent> changes) {
+        Set<String> upserted = new LinkedHashSet<>();
+        changes.forEach((id, event) -> {
+            if (event.operation() == EntityChangeEvent.Operation.DELETED) {
+                bulkIndexer.delete(id, entityClass);
+            } else {
+                upserted.add(id);
+            }
+        });
+        if (upserted.isEmpty()) {
+            return;
+        }
+
+        MongoPersistentEntity<?> persistentEntity = mongoTemplate
+            .getConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(entityClass);
+        for (Object entity : mongoTemplate.find(Query.query(Criteria.where("id").in(upserted)), entityClass)) {
+            String id = String.valueOf(persistentEntity.getIdentifierAccessor(entity).getRequiredIdentifier());
+            upserted.remove(id);
+            bulkIndexer.index(id, entity);
+        }
+        // deleted since the change, its deletion event follows
+        upserted.forEach(id -> bulkIndexer.delete(id, entityClass));
+    }
+
+    private static EntityChangeEvent later(EntityChangeEvent previous, EntityChangeEvent next) {
+        return next.timestamp().isBefore(previous.timestamp()) ? previous : next;
+    }
+}
@@ -0,0 +1,156 @@
+package demo.jojoaddison.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import demo.jojoaddison.broker.EntityChangeEvent;
+import demo.jojoaddison.broker.EntityChangeEvent.Operation;
+import demo.jojoaddison.config.ApplicationProperties;
+import demo.jojoaddison.repository.BulkItemResult;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Outbox of the entity changes.
+ * <p>
+ * Every create, update and delete is recorded in the {@code entity_change_outbox} collection in the transaction that
+ * writes the entity, so that either both are stored or none is; recording a change outside a transaction fails. The
+ * changes are then relayed every {@code application.outbox.poll-interval} to the {@code entity-changes} topic through
+ * {@link StreamBridge}, in the order the changes were recorded and keyed by entity id, so that the changes of one entity
+ * land on one partition in order. A record is only removed once Kafka has acknowledged it: delivery is at-least-once,
+ * consumers may see a change twice.
+ */
+@Service
+public class EntityChangeOutbox {
+
+    public static final String BINDING_NAME = "entityChanges-out-0";
+
+    static final String COLLECTION = "entity_change_outbox";
+
+    private final Logger log = LoggerFactory.getLogger(EntityChangeOutbox.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final StreamBridge streamBridge;
+
+    private final ApplicationProperties.Outbox properties;
+
+    public EntityChangeOutbox(MongoTemplate mongoTemplate, StreamBridge streamBridge, ApplicationProperties applicationProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.streamBridge = streamBridge;
+        this.properties = applicationProperties.getOutbox();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Class<?> entityClass, String id) {
+        record(entityClass, List.of(id), Operation.CREATED);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updated(Class<?> entityClass, String id) {
+        record(entityClass, List.of(id), Operation.UPDATED);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(Class<?> entityClass, String id) {
+        record(entityClass, List.of(id), Operation.DELETED);
+    }
+
+    /**
+     * Record the changes of the items of a bulk write that succeeded.
+     *
+     * @param entityClass the type of the written entities.
+     * @param results the result of each item.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(Class<?> entityClass, List<BulkItemResult> results) {
+        for (Operation operation : Operation.values()) {
+            List<String> ids = results
+                .stream()
+                .filter(result -> result.succeeded() && result.status().name().equals(operation.name()))
+                .map(BulkItemResult::id)
+                .toList();
+            record(entityClass, ids, operation);
+        }
+    }
+
+    /**
+     * Publish the recorded changes, oldest first, until the outbox is empty or Kafka fails.
+     */
+    @Scheduled(fixedDelayString = "${application.outbox.poll-interval:PT1S}")
+    public void relay() {
+        List<Document> batch;
+        do {
+            batch = outbox().find().sort(Sorts.ascending("_id")).limit(properties.getBatchSize()).into(new ArrayList<>());
+            List<ObjectId> published = new ArrayList<>(batch.size());
+            try {
+                for (Document change : batch) {
+                    publish(change);
+                    published.add(change.getObjectId("_id"));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Relaying entity changes to Kafka failed, retrying later: {}", e.getMessage());
+                batch = List.of();
+            } finally {
+                if (!published.isEmpty()) {
+                    outbox().deleteMany(Filters.in("_id", published));
+                }
+            }
+        } while (batch.size() == properties.getBatchSize());
+    }
+
+    private void record(Class<?> entityClass, List<String> ids, Operation operation) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        // through the template rather than the raw collection, to take part in the transaction of the caller
+        mongoTemplate.insert(
+            ids
+                .stream()
+                .map(id ->
+                    new Document("entity", entityClass.getSimpleName())
+                        .append("entityId", id)
+                        .append("operation", operation.name())
+                        .append("timestamp", now)
+                )
+                .toList(),
+            COLLECTION
+        );
+    }
+
+    private void publish(Document change) {
+        String id = change.getString("entityId");
+        EntityChangeEvent event = new EntityChangeEvent(
+            change.getString("entity"),
+            id,
+            Operation.valueOf(change.getString("operation")),
+            change.getDate("timestamp").toInstant()
+        );
+        boolean sent = streamBridge.send(
+            BINDING_NAME,
+            MessageBuilder.withPayload(event).setHeader(KafkaHeaders.KEY, id.getBytes(StandardCharsets.UTF_8)).build()
+        );
+        if (!sent) {
+            throw new IllegalStateException("Entity change " + change.getObjectId("_id") + " was not sent");
+        }
+    }
+
+    private MongoCollection<Document> outbox() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+}
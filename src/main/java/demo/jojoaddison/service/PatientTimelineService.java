@@ -0,0 +1,183 @@
+package demo.jojoaddison.service;
+
+import demo.jojoaddison.repository.search.ConditionSearchRepository;
+import demo.jojoaddison.repository.search.MedicationSearchRepository;
+import demo.jojoaddison.repository.search.ReportSearchRepository;
+import demo.jojoaddison.repository.search.StatSearchRepository;
+import demo.jojoaddison.repository.search.TaskSearchRepository;
+import demo.jojoaddison.service.dto.TimelineEntryDTO;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service building the timeline of a patient from its conditions, medications, reports, stats and tasks.
+ * <p>
+ * The five search indices are queried concurrently, so the latency is about the one of the slowest query. Each query
+ * returns the most recent entries up to the end of the requested page, which are then merged by creation date, so a
+ * page can't end beyond the {@code max_result_window} of the indices, see {@link #MAX_RESULT_WINDOW}.
+ * <p>
+ * The queries run on a bounded pool: when its queue is full, a timeline is rejected rather than queued behind the others,
+ * and a timeline whose queries haven't all answered within {@link #QUERY_TIMEOUT} fails, its pending queries cancelled.
+ */
+@Service
+public class PatientTimelineService {
+
+    /**
+     * Default {@code index.max_result_window} of Elasticsearch, the deepest result a query can page to.
+     */
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    /**
+     * Time for all the queries of a timeline to answer.
+     */
+    public static final Duration QUERY_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final int POOL_SIZE = 20;
+
+    private static final int QUEUE_CAPACITY = 100;
+
+    // ids break the ties of the day-resolution creation dates, so each index is cut in the order of TIMELINE_ORDER
+    private static final Sort BY_CREATED_DATE = Sort.by(Sort.Order.desc("createdDate"), Sort.Order.asc("id"));
+
+    private static final Comparator<TimelineEntryDTO> TIMELINE_ORDER = Comparator
+        .comparing(TimelineEntryDTO::getCreatedDate, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(TimelineEntryDTO::getType)
+        .thenComparing(TimelineEntryDTO::getId);
+
+    private final Logger log = LoggerFactory.getLogger(PatientTimelineService.class);
+
+    private final ConditionSearchRepository conditionSearchRepository;
+
+    private final MedicationSearchRepository medicationSearchRepository;
+
+    private final ReportSearchRepository reportSearchRepository;
+
+    private final StatSearchRepository statSearchRepository;
+
+    private final TaskSearchRepository taskSearchRepository;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        POOL_SIZE,
+        POOL_SIZE,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+        new CustomizableThreadFactory("patient-timeline-"),
+        new ThreadPoolExecutor.AbortPolicy()
+    );
+
+    public PatientTimelineService(
+        ConditionSearchRepository conditionSearchRepository,
+        MedicationSearchRepository medicationSearchRepository,
+        ReportSearchRepository reportSearchRepository,
+        StatSearchRepository statSearchRepository,
+        TaskSearchRepository taskSearchRepository
+    ) {
+        this.conditionSearchRepository = conditionSearchRepository;
+        this.medicationSearchRepository = medicationSearchRepository;
+        this.reportSearchRepository = reportSearchRepository;
+        this.statSearchRepository = statSearchRepository;
+        this.taskSearchRepository = taskSearchRepository;
+    }
+
+    /**
+     * Get a page of the timeline of a patient, most recent entries first.
+     *
+     * @param patientId the id of the patient.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the page of entries.
+     * @throws IllegalArgumentException if the page ends beyond {@link #MAX_RESULT_WINDOW} entries.
+     * @throws RejectedExecutionException if too many timelines are being built already.
+     * @throws QueryTimeoutException if the indices didn't answer within {@link #QUERY_TIMEOUT}.
+     */
+    public Page<TimelineEntryDTO> findTimeline(String patientId, Pageable pageable) {
+        log.debug("Request to get the timeline of patient : {}", patientId);
+        if (pageable.getOffset() > MAX_RESULT_WINDOW - pageable.getPageSize()) {
+            throw new IllegalArgumentException("The timeline can't be paged beyond " + MAX_RESULT_WINDOW + " entries");
+        }
+        Pageable window = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), BY_CREATED_DATE);
+        List<Callable<Page<TimelineEntryDTO>>> queries = List.of(
+            () ->
+                conditionSearchRepository
+                    .findByPatientId(patientId, window)
+                    .map(condition -> new TimelineEntryDTO("condition", condition.getId(), condition.getCreatedDate(), condition)),
+            () ->
+                medicationSearchRepository
+                    .findByPatientId(patientId, window)
+                    .map(medication -> new TimelineEntryDTO("medication", medication.getId(), medication.getCreatedDate(), medication)),
+            () ->
+                reportSearchRepository
+                    .findByPatientId(patientId, window)
+                    .map(report -> new TimelineEntryDTO("report", report.getId(), report.getCreatedDate(), report)),
+            () ->
+                statSearchRepository
+                    .findByPatientId(patientId, window)
+                    .map(stat -> new TimelineEntryDTO("stat", stat.getId(), stat.getCreatedDate(), stat)),
+            () ->
+                taskSearchRepository
+                    .findByPatientId(patientId, window)
+                    .map(task -> new TimelineEntryDTO("task", task.getId(), task.getCreatedDate(), task))
+        );
+
+        List<Future<Page<TimelineEntryDTO>>> sources = new ArrayList<>(queries.size());
+        List<Page<TimelineEntryDTO>> pages = new ArrayList<>(queries.size());
+        long deadline = System.nanoTime() + QUERY_TIMEOUT.toNanos();
+        try {
+            for (Callable<Page<TimelineEntryDTO>> query : queries) {
+                sources.add(executor.submit(query));
+            }
+            for (Future<Page<TimelineEntryDTO>> source : sources) {
+                pages.add(source.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+            }
+        } catch (RejectedExecutionException e) {
+            sources.forEach(source -> source.cancel(true));
+            log.warn("Rejected the timeline of patient {}, {} queries already queued", patientId, executor.getQueue().size());
+            throw e;
+        } catch (TimeoutException e) {
+            sources.forEach(source -> source.cancel(true));
+            throw new QueryTimeoutException("The timeline of patient " + patientId + " took longer than " + QUERY_TIMEOUT, e);
+        } catch (ExecutionException e) {
+            // unlike a CompletableFuture, a submitted task is interrupted when cancelled, freeing its thread
+            sources.forEach(source -> source.cancel(true));
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            sources.forEach(source -> source.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building the timeline of patient " + patientId, e);
+        }
+        List<TimelineEntryDTO> entries = pages
+            .stream()
+            .flatMap(page -> page.getContent().stream())
+            .sorted(TIMELINE_ORDER)
+            .skip(pageable.getOffset())
+            .limit(pageable.getPageSize())
+            .toList();
+        return new PageImpl<>(entries, pageable, pages.stream().mapToLong(Page::getTotalElements).sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
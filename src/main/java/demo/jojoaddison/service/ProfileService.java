@@ -1,14 +1,22 @@
 package demo.jojoaddison.service;
 
 import demo.jojoaddison.domain.Profile;
+import demo.jojoaddison.repository.BulkItemResult;
+import demo.jojoaddison.repository.EntityBulkWriter;
+import demo.jojoaddison.repository.FieldProjectionReader;
 import demo.jojoaddison.repository.ProfileRepository;
 import demo.jojoaddison.repository.search.ProfileSearchRepository;
+import demo.jojoaddison.repository.search.SearchCursorPage;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
+import java.util.Set;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service Implementation for managing {@link demo.jojoaddison.domain.Profile}.
@@ -22,9 +30,24 @@ public class ProfileService {
 
     private final ProfileSearchRepository profileSearchRepository;
 
-    public ProfileService(ProfileRepository profileRepository, ProfileSearchRepository profileSearchRepository) {
+    private final EntityBulkWriter entityBulkWriter;
+
+    private final FieldProjectionReader fieldProjectionReader;
+
+    private final EntityChangeOutbox entityChangeOutbox;
+
+    public ProfileService(
+        ProfileRepository profileRepository,
+        ProfileSearchRepository profileSearchRepository,
+        EntityBulkWriter entityBulkWriter,
+        FieldProjectionReader fieldProjectionReader,
+        EntityChangeOutbox entityChangeOutbox
+    ) {
         this.profileRepository = profileRepository;
         this.profileSearchRepository = profileSearchRepository;
+        this.entityBulkWriter = entityBulkWriter;
+        this.fieldProjectionReader = fieldProjectionReader;
+        this.entityChangeOutbox = entityChangeOutbox;
     }
 
     /**
@@ -33,85 +56,62 @@ public class ProfileService {
      * @param profile the entity to save.
      * @return the persisted entity.
      */
+    @Transactional
     public Profile save(Profile profile) {
         log.debug("Request to save Profile : {}", profile);
         Profile result = profileRepository.save(profile);
+        entityChangeOutbox.created(Profile.class, result.getId());
         profileSearchRepository.index(result);
         return result;
     }
 
     /**
-     * Update a profile.
+     * Save new profiles in one batch.
+     *
+     * @param profiles the entities to save.
+     * @return the result of each entity, in the same order.
+     */
+    @Transactional
+    public List<BulkItemResult> saveAll(List<Profile> profiles) {
+        log.debug("Request to save {} Profiles", profiles.size());
+        List<BulkItemResult> results = entityBulkWriter.insertAll(Profile.class, profiles);
+        entityChangeOutbox.recordAll(Profile.class, results);
+        indexSucceeded(profiles, results);
+        return results;
+    }
+
+    /**
+     * Update a profile, if it exists.
      *
      * @param profile the entity to save.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if there is no profile with that id.
      */
-    public Profile update(Profile profile) {
+    @Transactional
+    public Optional<Profile> update(Profile profile) {
         log.debug("Request to update Profile : {}", profile);
-        Profile result = profileRepository.save(profile);
-        profileSearchRepository.index(result);
-        return result;
+        return profileRepository
+            .replaceIfExists(profile)
+            .map(savedProfile -> {
+                entityChangeOutbox.updated(Profile.class, savedProfile.getId());
+                profileSearchRepository.index(savedProfile);
+                return savedProfile;
+            });
     }
 
     /**
-     * Partially update a profile.
+     * Partially update a profile: its non-null fields are set on the stored profile in one atomic operation.
      *
      * @param profile the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if there is no profile with that id.
      */
+    @Transactional
     public Optional<Profile> partialUpdate(Profile profile) {
         log.debug("Request to partially update Profile : {}", profile);
 
         return profileRepository
-            .findById(profile.getId())
-            .map(existingProfile -> {
-                if (profile.getFirstName() != null) {
-                    existingProfile.setFirstName(profile.getFirstName());
-                }
-                if (profile.getMiddleNames() != null) {
-                    existingProfile.setMiddleNames(profile.getMiddleNames());
-                }
-                if (profile.getLastName() != null) {
-                    existingProfile.setLastName(profile.getLastName());
-                }
-                if (profile.getMembership() != null) {
-                    existingProfile.setMembership(profile.getMembership());
-                }
-                if (profile.getBirthDate() != null) {
-                    existingProfile.setBirthDate(profile.getBirthDate());
-                }
-                if (profile.getSex() != null) {
-                    existingProfile.setSex(profile.getSex());
-                }
-                if (profile.getMobilePhone() != null) {
-                    existingProfile.setMobilePhone(profile.getMobilePhone());
-                }
-                if (profile.getPhoneNumber() != null) {
-                    existingProfile.setPhoneNumber(profile.getPhoneNumber());
-                }
-                if (profile.getEmail() != null) {
-                    existingProfile.setEmail(profile.getEmail());
-                }
-                if (profile.getCardType() != null) {
-                    existingProfile.setCardType(profile.getCardType());
-                }
-                if (profile.getCardNumber() != null) {
-                    existingProfile.setCardNumber(profile.getCardNumber());
-                }
-                if (profile.getContacts() != null) {
-                    existingProfile.setContacts(profile.getContacts());
-                }
-                if (profile.getAddress() != null) {
-                    existingProfile.setAddress(profile.getAddress());
-                }
-                if (profile.getTeam() != null) {
-                    existingProfile.setTeam(profile.getTeam());
-                }
-
-                return existingProfile;
-            })
-            .map(profileRepository::save)
+            .partialUpdate(profile)
             .map(savedProfile -> {
+                entityChangeOutbox.updated(Profile.class, savedProfile.getId());
                 profileSearchRepository.index(savedProfile);
                 return savedProfile;
             });
@@ -120,11 +120,34 @@ public class ProfileService {
     /**
      * Get all the profiles.
      *
+     * @param pageable the pagination information.
      * @return the list of entities.
      */
-    public List<Profile> findAll() {
+    public Page<Profile> findAll(Pageable pageable) {
         log.debug("Request to get all Profiles");
-        return profileRepository.findAll();
+        return profileRepository.findAll(pageable);
+    }
+
+    /**
+     * Get all the profiles, with only some of their fields.
+     *
+     * @param fields the names of the fields to read.
+     * @param pageable the pagination information.
+     * @return the list of partial entities.
+     */
+    public Page<Profile> findAll(Set<String> fields, Pageable pageable) {
+        log.debug("Request to get all Profiles with fields {}", fields);
+        return fieldProjectionReader.findAll(Profile.class, fields, pageable);
+    }
+
+    /**
+     * Stream all the profiles from a Mongo cursor.
+     *
+     * @return the stream of entities, to be closed once consumed.
+     */
+    public Stream<Profile> streamAll() {
+        log.debug("Request to stream all Profiles");
+        return profileRepository.streamAllBy();
     }
 
     /**
@@ -138,22 +161,97 @@ public class ProfileService {
         return profileRepository.findById(id);
     }
 
+    /**
+     * Update existing profiles in one batch.
+     *
+     * @param profiles the entities to save.
+     * @return the result of each entity, in the same order.
+     */
+    @Transactional
+    public List<BulkItemResult> updateAll(List<Profile> profiles) {
+        log.debug("Request to update {} Profiles", profiles.size());
+        List<BulkItemResult> results = entityBulkWriter.replaceAll(Profile.class, profiles);
+        entityChangeOutbox.recordAll(Profile.class, results);
+        indexSucceeded(profiles, results);
+        return results;
+    }
+
     /**
      * Delete the profile by id.
      *
      * @param id the id of the entity.
      */
+    @Transactional
     public void delete(String id) {
         log.debug("Request to delete Profile : {}", id);
-        profileRepository.deleteById(id);
+        if (profileRepository.removeById(id) > 0) {
+            entityChangeOutbox.deleted(Profile.class, id);
+        }
         profileSearchRepository.deleteFromIndexById(id);
     }
 
+    /**
+     * Delete profiles by id in one batch.
+     *
+     * @param ids the ids of the entities.
+     * @return the result of each id, in the same order.
+     */
+    @Transactional
+    public List<BulkItemResult> deleteAll(List<String> ids) {
+        log.debug("Request to delete {} Profiles", ids.size());
+        List<BulkItemResult> results = entityBulkWriter.deleteAllById(Profile.class, ids);
+        entityChangeOutbox.recordAll(Profile.class, results);
+        results.stream().filter(BulkItemResult::succeeded).forEach(result -> profileSearchRepository.deleteFromIndexById(result.id()));
+        return results;
+    }
+
     public boolean existsById(String id) {
         return profileRepository.existsById(id);
     }
 
-    public List<Address> search(final String query) throws RuntimeException {
-        return StreamSupport.stream(profileSearchRepository.search(query).spliterator(), false).toList();
+    /**
+     * Search for the profile corresponding to the query.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    public Page<Profile> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Profiles for query {}", query);
+        return profileSearchRepository.search(query, pageable);
+    }
+
+    /**
+     * Search for the profile corresponding to the query, with only some of their fields.
+     *
+     * @param query the query of the search.
+     * @param fields the names of the fields to read.
+     * @param pageable the pagination information.
+     * @return the list of partial entities.
+     */
+    public Page<Profile> search(String query, Set<String> fields, Pageable pageable) {
+        log.debug("Request to search for a page of Profiles for query {} with fields {}", query, fields);
+        return profileSearchRepository.search(query, fields, pageable);
+    }
+
+    /**
+     * Walk the profiles corresponding to the query with a point-in-time cursor.
+     *
+     * @param query the query of the search.
+     * @param cursor the continuation token of the previous page, or empty for the first page.
+     * @param size the page size.
+     * @return the page of entities with the next continuation token.
+     */
+    public SearchCursorPage<Profile> search(String query, String cursor, int size) {
+        log.debug("Request to search Profiles with a cursor for query {}", query);
+        return profileSearchRepository.search(query, cursor, size);
+    }
+
+    private void indexSucceeded(List<Profile> profiles, List<BulkItemResult> results) {
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                profileSearchRepository.index(profiles.get(i));
+            }
+        }
     }
 }
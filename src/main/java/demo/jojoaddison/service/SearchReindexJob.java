@@ -0,0 +1,122 @@
+package demo.jojoaddison.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the full reindex of one search index, see {@link SearchReindexService}.
+ */
+public class SearchReindexJob {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+    }
+
+    private final String index;
+
+    private final AtomicLong indexed = new AtomicLong();
+
+    private volatile State state = State.QUEUED;
+
+    private volatile String targetIndex;
+
+    private volatile long total;
+
+    private volatile Instant startedAt;
+
+    private volatile Instant finishedAt;
+
+    private volatile String error;
+
+    SearchReindexJob(String index) {
+        this.index = index;
+    }
+
+    public String getIndex() {
+        return index;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getTargetIndex() {
+        return targetIndex;
+    }
+
+    /**
+     * @return the estimated number of documents to index.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getIndexed() {
+        return indexed.get();
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return the average number of documents indexed per second since the start of the job.
+     */
+    public double getDocsPerSecond() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        long elapsedMillis = Duration.between(start, finishedAt != null ? finishedAt : Instant.now()).toMillis();
+        return elapsedMillis > 0 ? indexed.get() * 1000.0 / elapsedMillis : 0;
+    }
+
+    /**
+     * @return the estimated number of seconds left at the current throughput, {@code null} if the job isn't running.
+     */
+    public Long getEtaSeconds() {
+        double docsPerSecond = getDocsPerSecond();
+        if (state != State.RUNNING || docsPerSecond == 0) {
+            return null;
+        }
+        return (long) Math.ceil(Math.max(0, total - indexed.get()) / docsPerSecond);
+    }
+
+    boolean isActive() {
+        return state == State.QUEUED || state == State.RUNNING;
+    }
+
+    void started(String targetIndex, long total) {
+        this.targetIndex = targetIndex;
+        this.total = total;
+        this.startedAt = Instant.now();
+        this.state = State.RUNNING;
+    }
+
+    void indexed(long count) {
+        indexed.addAndGet(count);
+    }
+
+    void completed() {
+        this.finishedAt = Instant.now();
+        this.state = State.COMPLETED;
+    }
+
+    void failed(Throwable cause) {
+        this.finishedAt = Instant.now();
+        this.error = cause.getMessage();
+        this.state = State.FAILED;
+    }
+}
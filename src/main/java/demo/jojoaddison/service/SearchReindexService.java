@@ -0,0 +1,314 @@
+package demo.jojoaddison.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import demo.jojoaddison.config.ApplicationProperties;
+import demo.jojoaddison.repository.search.ElasticsearchBulkIndexer;
+import demo.jojoaddison.repository.search.VersionedIndexOperations;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.domain.EntityScanner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service rebuilding search indices from MongoDB.
+ * <p>
+ * A reindex reads the collection of an entity in {@code application.search.reindex.slices} id ranges in parallel and
+ * bulk-writes it into a new version of the index, see {@link VersionedIndexOperations}. The writes done in the meantime
+ * are mirrored to the new version, then the alias is switched to it once it's complete, unless some of them could not
+ * be mirrored, in which case the new version is discarded and the job fails. Jobs run one after the other.
+ * <p>
+ * Only the writes indexed by this instance are mirrored: while a reindex runs, the application must run as a single
+ * instance, otherwise the writes indexed by the other instances are missing from the new version.
+ * <p>
+ * At startup, the missing indices are created and the ones created with an older mapping of their entity are
+ * reindexed, while the previous version keeps serving searches.
+ */
+@Service
+public class SearchReindexService implements SmartInitializingSingleton {
+
+    private static final int SAMPLES_PER_SLICE = 20;
+
+    private static final String VERSION_CONFLICT = "version_conflict_engine_exception";
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ElasticsearchTemplate elasticsearchTemplate;
+
+    private final VersionedIndexOperations versionedIndexOperations;
+
+    private final ElasticsearchBulkIndexer bulkIndexer;
+
+    private final ApplicationProperties.Search.Reindex properties;
+
+    private final Map<String, Class<?>> entityClassesByIndex = new TreeMap<>();
+
+    private final Map<String, SearchReindexJob> jobs = new ConcurrentHashMap<>();
+
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("search-reindex-"));
+
+    private final ExecutorService sliceExecutor;
+
+    public SearchReindexService(
+        MongoTemplate mongoTemplate,
+        ElasticsearchTemplate elasticsearchTemplate,
+        VersionedIndexOperations versionedIndexOperations,
+        ElasticsearchBulkIndexer bulkIndexer,
+        ApplicationProperties applicationProperties,
+        ApplicationContext applicationContext
+    ) throws ClassNotFoundException {
+        this.mongoTemplate = mongoTemplate;
+        this.elasticsearchTemplate = elasticsearchTemplate;
+        this.versionedIndexOperations = versionedIndexOperations;
+        this.bulkIndexer = bulkIndexer;
+        this.properties = applicationProperties.getSearch().getReindex();
+        this.sliceExecutor = Executors.newFixedThreadPool(properties.getSlices(), new CustomizableThreadFactory("search-reindex-slice-"));
+        for (Class<?> entityClass : new EntityScanner(applicationContext).scan(
+            org.springframework.data.mongodb.core.mapping.Document.class
+        )) {
+            if (entityClass.isAnnotationPresent(org.springframework.data.elasticsearch.annotations.Document.class)) {
+                entityClassesByIndex.put(versionedIndexOperations.aliasOf(entityClass), entityClass);
+            }
+        }
+    }
+
+    /**
+     * Make sure every entity can be searched through its alias before anything gets indexed.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        entityClassesByIndex.forEach((index, entityClass) -> {
+            if (versionedIndexOperations.physicalIndicesOf(entityClass).isEmpty()) {
+                versionedIndexOperations.switchAlias(entityClass, versionedIndexOperations.createNextVersion(entityClass));
+            } else if (properties.isOnMappingChange() && !versionedIndexOperations.isUpToDate(entityClass)) {
+                log.info("Mapping of {} changed, reindexing it into a new version", index);
+                reindex(index);
+            }
+        });
+    }
+
+    /**
+     * Get the latest job of every index reindexed since startup.
+     *
+     * @return the jobs, by index.
+     */
+    public Collection<SearchReindexJob> findAll() {
+        return new TreeMap<>(jobs).values();
+    }
+
+    /**
+     * Get the latest job of an index.
+     *
+     * @param index the name of the index.
+     * @return the job, {@code null} if the index wasn't reindexed since startup.
+     */
+    public SearchReindexJob findOne(String index) {
+        return jobs.get(index);
+    }
+
+    /**
+     * Queue the reindex of every index.
+     *
+     * @return the jobs.
+     */
+    public List<SearchReindexJob> reindexAll() {
+        return entityClassesByIndex.keySet().stream().map(this::reindex).toList();
+    }
+
+    /**
+     * Queue the reindex of an index, unless it's already queued or running.
+     *
+     * @param index the name of the index.
+     * @return the job.
+     * @throws IllegalArgumentException if no entity is indexed under that name.
+     */
+    public SearchReindexJob reindex(String index) {
+        Class<?> entityClass = entityClassesByIndex.get(index);
+        if (entityClass == null) {
+            throw new IllegalArgumentException("Unknown search index: " + index);
+        }
+        return jobs.compute(
+            index,
+            (name, current) -> {
+                if (current != null && current.isActive()) {
+                    return current;
+                }
+                SearchReindexJob job = new SearchReindexJob(name);
+                jobExecutor.execute(() -> run(job, entityClass));
+                return job;
+            }
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        sliceExecutor.shutdownNow();
+    }
+
+    private void run(SearchReindexJob job, Class<?> entityClass) {
+        IndexCoordinates target = null;
+        try {
+            MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityClass));
+            long total = collection.estimatedDocumentCount();
+            target = versionedIndexOperations.createNextVersion(entityClass);
+            bulkIndexer.mirror(entityClass, target);
+            job.started(target.getIndexName(), total);
+            log.info("Reindexing {} into {}", job.getIndex(), target.getIndexName());
+
+            IndexCoordinates sliceTarget = target;
+            CompletableFuture
+                .allOf(
+                    slices(collection, total)
+                        .stream()
+                        .map(slice -> CompletableFuture.runAsync(() -> indexSlice(job, entityClass, slice, sliceTarget), sliceExecutor))
+                        .toArray(CompletableFuture[]::new)
+                )
+                .join();
+
+            bulkIndexer.flushAll();
+            long mirrorFailures = bulkIndexer.mirrorFailures(entityClass);
+            if (mirrorFailures > 0) {
+                throw new IllegalStateException(mirrorFailures + " writes could not be mirrored into " + target.getIndexName());
+            }
+            elasticsearchTemplate.indexOps(target).refresh();
+            versionedIndexOperations.switchAlias(entityClass, target);
+            bulkIndexer.stopMirroring(entityClass);
+            job.completed();
+            log.info("Reindexed {} documents into {} at {} docs/s", job.getIndexed(), target.getIndexName(), job.getDocsPerSecond());
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.error("Reindex of {} failed", job.getIndex(), cause);
+            bulkIndexer.stopMirroring(entityClass);
+            if (target != null) {
+                versionedIndexOperations.discard(target);
+            }
+            job.failed(cause);
+        }
+    }
+
+    /**
+     * Split a collection into id ranges holding about the same number of documents, from a sample of its ids.
+     */
+    private List<Slice> slices(MongoCollection<Document> collection, long total) {
+        int count = (int) Math.max(1, Math.min(properties.getSlices(), total / properties.getBatchSize()));
+        if (count == 1) {
+            return List.of(new Slice(null, null));
+        }
+        List<Object> sampledIds = collection
+            .aggregate(
+                List.of(
+                    Aggregates.sample(count * SAMPLES_PER_SLICE),
+                    Aggregates.project(Projections.include("_id")),
+                    Aggregates.sort(Sorts.ascending("_id"))
+                )
+            )
+            .map(document -> document.get("_id"))
+            .into(new ArrayList<>());
+        LinkedHashSet<Object> bounds = new LinkedHashSet<>();
+        for (int i = 1; i < count; i++) {
+            bounds.add(sampledIds.get(i * sampledIds.size() / count));
+        }
+
+        List<Slice> slices = new ArrayList<>();
+        Object lower = null;
+        for (Object upper : bounds) {
+            slices.add(new Slice(lower, upper));
+            lower = upper;
+        }
+        slices.add(new Slice(lower, null));
+        return slices;
+    }
+
+    private void indexSlice(SearchReindexJob job, Class<?> entityClass, Slice slice, IndexCoordinates target) {
+        ElasticsearchPersistentEntity<?> persistentEntity = elasticsearchTemplate
+            .getElasticsearchConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(entityClass);
+        List<IndexQuery> batch = new ArrayList<>(properties.getBatchSize());
+        try (Stream<?> entities = mongoTemplate.stream(slice.toQuery().cursorBatchSize(properties.getBatchSize()), entityClass)) {
+            Iterator<?> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                Object entity = iterator.next();
+                batch.add(
+                    new IndexQueryBuilder()
+                        .withId(String.valueOf(persistentEntity.getIdentifierAccessor(entity).getRequiredIdentifier()))
+                        .withObject(entity)
+                        // a document mirrored while the job runs is newer than the one read here
+                        .withOpType(IndexQuery.OpType.CREATE)
+                        .build()
+                );
+                if (batch.size() >= properties.getBatchSize()) {
+                    send(job, batch, target);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            send(job, batch, target);
+        }
+    }
+
+    private void send(SearchReindexJob job, List<IndexQuery> batch, IndexCoordinates target) {
+        try {
+            elasticsearchTemplate.bulkIndex(batch, target);
+        } catch (BulkFailureException e) {
+            long failed = e
+                .getFailedDocuments()
+                .values()
+                .stream()
+                .filter(failure -> !String.valueOf(failure).contains(VERSION_CONFLICT))
+                .count();
+            if (failed > 0) {
+                throw new IllegalStateException(failed + " documents could not be indexed into " + target.getIndexName(), e);
+            }
+        }
+        job.indexed(batch.size());
+    }
+
+    private record Slice(Object lower, Object upper) {
+        Query toQuery() {
+            if (lower == null && upper == null) {
+                return new Query();
+            }
+            Criteria criteria = Criteria.where("_id");
+            if (lower != null) {
+                criteria = criteria.gte(lower);
+            }
+            if (upper != null) {
+                criteria = criteria.lt(upper);
+            }
+            return new Query(criteria);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package demo.jojoaddison.service;
+
+import demo.jojoaddison.repository.search.SearchResultCache;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shares the invalidations of the {@link SearchResultCache} between the instances of the application.
+ * <p>
+ * Whenever a batch of writes has been sent to an index, its name is published to the {@code search-result-invalidations}
+ * topic, which every instance consumes without a consumer group, so that each one drops the cached results of the index.
+ * An instance ignores its own invalidations, already applied. A search may still be served a stale page until the
+ * invalidation arrives, usually within milliseconds, and at most for the time to live of the cache if Kafka is down.
+ */
+@Component
+public class SearchResultInvalidations implements Consumer<Message<String>> {
+
+    public static final String BINDING_NAME = "searchResultInvalidations-out-0";
+
+    static final String INSTANCE_HEADER = "searchCacheInstance";
+
+    private final Logger log = LoggerFactory.getLogger(SearchResultInvalidations.class);
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final SearchResultCache searchResultCache;
+
+    private final StreamBridge streamBridge;
+
+    public SearchResultInvalidations(SearchResultCache searchResultCache, StreamBridge streamBridge) {
+        this.searchResultCache = searchResultCache;
+        this.streamBridge = streamBridge;
+        searchResultCache.addInvalidationListener(this::publish);
+    }
+
+    @Override
+    public void accept(Message<String> message) {
+        if (instanceId.equals(senderOf(message))) {
+            return;
+        }
+        log.debug("Invalidating the cached search results of {} written by another instance", message.getPayload());
+        searchResultCache.invalidateLocally(message.getPayload());
+    }
+
+    private void publish(String index) {
+        try {
+            streamBridge.send(BINDING_NAME, MessageBuilder.withPayload(index).setHeader(INSTANCE_HEADER, instanceId).build());
+        } catch (RuntimeException e) {
+            // the other instances keep their entries until they expire, the write itself succeeded
+            log.warn("Could not publish the invalidation of the cached search results of {}: {}", index, e.getMessage());
+        }
+    }
+
+    private static String senderOf(Message<String> message) {
+        Object sender = message.getHeaders().get(INSTANCE_HEADER);
+        return sender instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(sender);
+    }
+}
@@ -0,0 +1,54 @@
+package demo.jojoaddison.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * An entry of a patient timeline: one condition, medication, report, stat or task.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class TimelineEntryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String type;
+
+    private final String id;
+
+    private final LocalDate createdDate;
+
+    private final Serializable entity;
+
+    public TimelineEntryDTO(String type, String id, LocalDate createdDate, Serializable entity) {
+        this.type = type;
+        this.id = id;
+        this.createdDate = createdDate;
+        this.entity = entity;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public LocalDate getCreatedDate() {
+        return createdDate;
+    }
+
+    public Serializable getEntity() {
+        return entity;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TimelineEntryDTO{" +
+            "type='" + getType() + "'" +
+            ", id='" + getId() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
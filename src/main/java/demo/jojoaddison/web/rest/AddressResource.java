@@ -1,22 +1,36 @@
 package demo.jojoaddison.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import demo.jojoaddison.domain.Address;
 import demo.jojoaddison.repository.AddressRepository;
+import demo.jojoaddison.repository.BulkItemResult;
+import demo.jojoaddison.repository.EntityBulkWriter;
 import demo.jojoaddison.repository.search.AddressSearchRepository;
+import demo.jojoaddison.repository.search.SearchCursorPage;
+import demo.jojoaddison.service.EntityChangeOutbox;
 import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
 import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import demo.jojoaddison.web.rest.util.NdjsonUtil;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -37,9 +51,24 @@ public class AddressResource {
 
     private final AddressSearchRepository addressSearchRepository;
 
-    public AddressResource(AddressRepository addressRepository, AddressSearchRepository addressSearchRepository) {
+    private final EntityBulkWriter entityBulkWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityChangeOutbox entityChangeOutbox;
+
+    public AddressResource(
+        AddressRepository addressRepository,
+        AddressSearchRepository addressSearchRepository,
+        EntityBulkWriter entityBulkWriter,
+        ObjectMapper objectMapper,
+        EntityChangeOutbox entityChangeOutbox
+    ) {
         this.addressRepository = addressRepository;
         this.addressSearchRepository = addressSearchRepository;
+        this.entityBulkWriter = entityBulkWriter;
+        this.objectMapper = objectMapper;
+        this.entityChangeOutbox = entityChangeOutbox;
     }
 
     /**
@@ -49,6 +78,7 @@ public class AddressResource {
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new address, or with status {@code 400 (Bad Request)} if the address has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PostMapping("")
     public ResponseEntity<Address> createAddress(@RequestBody Address address) throws URISyntaxException {
         log.debug("REST request to save Address : {}", address);
@@ -56,6 +86,7 @@ public class AddressResource {
             throw new BadRequestAlertException("A new address cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Address result = addressRepository.save(address);
+        entityChangeOutbox.created(Address.class, result.getId());
         addressSearchRepository.index(result);
         return ResponseEntity
             .created(new URI("/api/addresses/" + result.getId()))
@@ -73,6 +104,7 @@ public class AddressResource {
      * or with status {@code 500 (Internal Server Error)} if the address couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PutMapping("/{id}")
     public ResponseEntity<Address> updateAddress(
         @PathVariable(value = "id", required = false) final String id,
@@ -86,11 +118,10 @@ public class AddressResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!addressRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Address result = addressRepository.save(address);
+        Address result = addressRepository
+            .replaceIfExists(address)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Address.class, result.getId());
         addressSearchRepository.index(result);
         return ResponseEntity
             .ok()
@@ -109,6 +140,7 @@ public class AddressResource {
      * or with status {@code 500 (Internal Server Error)} if the address couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Address> partialUpdateAddress(
         @PathVariable(value = "id", required = false) final String id,
@@ -122,76 +154,96 @@ public class AddressResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!addressRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Address result = addressRepository
+            .partialUpdate(address)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Address.class, result.getId());
+        addressSearchRepository.index(result);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, address.getId()))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /addresses/_bulk} : Create new addresses in one batch.
+     *
+     * @param addresses the addresses to create, an item with an ID is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkCreateAddresses(@RequestBody List<Address> addresses) {
+        log.debug("REST request to save {} Addresses", addresses.size());
+        List<BulkItemResult> results = entityBulkWriter.insertAll(Address.class, addresses);
+        entityChangeOutbox.recordAll(Address.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                addressSearchRepository.index(addresses.get(i));
+            }
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
+    /**
+     * {@code PUT  /addresses/_bulk} : Updates existing addresses in one batch.
+     *
+     * @param addresses the addresses to update, an item whose ID is unknown is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PutMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpdateAddresses(@RequestBody List<Address> addresses) {
+        log.debug("REST request to update {} Addresses", addresses.size());
+        List<BulkItemResult> results = entityBulkWriter.replaceAll(Address.class, addresses);
+        entityChangeOutbox.recordAll(Address.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                addressSearchRepository.index(addresses.get(i));
+            }
         }
+        return ResponseEntity.ok().body(results);
+    }
 
-        Optional<Address> result = addressRepository
-            .findById(address.getId())
-            .map(existingAddress -> {
-                if (address.getDigitalAddress() != null) {
-                    existingAddress.setDigitalAddress(address.getDigitalAddress());
-                }
-                if (address.getStreetAddress() != null) {
-                    existingAddress.setStreetAddress(address.getStreetAddress());
-                }
-                if (address.getAreaCode() != null) {
-                    existingAddress.setAreaCode(address.getAreaCode());
-                }
-                if (address.getTown() != null) {
-                    existingAddress.setTown(address.getTown());
-                }
-                if (address.getCity() != null) {
-                    existingAddress.setCity(address.getCity());
-                }
-                if (address.getDistrict() != null) {
-                    existingAddress.setDistrict(address.getDistrict());
-                }
-                if (address.getState() != null) {
-                    existingAddress.setState(address.getState());
-                }
-                if (address.getRegion() != null) {
-                    existingAddress.setRegion(address.getRegion());
-                }
-                if (address.getCountry() != null) {
-                    existingAddress.setCountry(address.getCountry());
-                }
-                if (address.getCreatedDate() != null) {
-                    existingAddress.setCreatedDate(address.getCreatedDate());
-                }
-                if (address.getModifiedDate() != null) {
-                    existingAddress.setModifiedDate(address.getModifiedDate());
-                }
-                if (address.getCreatedBy() != null) {
-                    existingAddress.setCreatedBy(address.getCreatedBy());
-                }
-                if (address.getModifiedBy() != null) {
-                    existingAddress.setModifiedBy(address.getModifiedBy());
-                }
-
-                return existingAddress;
-            })
-            .map(addressRepository::save)
-            .map(savedAddress -> {
-                addressSearchRepository.index(savedAddress);
-                return savedAddress;
-            });
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, address.getId())
-        );
+    /**
+     * {@code DELETE  /addresses/_bulk} : delete the addresses with the given ids in one batch.
+     *
+     * @param ids the ids of the addresses to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkDeleteAddresses(@RequestBody List<String> ids) {
+        log.debug("REST request to delete {} Addresses", ids.size());
+        List<BulkItemResult> results = entityBulkWriter.deleteAllById(Address.class, ids);
+        entityChangeOutbox.recordAll(Address.class, results);
+        results.stream().filter(BulkItemResult::succeeded).forEach(result -> addressSearchRepository.deleteFromIndexById(result.id()));
+        return ResponseEntity.ok().body(results);
     }
 
     /**
      * {@code GET  /addresses} : get all the addresses.
      *
+     * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of addresses in body.
      */
     @GetMapping("")
-    public List<Address> getAllAddresses() {
-        log.debug("REST request to get all Addresses");
-        return addressRepository.findAll();
+    public ResponseEntity<List<Address>> getAllAddresses(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of Addresses");
+        Page<Address> page = addressRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /addresses} with {@code Accept: application/x-ndjson} : stream all the addresses, one per line.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the addresses in body, written as they are read.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllAddresses() {
+        log.debug("REST request to stream all Addresses");
+        return NdjsonUtil.streamingResponse(objectMapper, addressRepository.streamAllBy());
     }
 
     /**
@@ -213,10 +265,13 @@ public class AddressResource {
      * @param id the id of the address to delete.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
+    @Transactional
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteAddress(@PathVariable("id") String id) {
         log.debug("REST request to delete Address : {}", id);
-        addressRepository.deleteById(id);
+        if (addressRepository.removeById(id) > 0) {
+            entityChangeOutbox.deleted(Address.class, id);
+        }
         addressSearchRepository.deleteFromIndexById(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
@@ -226,13 +281,44 @@ public class AddressResource {
      * to the query.
      *
      * @param query the query of the address search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<Address> searchAddresses(@RequestParam("query") String query) {
-        log.debug("REST request to search Addresses for query {}", query);
+    public ResponseEntity<List<Address>> searchAddresses(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Addresses for query {}", query);
+        try {
+            Page<Address> page = addressSearchRepository.search(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /addresses/_search?query=:query&cursor=:cursor} : walk the address search results
+     * with a point-in-time cursor, at constant cost per page however deep.
+     *
+     * @param query the query of the address search.
+     * @param cursor the continuation token of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the page size is used.
+     * @return the result of the search, with the next continuation token in the {@code X-Search-Cursor} header.
+     */
+    @GetMapping(value = "/_search", params = "cursor")
+    public ResponseEntity<List<Address>> searchAddressesWithCursor(
+        @RequestParam("query") String query,
+        @RequestParam("cursor") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search Addresses with a cursor for query {}", query);
         try {
-            return StreamSupport.stream(addressSearchRepository.search(query).spliterator(), false).toList();
+            SearchCursorPage<Address> page = addressSearchRepository.search(query, cursor, pageable.getPageSize());
+            HttpHeaders headers = SearchCursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
@@ -1,22 +1,36 @@
 package demo.jojoaddison.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import demo.jojoaddison.domain.Condition;
+import demo.jojoaddison.repository.BulkItemResult;
 import demo.jojoaddison.repository.ConditionRepository;
+import demo.jojoaddison.repository.EntityBulkWriter;
 import demo.jojoaddison.repository.search.ConditionSearchRepository;
+import demo.jojoaddison.repository.search.SearchCursorPage;
+import demo.jojoaddison.service.EntityChangeOutbox;
 import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
 import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import demo.jojoaddison.web.rest.util.NdjsonUtil;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -37,9 +51,24 @@ public class ConditionResource {
 
     private final ConditionSearchRepository conditionSearchRepository;
 
-    public ConditionResource(ConditionRepository conditionRepository, ConditionSearchRepository conditionSearchRepository) {
+    private final EntityBulkWriter entityBulkWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityChangeOutbox entityChangeOutbox;
+
+    public ConditionResource(
+        ConditionRepository conditionRepository,
+        ConditionSearchRepository conditionSearchRepository,
+        EntityBulkWriter entityBulkWriter,
+        ObjectMapper objectMapper,
+        EntityChangeOutbox entityChangeOutbox
+    ) {
         this.conditionRepository = conditionRepository;
         this.conditionSearchRepository = conditionSearchRepository;
+        this.entityBulkWriter = entityBulkWriter;
+        this.objectMapper = objectMapper;
+        this.entityChangeOutbox = entityChangeOutbox;
     }
 
     /**
@@ -49,6 +78,7 @@ public class ConditionResource {
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new condition, or with status {@code 400 (Bad Request)} if the condition has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PostMapping("")
     public ResponseEntity<Condition> createCondition(@RequestBody Condition condition) throws URISyntaxException {
         log.debug("REST request to save Condition : {}", condition);
@@ -56,6 +86,7 @@ public class ConditionResource {
             throw new BadRequestAlertException("A new condition cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Condition result = conditionRepository.save(condition);
+        entityChangeOutbox.created(Condition.class, result.getId());
         conditionSearchRepository.index(result);
         return ResponseEntity
             .created(new URI("/api/conditions/" + result.getId()))
@@ -73,6 +104,7 @@ public class ConditionResource {
      * or with status {@code 500 (Internal Server Error)} if the condition couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PutMapping("/{id}")
     public ResponseEntity<Condition> updateCondition(
         @PathVariable(value = "id", required = false) final String id,
@@ -86,11 +118,10 @@ public class ConditionResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!conditionRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Condition result = conditionRepository.save(condition);
+        Condition result = conditionRepository
+            .replaceIfExists(condition)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Condition.class, result.getId());
         conditionSearchRepository.index(result);
         return ResponseEntity
             .ok()
@@ -109,6 +140,7 @@ public class ConditionResource {
      * or with status {@code 500 (Internal Server Error)} if the condition couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Condition> partialUpdateCondition(
         @PathVariable(value = "id", required = false) final String id,
@@ -122,58 +154,96 @@ public class ConditionResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!conditionRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Condition result = conditionRepository
+            .partialUpdate(condition)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Condition.class, result.getId());
+        conditionSearchRepository.index(result);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, condition.getId()))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /conditions/_bulk} : Create new conditions in one batch.
+     *
+     * @param conditions the conditions to create, an item with an ID is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkCreateConditions(@RequestBody List<Condition> conditions) {
+        log.debug("REST request to save {} Conditions", conditions.size());
+        List<BulkItemResult> results = entityBulkWriter.insertAll(Condition.class, conditions);
+        entityChangeOutbox.recordAll(Condition.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                conditionSearchRepository.index(conditions.get(i));
+            }
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
+    /**
+     * {@code PUT  /conditions/_bulk} : Updates existing conditions in one batch.
+     *
+     * @param conditions the conditions to update, an item whose ID is unknown is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PutMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpdateConditions(@RequestBody List<Condition> conditions) {
+        log.debug("REST request to update {} Conditions", conditions.size());
+        List<BulkItemResult> results = entityBulkWriter.replaceAll(Condition.class, conditions);
+        entityChangeOutbox.recordAll(Condition.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                conditionSearchRepository.index(conditions.get(i));
+            }
         }
+        return ResponseEntity.ok().body(results);
+    }
 
-        Optional<Condition> result = conditionRepository
-            .findById(condition.getId())
-            .map(existingCondition -> {
-                if (condition.getName() != null) {
-                    existingCondition.setName(condition.getName());
-                }
-                if (condition.getDescription() != null) {
-                    existingCondition.setDescription(condition.getDescription());
-                }
-                if (condition.getPatientId() != null) {
-                    existingCondition.setPatientId(condition.getPatientId());
-                }
-                if (condition.getCreatedDate() != null) {
-                    existingCondition.setCreatedDate(condition.getCreatedDate());
-                }
-                if (condition.getModifiedDate() != null) {
-                    existingCondition.setModifiedDate(condition.getModifiedDate());
-                }
-                if (condition.getCreatedBy() != null) {
-                    existingCondition.setCreatedBy(condition.getCreatedBy());
-                }
-                if (condition.getModifiedBy() != null) {
-                    existingCondition.setModifiedBy(condition.getModifiedBy());
-                }
-
-                return existingCondition;
-            })
-            .map(conditionRepository::save)
-            .map(savedCondition -> {
-                conditionSearchRepository.index(savedCondition);
-                return savedCondition;
-            });
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, condition.getId())
-        );
+    /**
+     * {@code DELETE  /conditions/_bulk} : delete the conditions with the given ids in one batch.
+     *
+     * @param ids the ids of the conditions to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkDeleteConditions(@RequestBody List<String> ids) {
+        log.debug("REST request to delete {} Conditions", ids.size());
+        List<BulkItemResult> results = entityBulkWriter.deleteAllById(Condition.class, ids);
+        entityChangeOutbox.recordAll(Condition.class, results);
+        results.stream().filter(BulkItemResult::succeeded).forEach(result -> conditionSearchRepository.deleteFromIndexById(result.id()));
+        return ResponseEntity.ok().body(results);
     }
 
     /**
      * {@code GET  /conditions} : get all the conditions.
      *
+     * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of conditions in body.
      */
     @GetMapping("")
-    public List<Condition> getAllConditions() {
-        log.debug("REST request to get all Conditions");
-        return conditionRepository.findAll();
+    public ResponseEntity<List<Condition>> getAllConditions(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of Conditions");
+        Page<Condition> page = conditionRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /conditions} with {@code Accept: application/x-ndjson} : stream all the conditions, one per line.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the conditions in body, written as they are read.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllConditions() {
+        log.debug("REST request to stream all Conditions");
+        return NdjsonUtil.streamingResponse(objectMapper, conditionRepository.streamAllBy());
     }
 
     /**
@@ -195,10 +265,13 @@ public class ConditionResource {
      * @param id the id of the condition to delete.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
+    @Transactional
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCondition(@PathVariable("id") String id) {
         log.debug("REST request to delete Condition : {}", id);
-        conditionRepository.deleteById(id);
+        if (conditionRepository.removeById(id) > 0) {
+            entityChangeOutbox.deleted(Condition.class, id);
+        }
         conditionSearchRepository.deleteFromIndexById(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
@@ -208,13 +281,44 @@ public class ConditionResource {
      * to the query.
      *
      * @param query the query of the condition search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<Condition> searchConditions(@RequestParam("query") String query) {
-        log.debug("REST request to search Conditions for query {}", query);
+    public ResponseEntity<List<Condition>> searchConditions(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Conditions for query {}", query);
+        try {
+            Page<Condition> page = conditionSearchRepository.search(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /conditions/_search?query=:query&cursor=:cursor} : walk the condition search results
+     * with a point-in-time cursor, at constant cost per page however deep.
+     *
+     * @param query the query of the condition search.
+     * @param cursor the continuation token of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the page size is used.
+     * @return the result of the search, with the next continuation token in the {@code X-Search-Cursor} header.
+     */
+    @GetMapping(value = "/_search", params = "cursor")
+    public ResponseEntity<List<Condition>> searchConditionsWithCursor(
+        @RequestParam("query") String query,
+        @RequestParam("cursor") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search Conditions with a cursor for query {}", query);
         try {
-            return StreamSupport.stream(conditionSearchRepository.search(query).spliterator(), false).toList();
+            SearchCursorPage<Condition> page = conditionSearchRepository.search(query, cursor, pageable.getPageSize());
+            HttpHeaders headers = SearchCursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
@@ -1,10 +1,13 @@
 package demo.jojoaddison.web.rest;
 
 import demo.jojoaddison.broker.KafkaConsumer;
+import demo.jojoaddison.broker.KafkaProducer;
 import java.security.Principal;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
@@ -12,26 +15,48 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter
 @RequestMapping("/api/demo-search-kafka")
 public class DemoSearchKafkaResource {
 
-    private static final String PRODUCER_BINDING_NAME = "binding-out-0";
-
     private final Logger log = LoggerFactory.getLogger(DemoSearchKafkaResource.class);
     private final KafkaConsumer kafkaConsumer;
-    private final StreamBridge streamBridge;
+    private final KafkaProducer kafkaProducer;
 
-    public DemoSearchKafkaResource(StreamBridge streamBridge, KafkaConsumer kafkaConsumer) {
-        this.streamBridge = streamBridge;
+    public DemoSearchKafkaResource(KafkaProducer kafkaProducer, KafkaConsumer kafkaConsumer) {
+        this.kafkaProducer = kafkaProducer;
         this.kafkaConsumer = kafkaConsumer;
     }
 
+    /**
+     * {@code POST  /publish} : Publish a message to the Kafka topic.
+     *
+     * @param message the message.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, or with status {@code 503 (Service Unavailable)} if the
+     * message could not be queued.
+     */
     @PostMapping("/publish")
-    public void publish(@RequestParam("message") String message) {
+    public ResponseEntity<Void> publish(@RequestParam("message") String message) {
         log.debug("REST request the message : {} to send to Kafka topic ", message);
-        streamBridge.send(PRODUCER_BINDING_NAME, message);
+        if (!kafkaProducer.send(message)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().build();
     }
 
+    /**
+     * {@code GET  /register} : Subscribe to the messages of the SSE topic.
+     *
+     * @param principal the current user.
+     * @param topic the topic of the messages to receive, any if not set.
+     * @param keys the record keys of the messages to receive (e.g. patient ids), any if not set.
+     * @param lastEventId the id of the last message received before reconnecting, to receive the ones missed since.
+     * @return the stream of the messages.
+     */
     @GetMapping("/register")
-    public ResponseBodyEmitter register(Principal principal) {
-        return kafkaConsumer.register(principal.getName());
+    public ResponseBodyEmitter register(
+        Principal principal,
+        @RequestParam(name = "topic", required = false) String topic,
+        @RequestParam(name = "key", required = false) List<String> keys,
+        @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return kafkaConsumer.register(principal.getName(), topic, keys != null ? keys : List.of(), lastEventId);
     }
 
     @GetMapping("/unregister")
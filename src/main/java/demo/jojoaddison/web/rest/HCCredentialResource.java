@@ -1,22 +1,36 @@
 package demo.jojoaddison.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import demo.jojoaddison.domain.HCCredential;
+import demo.jojoaddison.repository.BulkItemResult;
+import demo.jojoaddison.repository.EntityBulkWriter;
 import demo.jojoaddison.repository.HCCredentialRepository;
 import demo.jojoaddison.repository.search.HCCredentialSearchRepository;
+import demo.jojoaddison.repository.search.SearchCursorPage;
+import demo.jojoaddison.service.EntityChangeOutbox;
 import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
 import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import demo.jojoaddison.web.rest.util.NdjsonUtil;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -37,9 +51,24 @@ public class HCCredentialResource {
 
     private final HCCredentialSearchRepository hCCredentialSearchRepository;
 
-    public HCCredentialResource(HCCredentialRepository hCCredentialRepository, HCCredentialSearchRepository hCCredentialSearchRepository) {
+    private final EntityBulkWriter entityBulkWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityChangeOutbox entityChangeOutbox;
+
+    public HCCredentialResource(
+        HCCredentialRepository hCCredentialRepository,
+        HCCredentialSearchRepository hCCredentialSearchRepository,
+        EntityBulkWriter entityBulkWriter,
+        ObjectMapper objectMapper,
+        EntityChangeOutbox entityChangeOutbox
+    ) {
         this.hCCredentialRepository = hCCredentialRepository;
         this.hCCredentialSearchRepository = hCCredentialSearchRepository;
+        this.entityBulkWriter = entityBulkWriter;
+        this.objectMapper = objectMapper;
+        this.entityChangeOutbox = entityChangeOutbox;
     }
 
     /**
@@ -49,6 +78,7 @@ public class HCCredentialResource {
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new hCCredential, or with status {@code 400 (Bad Request)} if the hCCredential has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PostMapping("")
     public ResponseEntity<HCCredential> createHCCredential(@RequestBody HCCredential hCCredential) throws URISyntaxException {
         log.debug("REST request to save HCCredential : {}", hCCredential);
@@ -56,6 +86,7 @@ public class HCCredentialResource {
             throw new BadRequestAlertException("A new hCCredential cannot already have an ID", ENTITY_NAME, "idexists");
         }
         HCCredential result = hCCredentialRepository.save(hCCredential);
+        entityChangeOutbox.created(HCCredential.class, result.getId());
         hCCredentialSearchRepository.index(result);
         return ResponseEntity
             .created(new URI("/api/hc-credentials/" + result.getId()))
@@ -73,6 +104,7 @@ public class HCCredentialResource {
      * or with status {@code 500 (Internal Server Error)} if the hCCredential couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PutMapping("/{id}")
     public ResponseEntity<HCCredential> updateHCCredential(
         @PathVariable(value = "id", required = false) final String id,
@@ -86,11 +118,10 @@ public class HCCredentialResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!hCCredentialRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        HCCredential result = hCCredentialRepository.save(hCCredential);
+        HCCredential result = hCCredentialRepository
+            .replaceIfExists(hCCredential)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(HCCredential.class, result.getId());
         hCCredentialSearchRepository.index(result);
         return ResponseEntity
             .ok()
@@ -109,6 +140,7 @@ public class HCCredentialResource {
      * or with status {@code 500 (Internal Server Error)} if the hCCredential couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<HCCredential> partialUpdateHCCredential(
         @PathVariable(value = "id", required = false) final String id,
@@ -122,58 +154,96 @@ public class HCCredentialResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!hCCredentialRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        HCCredential result = hCCredentialRepository
+            .partialUpdate(hCCredential)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(HCCredential.class, result.getId());
+        hCCredentialSearchRepository.index(result);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, hCCredential.getId()))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /hc-credentials/_bulk} : Create new hCCredentials in one batch.
+     *
+     * @param hCCredentials the hCCredentials to create, an item with an ID is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkCreateHCCredentials(@RequestBody List<HCCredential> hCCredentials) {
+        log.debug("REST request to save {} HCCredentials", hCCredentials.size());
+        List<BulkItemResult> results = entityBulkWriter.insertAll(HCCredential.class, hCCredentials);
+        entityChangeOutbox.recordAll(HCCredential.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                hCCredentialSearchRepository.index(hCCredentials.get(i));
+            }
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
+    /**
+     * {@code PUT  /hc-credentials/_bulk} : Updates existing hCCredentials in one batch.
+     *
+     * @param hCCredentials the hCCredentials to update, an item whose ID is unknown is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PutMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpdateHCCredentials(@RequestBody List<HCCredential> hCCredentials) {
+        log.debug("REST request to update {} HCCredentials", hCCredentials.size());
+        List<BulkItemResult> results = entityBulkWriter.replaceAll(HCCredential.class, hCCredentials);
+        entityChangeOutbox.recordAll(HCCredential.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                hCCredentialSearchRepository.index(hCCredentials.get(i));
+            }
         }
+        return ResponseEntity.ok().body(results);
+    }
 
-        Optional<HCCredential> result = hCCredentialRepository
-            .findById(hCCredential.getId())
-            .map(existingHCCredential -> {
-                if (hCCredential.getEmail() != null) {
-                    existingHCCredential.setEmail(hCCredential.getEmail());
-                }
-                if (hCCredential.getPhoneNumber() != null) {
-                    existingHCCredential.setPhoneNumber(hCCredential.getPhoneNumber());
-                }
-                if (hCCredential.getPassword() != null) {
-                    existingHCCredential.setPassword(hCCredential.getPassword());
-                }
-                if (hCCredential.getRole() != null) {
-                    existingHCCredential.setRole(hCCredential.getRole());
-                }
-                if (hCCredential.getCreatedDate() != null) {
-                    existingHCCredential.setCreatedDate(hCCredential.getCreatedDate());
-                }
-                if (hCCredential.getActive() != null) {
-                    existingHCCredential.setActive(hCCredential.getActive());
-                }
-                if (hCCredential.getModifiedDate() != null) {
-                    existingHCCredential.setModifiedDate(hCCredential.getModifiedDate());
-                }
-
-                return existingHCCredential;
-            })
-            .map(hCCredentialRepository::save)
-            .map(savedHCCredential -> {
-                hCCredentialSearchRepository.index(savedHCCredential);
-                return savedHCCredential;
-            });
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, hCCredential.getId())
-        );
+    /**
+     * {@code DELETE  /hc-credentials/_bulk} : delete the hCCredentials with the given ids in one batch.
+     *
+     * @param ids the ids of the hCCredentials to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkDeleteHCCredentials(@RequestBody List<String> ids) {
+        log.debug("REST request to delete {} HCCredentials", ids.size());
+        List<BulkItemResult> results = entityBulkWriter.deleteAllById(HCCredential.class, ids);
+        entityChangeOutbox.recordAll(HCCredential.class, results);
+        results.stream().filter(BulkItemResult::succeeded).forEach(result -> hCCredentialSearchRepository.deleteFromIndexById(result.id()));
+        return ResponseEntity.ok().body(results);
     }
 
     /**
      * {@code GET  /hc-credentials} : get all the hCCredentials.
      *
+     * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of hCCredentials in body.
      */
     @GetMapping("")
-    public List<HCCredential> getAllHCCredentials() {
-        log.debug("REST request to get all HCCredentials");
-        return hCCredentialRepository.findAll();
+    public ResponseEntity<List<HCCredential>> getAllHCCredentials(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of HCCredentials");
+        Page<HCCredential> page = hCCredentialRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /hc-credentials} with {@code Accept: application/x-ndjson} : stream all the hCCredentials, one per line.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the hCCredentials in body, written as they are read.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllHCCredentials() {
+        log.debug("REST request to stream all HCCredentials");
+        return NdjsonUtil.streamingResponse(objectMapper, hCCredentialRepository.streamAllBy());
     }
 
     /**
@@ -195,10 +265,13 @@ public class HCCredentialResource {
      * @param id the id of the hCCredential to delete.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
+    @Transactional
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteHCCredential(@PathVariable("id") String id) {
         log.debug("REST request to delete HCCredential : {}", id);
-        hCCredentialRepository.deleteById(id);
+        if (hCCredentialRepository.removeById(id) > 0) {
+            entityChangeOutbox.deleted(HCCredential.class, id);
+        }
         hCCredentialSearchRepository.deleteFromIndexById(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
@@ -208,13 +281,44 @@ public class HCCredentialResource {
      * to the query.
      *
      * @param query the query of the hCCredential search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<HCCredential> searchHCCredentials(@RequestParam("query") String query) {
-        log.debug("REST request to search HCCredentials for query {}", query);
+    public ResponseEntity<List<HCCredential>> searchHCCredentials(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of HCCredentials for query {}", query);
+        try {
+            Page<HCCredential> page = hCCredentialSearchRepository.search(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /hc-credentials/_search?query=:query&cursor=:cursor} : walk the hCCredential search results
+     * with a point-in-time cursor, at constant cost per page however deep.
+     *
+     * @param query the query of the hCCredential search.
+     * @param cursor the continuation token of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the page size is used.
+     * @return the result of the search, with the next continuation token in the {@code X-Search-Cursor} header.
+     */
+    @GetMapping(value = "/_search", params = "cursor")
+    public ResponseEntity<List<HCCredential>> searchHCCredentialsWithCursor(
+        @RequestParam("query") String query,
+        @RequestParam("cursor") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search HCCredentials with a cursor for query {}", query);
         try {
-            return StreamSupport.stream(hCCredentialSearchRepository.search(query).spliterator(), false).toList();
+            SearchCursorPage<HCCredential> page = hCCredentialSearchRepository.search(query, cursor, pageable.getPageSize());
+            HttpHeaders headers = SearchCursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
@@ -1,22 +1,36 @@
 package demo.jojoaddison.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import demo.jojoaddison.domain.HCPayOption;
+import demo.jojoaddison.repository.BulkItemResult;
+import demo.jojoaddison.repository.EntityBulkWriter;
 import demo.jojoaddison.repository.HCPayOptionRepository;
 import demo.jojoaddison.repository.search.HCPayOptionSearchRepository;
+import demo.jojoaddison.repository.search.SearchCursorPage;
+import demo.jojoaddison.service.EntityChangeOutbox;
 import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
 import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import demo.jojoaddison.web.rest.util.NdjsonUtil;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -37,9 +51,24 @@ public class HCPayOptionResource {
 
     private final HCPayOptionSearchRepository hCPayOptionSearchRepository;
 
-    public HCPayOptionResource(HCPayOptionRepository hCPayOptionRepository, HCPayOptionSearchRepository hCPayOptionSearchRepository) {
+    private final EntityBulkWriter entityBulkWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityChangeOutbox entityChangeOutbox;
+
+    public HCPayOptionResource(
+        HCPayOptionRepository hCPayOptionRepository,
+        HCPayOptionSearchRepository hCPayOptionSearchRepository,
+        EntityBulkWriter entityBulkWriter,
+        ObjectMapper objectMapper,
+        EntityChangeOutbox entityChangeOutbox
+    ) {
         this.hCPayOptionRepository = hCPayOptionRepository;
         this.hCPayOptionSearchRepository = hCPayOptionSearchRepository;
+        this.entityBulkWriter = entityBulkWriter;
+        this.objectMapper = objectMapper;
+        this.entityChangeOutbox = entityChangeOutbox;
     }
 
     /**
@@ -49,6 +78,7 @@ public class HCPayOptionResource {
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new hCPayOption, or with status {@code 400 (Bad Request)} if the hCPayOption has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PostMapping("")
     public ResponseEntity<HCPayOption> createHCPayOption(@RequestBody HCPayOption hCPayOption) throws URISyntaxException {
         log.debug("REST request to save HCPayOption : {}", hCPayOption);
@@ -56,6 +86,7 @@ public class HCPayOptionResource {
             throw new BadRequestAlertException("A new hCPayOption cannot already have an ID", ENTITY_NAME, "idexists");
         }
         HCPayOption result = hCPayOptionRepository.save(hCPayOption);
+        entityChangeOutbox.created(HCPayOption.class, result.getId());
         hCPayOptionSearchRepository.index(result);
         return ResponseEntity
             .created(new URI("/api/hc-pay-options/" + result.getId()))
@@ -73,6 +104,7 @@ public class HCPayOptionResource {
      * or with status {@code 500 (Internal Server Error)} if the hCPayOption couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PutMapping("/{id}")
     public ResponseEntity<HCPayOption> updateHCPayOption(
         @PathVariable(value = "id", required = false) final String id,
@@ -86,11 +118,10 @@ public class HCPayOptionResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!hCPayOptionRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        HCPayOption result = hCPayOptionRepository.save(hCPayOption);
+        HCPayOption result = hCPayOptionRepository
+            .replaceIfExists(hCPayOption)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(HCPayOption.class, result.getId());
         hCPayOptionSearchRepository.index(result);
         return ResponseEntity
             .ok()
@@ -109,6 +140,7 @@ public class HCPayOptionResource {
      * or with status {@code 500 (Internal Server Error)} if the hCPayOption couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<HCPayOption> partialUpdateHCPayOption(
         @PathVariable(value = "id", required = false) final String id,
@@ -122,46 +154,96 @@ public class HCPayOptionResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!hCPayOptionRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        HCPayOption result = hCPayOptionRepository
+            .partialUpdate(hCPayOption)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(HCPayOption.class, result.getId());
+        hCPayOptionSearchRepository.index(result);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, hCPayOption.getId()))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /hc-pay-options/_bulk} : Create new hCPayOptions in one batch.
+     *
+     * @param hCPayOptions the hCPayOptions to create, an item with an ID is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkCreateHCPayOptions(@RequestBody List<HCPayOption> hCPayOptions) {
+        log.debug("REST request to save {} HCPayOptions", hCPayOptions.size());
+        List<BulkItemResult> results = entityBulkWriter.insertAll(HCPayOption.class, hCPayOptions);
+        entityChangeOutbox.recordAll(HCPayOption.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                hCPayOptionSearchRepository.index(hCPayOptions.get(i));
+            }
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
+    /**
+     * {@code PUT  /hc-pay-options/_bulk} : Updates existing hCPayOptions in one batch.
+     *
+     * @param hCPayOptions the hCPayOptions to update, an item whose ID is unknown is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PutMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpdateHCPayOptions(@RequestBody List<HCPayOption> hCPayOptions) {
+        log.debug("REST request to update {} HCPayOptions", hCPayOptions.size());
+        List<BulkItemResult> results = entityBulkWriter.replaceAll(HCPayOption.class, hCPayOptions);
+        entityChangeOutbox.recordAll(HCPayOption.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                hCPayOptionSearchRepository.index(hCPayOptions.get(i));
+            }
         }
+        return ResponseEntity.ok().body(results);
+    }
 
-        Optional<HCPayOption> result = hCPayOptionRepository
-            .findById(hCPayOption.getId())
-            .map(existingHCPayOption -> {
-                if (hCPayOption.getType() != null) {
-                    existingHCPayOption.setType(hCPayOption.getType());
-                }
-                if (hCPayOption.getUserID() != null) {
-                    existingHCPayOption.setUserID(hCPayOption.getUserID());
-                }
-                if (hCPayOption.getMetadata() != null) {
-                    existingHCPayOption.setMetadata(hCPayOption.getMetadata());
-                }
-
-                return existingHCPayOption;
-            })
-            .map(hCPayOptionRepository::save)
-            .map(savedHCPayOption -> {
-                hCPayOptionSearchRepository.index(savedHCPayOption);
-                return savedHCPayOption;
-            });
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, hCPayOption.getId())
-        );
+    /**
+     * {@code DELETE  /hc-pay-options/_bulk} : delete the hCPayOptions with the given ids in one batch.
+     *
+     * @param ids the ids of the hCPayOptions to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkDeleteHCPayOptions(@RequestBody List<String> ids) {
+        log.debug("REST request to delete {} HCPayOptions", ids.size());
+        List<BulkItemResult> results = entityBulkWriter.deleteAllById(HCPayOption.class, ids);
+        entityChangeOutbox.recordAll(HCPayOption.class, results);
+        results.stream().filter(BulkItemResult::succeeded).forEach(result -> hCPayOptionSearchRepository.deleteFromIndexById(result.id()));
+        return ResponseEntity.ok().body(results);
     }
 
     /**
      * {@code GET  /hc-pay-options} : get all the hCPayOptions.
      *
+     * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of hCPayOptions in body.
      */
     @GetMapping("")
-    public List<HCPayOption> getAllHCPayOptions() {
-        log.debug("REST request to get all HCPayOptions");
-        return hCPayOptionRepository.findAll();
+    public ResponseEntity<List<HCPayOption>> getAllHCPayOptions(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of HCPayOptions");
+        Page<HCPayOption> page = hCPayOptionRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /hc-pay-options} with {@code Accept: application/x-ndjson} : stream all the hCPayOptions, one per line.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the hCPayOptions in body, written as they are read.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllHCPayOptions() {
+        log.debug("REST request to stream all HCPayOptions");
+        return NdjsonUtil.streamingResponse(objectMapper, hCPayOptionRepository.streamAllBy());
     }
 
     /**
@@ -183,10 +265,13 @@ public class HCPayOptionResource {
      * @param id the id of the hCPayOption to delete.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
+    @Transactional
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteHCPayOption(@PathVariable("id") String id) {
         log.debug("REST request to delete HCPayOption : {}", id);
-        hCPayOptionRepository.deleteById(id);
+        if (hCPayOptionRepository.removeById(id) > 0) {
+            entityChangeOutbox.deleted(HCPayOption.class, id);
+        }
         hCPayOptionSearchRepository.deleteFromIndexById(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
@@ -196,13 +281,44 @@ public class HCPayOptionResource {
      * to the query.
      *
      * @param query the query of the hCPayOption search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<HCPayOption> searchHCPayOptions(@RequestParam("query") String query) {
-        log.debug("REST request to search HCPayOptions for query {}", query);
+    public ResponseEntity<List<HCPayOption>> searchHCPayOptions(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of HCPayOptions for query {}", query);
+        try {
+            Page<HCPayOption> page = hCPayOptionSearchRepository.search(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /hc-pay-options/_search?query=:query&cursor=:cursor} : walk the hCPayOption search results
+     * with a point-in-time cursor, at constant cost per page however deep.
+     *
+     * @param query the query of the hCPayOption search.
+     * @param cursor the continuation token of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the page size is used.
+     * @return the result of the search, with the next continuation token in the {@code X-Search-Cursor} header.
+     */
+    @GetMapping(value = "/_search", params = "cursor")
+    public ResponseEntity<List<HCPayOption>> searchHCPayOptionsWithCursor(
+        @RequestParam("query") String query,
+        @RequestParam("cursor") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search HCPayOptions with a cursor for query {}", query);
         try {
-            return StreamSupport.stream(hCPayOptionSearchRepository.search(query).spliterator(), false).toList();
+            SearchCursorPage<HCPayOption> page = hCPayOptionSearchRepository.search(query, cursor, pageable.getPageSize());
+            HttpHeaders headers = SearchCursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
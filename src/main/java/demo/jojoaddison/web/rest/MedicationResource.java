@@ -1,22 +1,36 @@
 package demo.jojoaddison.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import demo.jojoaddison.domain.Medication;
+import demo.jojoaddison.repository.BulkItemResult;
+import demo.jojoaddison.repository.EntityBulkWriter;
 import demo.jojoaddison.repository.MedicationRepository;
 import demo.jojoaddison.repository.search.MedicationSearchRepository;
+import demo.jojoaddison.repository.search.SearchCursorPage;
+import demo.jojoaddison.service.EntityChangeOutbox;
 import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
 import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import demo.jojoaddison.web.rest.util.NdjsonUtil;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -37,9 +51,24 @@ public class MedicationResource {
 
     private final MedicationSearchRepository medicationSearchRepository;
 
-    public MedicationResource(MedicationRepository medicationRepository, MedicationSearchRepository medicationSearchRepository) {
+    private final EntityBulkWriter entityBulkWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityChangeOutbox entityChangeOutbox;
+
+    public MedicationResource(
+        MedicationRepository medicationRepository,
+        MedicationSearchRepository medicationSearchRepository,
+        EntityBulkWriter entityBulkWriter,
+        ObjectMapper objectMapper,
+        EntityChangeOutbox entityChangeOutbox
+    ) {
         this.medicationRepository = medicationRepository;
         this.medicationSearchRepository = medicationSearchRepository;
+        this.entityBulkWriter = entityBulkWriter;
+        this.objectMapper = objectMapper;
+        this.entityChangeOutbox = entityChangeOutbox;
     }
 
     /**
@@ -49,6 +78,7 @@ public class MedicationResource {
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new medication, or with status {@code 400 (Bad Request)} if the medication has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PostMapping("")
     public ResponseEntity<Medication> createMedication(@RequestBody Medication medication) throws URISyntaxException {
         log.debug("REST request to save Medication : {}", medication);
@@ -56,6 +86,7 @@ public class MedicationResource {
             throw new BadRequestAlertException("A new medication cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Medication result = medicationRepository.save(medication);
+        entityChangeOutbox.created(Medication.class, result.getId());
         medicationSearchRepository.index(result);
         return ResponseEntity
             .created(new URI("/api/medications/" + result.getId()))
@@ -73,6 +104,7 @@ public class MedicationResource {
      * or with status {@code 500 (Internal Server Error)} if the medication couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PutMapping("/{id}")
     public ResponseEntity<Medication> updateMedication(
         @PathVariable(value = "id", required = false) final String id,
@@ -86,11 +118,10 @@ public class MedicationResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!medicationRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Medication result = medicationRepository.save(medication);
+        Medication result = medicationRepository
+            .replaceIfExists(medication)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Medication.class, result.getId());
         medicationSearchRepository.index(result);
         return ResponseEntity
             .ok()
@@ -109,6 +140,7 @@ public class MedicationResource {
      * or with status {@code 500 (Internal Server Error)} if the medication couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Medication> partialUpdateMedication(
         @PathVariable(value = "id", required = false) final String id,
@@ -122,61 +154,96 @@ public class MedicationResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!medicationRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Medication result = medicationRepository
+            .partialUpdate(medication)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Medication.class, result.getId());
+        medicationSearchRepository.index(result);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, medication.getId()))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /medications/_bulk} : Create new medications in one batch.
+     *
+     * @param medications the medications to create, an item with an ID is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkCreateMedications(@RequestBody List<Medication> medications) {
+        log.debug("REST request to save {} Medications", medications.size());
+        List<BulkItemResult> results = entityBulkWriter.insertAll(Medication.class, medications);
+        entityChangeOutbox.recordAll(Medication.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                medicationSearchRepository.index(medications.get(i));
+            }
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
+    /**
+     * {@code PUT  /medications/_bulk} : Updates existing medications in one batch.
+     *
+     * @param medications the medications to update, an item whose ID is unknown is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PutMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpdateMedications(@RequestBody List<Medication> medications) {
+        log.debug("REST request to update {} Medications", medications.size());
+        List<BulkItemResult> results = entityBulkWriter.replaceAll(Medication.class, medications);
+        entityChangeOutbox.recordAll(Medication.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                medicationSearchRepository.index(medications.get(i));
+            }
         }
+        return ResponseEntity.ok().body(results);
+    }
 
-        Optional<Medication> result = medicationRepository
-            .findById(medication.getId())
-            .map(existingMedication -> {
-                if (medication.getName() != null) {
-                    existingMedication.setName(medication.getName());
-                }
-                if (medication.getDescription() != null) {
-                    existingMedication.setDescription(medication.getDescription());
-                }
-                if (medication.getPatientId() != null) {
-                    existingMedication.setPatientId(medication.getPatientId());
-                }
-                if (medication.getPrescription() != null) {
-                    existingMedication.setPrescription(medication.getPrescription());
-                }
-                if (medication.getCreatedDate() != null) {
-                    existingMedication.setCreatedDate(medication.getCreatedDate());
-                }
-                if (medication.getModifiedDate() != null) {
-                    existingMedication.setModifiedDate(medication.getModifiedDate());
-                }
-                if (medication.getCreatedBy() != null) {
-                    existingMedication.setCreatedBy(medication.getCreatedBy());
-                }
-                if (medication.getModifiedBy() != null) {
-                    existingMedication.setModifiedBy(medication.getModifiedBy());
-                }
-
-                return existingMedication;
-            })
-            .map(medicationRepository::save)
-            .map(savedMedication -> {
-                medicationSearchRepository.index(savedMedication);
-                return savedMedication;
-            });
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, medication.getId())
-        );
+    /**
+     * {@code DELETE  /medications/_bulk} : delete the medications with the given ids in one batch.
+     *
+     * @param ids the ids of the medications to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkDeleteMedications(@RequestBody List<String> ids) {
+        log.debug("REST request to delete {} Medications", ids.size());
+        List<BulkItemResult> results = entityBulkWriter.deleteAllById(Medication.class, ids);
+        entityChangeOutbox.recordAll(Medication.class, results);
+        results.stream().filter(BulkItemResult::succeeded).forEach(result -> medicationSearchRepository.deleteFromIndexById(result.id()));
+        return ResponseEntity.ok().body(results);
     }
 
     /**
      * {@code GET  /medications} : get all the medications.
      *
+     * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of medications in body.
      */
     @GetMapping("")
-    public List<Medication> getAllMedications() {
-        log.debug("REST request to get all Medications");
-        return medicationRepository.findAll();
+    public ResponseEntity<List<Medication>> getAllMedications(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of Medications");
+        Page<Medication> page = medicationRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /medications} with {@code Accept: application/x-ndjson} : stream all the medications, one per line.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the medications in body, written as they are read.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllMedications() {
+        log.debug("REST request to stream all Medications");
+        return NdjsonUtil.streamingResponse(objectMapper, medicationRepository.streamAllBy());
     }
 
     /**
@@ -198,10 +265,13 @@ public class MedicationResource {
      * @param id the id of the medication to delete.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
+    @Transactional
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteMedication(@PathVariable("id") String id) {
         log.debug("REST request to delete Medication : {}", id);
-        medicationRepository.deleteById(id);
+        if (medicationRepository.removeById(id) > 0) {
+            entityChangeOutbox.deleted(Medication.class, id);
+        }
         medicationSearchRepository.deleteFromIndexById(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
@@ -211,13 +281,44 @@ public class MedicationResource {
      * to the query.
      *
      * @param query the query of the medication search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<Medication> searchMedications(@RequestParam("query") String query) {
-        log.debug("REST request to search Medications for query {}", query);
+    public ResponseEntity<List<Medication>> searchMedications(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Medications for query {}", query);
+        try {
+            Page<Medication> page = medicationSearchRepository.search(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /medications/_search?query=:query&cursor=:cursor} : walk the medication search results
+     * with a point-in-time cursor, at constant cost per page however deep.
+     *
+     * @param query the query of the medication search.
+     * @param cursor the continuation token of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the page size is used.
+     * @return the result of the search, with the next continuation token in the {@code X-Search-Cursor} header.
+     */
+    @GetMapping(value = "/_search", params = "cursor")
+    public ResponseEntity<List<Medication>> searchMedicationsWithCursor(
+        @RequestParam("query") String query,
+        @RequestParam("cursor") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search Medications with a cursor for query {}", query);
         try {
-            return StreamSupport.stream(medicationSearchRepository.search(query).spliterator(), false).toList();
+            SearchCursorPage<Medication> page = medicationSearchRepository.search(query, cursor, pageable.getPageSize());
+            HttpHeaders headers = SearchCursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
@@ -1,22 +1,36 @@
 package demo.jojoaddison.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import demo.jojoaddison.domain.Membership;
+import demo.jojoaddison.repository.BulkItemResult;
+import demo.jojoaddison.repository.EntityBulkWriter;
 import demo.jojoaddison.repository.MembershipRepository;
 import demo.jojoaddison.repository.search.MembershipSearchRepository;
+import demo.jojoaddison.repository.search.SearchCursorPage;
+import demo.jojoaddison.service.EntityChangeOutbox;
 import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
 import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import demo.jojoaddison.web.rest.util.NdjsonUtil;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -37,9 +51,24 @@ public class MembershipResource {
 
     private final MembershipSearchRepository membershipSearchRepository;
 
-    public MembershipResource(MembershipRepository membershipRepository, MembershipSearchRepository membershipSearchRepository) {
+    private final EntityBulkWriter entityBulkWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityChangeOutbox entityChangeOutbox;
+
+    public MembershipResource(
+        MembershipRepository membershipRepository,
+        MembershipSearchRepository membershipSearchRepository,
+        EntityBulkWriter entityBulkWriter,
+        ObjectMapper objectMapper,
+        EntityChangeOutbox entityChangeOutbox
+    ) {
         this.membershipRepository = membershipRepository;
         this.membershipSearchRepository = membershipSearchRepository;
+        this.entityBulkWriter = entityBulkWriter;
+        this.objectMapper = objectMapper;
+        this.entityChangeOutbox = entityChangeOutbox;
     }
 
     /**
@@ -49,6 +78,7 @@ public class MembershipResource {
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new membership, or with status {@code 400 (Bad Request)} if the membership has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PostMapping("")
     public ResponseEntity<Membership> createMembership(@RequestBody Membership membership) throws URISyntaxException {
         log.debug("REST request to save Membership : {}", membership);
@@ -56,6 +86,7 @@ public class MembershipResource {
             throw new BadRequestAlertException("A new membership cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Membership result = membershipRepository.save(membership);
+        entityChangeOutbox.created(Membership.class, result.getId());
         membershipSearchRepository.index(result);
         return ResponseEntity
             .created(new URI("/api/memberships/" + result.getId()))
@@ -73,6 +104,7 @@ public class MembershipResource {
      * or with status {@code 500 (Internal Server Error)} if the membership couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PutMapping("/{id}")
     public ResponseEntity<Membership> updateMembership(
         @PathVariable(value = "id", required = false) final String id,
@@ -86,11 +118,10 @@ public class MembershipResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!membershipRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Membership result = membershipRepository.save(membership);
+        Membership result = membershipRepository
+            .replaceIfExists(membership)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Membership.class, result.getId());
         membershipSearchRepository.index(result);
         return ResponseEntity
             .ok()
@@ -109,6 +140,7 @@ public class MembershipResource {
      * or with status {@code 500 (Internal Server Error)} if the membership couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Membership> partialUpdateMembership(
         @PathVariable(value = "id", required = false) final String id,
@@ -122,58 +154,96 @@ public class MembershipResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!membershipRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Membership result = membershipRepository
+            .partialUpdate(membership)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Membership.class, result.getId());
+        membershipSearchRepository.index(result);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, membership.getId()))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /memberships/_bulk} : Create new memberships in one batch.
+     *
+     * @param memberships the memberships to create, an item with an ID is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkCreateMemberships(@RequestBody List<Membership> memberships) {
+        log.debug("REST request to save {} Memberships", memberships.size());
+        List<BulkItemResult> results = entityBulkWriter.insertAll(Membership.class, memberships);
+        entityChangeOutbox.recordAll(Membership.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                membershipSearchRepository.index(memberships.get(i));
+            }
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
+    /**
+     * {@code PUT  /memberships/_bulk} : Updates existing memberships in one batch.
+     *
+     * @param memberships the memberships to update, an item whose ID is unknown is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PutMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpdateMemberships(@RequestBody List<Membership> memberships) {
+        log.debug("REST request to update {} Memberships", memberships.size());
+        List<BulkItemResult> results = entityBulkWriter.replaceAll(Membership.class, memberships);
+        entityChangeOutbox.recordAll(Membership.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                membershipSearchRepository.index(memberships.get(i));
+            }
         }
+        return ResponseEntity.ok().body(results);
+    }
 
-        Optional<Membership> result = membershipRepository
-            .findById(membership.getId())
-            .map(existingMembership -> {
-                if (membership.getName() != null) {
-                    existingMembership.setName(membership.getName());
-                }
-                if (membership.getDescription() != null) {
-                    existingMembership.setDescription(membership.getDescription());
-                }
-                if (membership.getStatus() != null) {
-                    existingMembership.setStatus(membership.getStatus());
-                }
-                if (membership.getCreatedDate() != null) {
-                    existingMembership.setCreatedDate(membership.getCreatedDate());
-                }
-                if (membership.getModifiedDate() != null) {
-                    existingMembership.setModifiedDate(membership.getModifiedDate());
-                }
-                if (membership.getCreatedBy() != null) {
-                    existingMembership.setCreatedBy(membership.getCreatedBy());
-                }
-                if (membership.getModifiedBy() != null) {
-                    existingMembership.setModifiedBy(membership.getModifiedBy());
-                }
-
-                return existingMembership;
-            })
-            .map(membershipRepository::save)
-            .map(savedMembership -> {
-                membershipSearchRepository.index(savedMembership);
-                return savedMembership;
-            });
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, membership.getId())
-        );
+    /**
+     * {@code DELETE  /memberships/_bulk} : delete the memberships with the given ids in one batch.
+     *
+     * @param ids the ids of the memberships to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkDeleteMemberships(@RequestBody List<String> ids) {
+        log.debug("REST request to delete {} Memberships", ids.size());
+        List<BulkItemResult> results = entityBulkWriter.deleteAllById(Membership.class, ids);
+        entityChangeOutbox.recordAll(Membership.class, results);
+        results.stream().filter(BulkItemResult::succeeded).forEach(result -> membershipSearchRepository.deleteFromIndexById(result.id()));
+        return ResponseEntity.ok().body(results);
     }
 
     /**
      * {@code GET  /memberships} : get all the memberships.
      *
+     * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of memberships in body.
      */
     @GetMapping("")
-    public List<Membership> getAllMemberships() {
-        log.debug("REST request to get all Memberships");
-        return membershipRepository.findAll();
+    public ResponseEntity<List<Membership>> getAllMemberships(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of Memberships");
+        Page<Membership> page = membershipRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /memberships} with {@code Accept: application/x-ndjson} : stream all the memberships, one per line.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the memberships in body, written as they are read.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllMemberships() {
+        log.debug("REST request to stream all Memberships");
+        return NdjsonUtil.streamingResponse(objectMapper, membershipRepository.streamAllBy());
     }
 
     /**
@@ -195,10 +265,13 @@ public class MembershipResource {
      * @param id the id of the membership to delete.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
+    @Transactional
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteMembership(@PathVariable("id") String id) {
         log.debug("REST request to delete Membership : {}", id);
-        membershipRepository.deleteById(id);
+        if (membershipRepository.removeById(id) > 0) {
+            entityChangeOutbox.deleted(Membership.class, id);
+        }
         membershipSearchRepository.deleteFromIndexById(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
@@ -208,13 +281,44 @@ public class MembershipResource {
      * to the query.
      *
      * @param query the query of the membership search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<Membership> searchMemberships(@RequestParam("query") String query) {
-        log.debug("REST request to search Memberships for query {}", query);
+    public ResponseEntity<List<Membership>> searchMemberships(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Memberships for query {}", query);
+        try {
+            Page<Membership> page = membershipSearchRepository.search(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /memberships/_search?query=:query&cursor=:cursor} : walk the membership search results
+     * with a point-in-time cursor, at constant cost per page however deep.
+     *
+     * @param query the query of the membership search.
+     * @param cursor the continuation token of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the page size is used.
+     * @return the result of the search, with the next continuation token in the {@code X-Search-Cursor} header.
+     */
+    @GetMapping(value = "/_search", params = "cursor")
+    public ResponseEntity<List<Membership>> searchMembershipsWithCursor(
+        @RequestParam("query") String query,
+        @RequestParam("cursor") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search Memberships with a cursor for query {}", query);
         try {
-            return StreamSupport.stream(membershipSearchRepository.search(query).spliterator(), false).toList();
+            SearchCursorPage<Membership> page = membershipSearchRepository.search(query, cursor, pageable.getPageSize());
+            HttpHeaders headers = SearchCursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
@@ -1,22 +1,36 @@
 package demo.jojoaddison.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import demo.jojoaddison.domain.Metadata;
+import demo.jojoaddison.repository.BulkItemResult;
+import demo.jojoaddison.repository.EntityBulkWriter;
 import demo.jojoaddison.repository.MetadataRepository;
 import demo.jojoaddison.repository.search.MetadataSearchRepository;
+import demo.jojoaddison.repository.search.SearchCursorPage;
+import demo.jojoaddison.service.EntityChangeOutbox;
 import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
 import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import demo.jojoaddison.web.rest.util.NdjsonUtil;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -37,9 +51,24 @@ public class MetadataResource {
 
     private final MetadataSearchRepository metadataSearchRepository;
 
-    public MetadataResource(MetadataRepository metadataRepository, MetadataSearchRepository metadataSearchRepository) {
+    private final EntityBulkWriter entityBulkWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityChangeOutbox entityChangeOutbox;
+
+    public MetadataResource(
+        MetadataRepository metadataRepository,
+        MetadataSearchRepository metadataSearchRepository,
+        EntityBulkWriter entityBulkWriter,
+        ObjectMapper objectMapper,
+        EntityChangeOutbox entityChangeOutbox
+    ) {
         this.metadataRepository = metadataRepository;
         this.metadataSearchRepository = metadataSearchRepository;
+        this.entityBulkWriter = entityBulkWriter;
+        this.objectMapper = objectMapper;
+        this.entityChangeOutbox = entityChangeOutbox;
     }
 
     /**
@@ -49,6 +78,7 @@ public class MetadataResource {
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new metadata, or with status {@code 400 (Bad Request)} if the metadata has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PostMapping("")
     public ResponseEntity<Metadata> createMetadata(@RequestBody Metadata metadata) throws URISyntaxException {
         log.debug("REST request to save Metadata : {}", metadata);
@@ -56,6 +86,7 @@ public class MetadataResource {
             throw new BadRequestAlertException("A new metadata cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Metadata result = metadataRepository.save(metadata);
+        entityChangeOutbox.created(Metadata.class, result.getId());
         metadataSearchRepository.index(result);
         return ResponseEntity
             .created(new URI("/api/metadata/" + result.getId()))
@@ -73,6 +104,7 @@ public class MetadataResource {
      * or with status {@code 500 (Internal Server Error)} if the metadata couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PutMapping("/{id}")
     public ResponseEntity<Metadata> updateMetadata(
         @PathVariable(value = "id", required = false) final String id,
@@ -86,11 +118,10 @@ public class MetadataResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!metadataRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Metadata result = metadataRepository.save(metadata);
+        Metadata result = metadataRepository
+            .replaceIfExists(metadata)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Metadata.class, result.getId());
         metadataSearchRepository.index(result);
         return ResponseEntity
             .ok()
@@ -109,6 +140,7 @@ public class MetadataResource {
      * or with status {@code 500 (Internal Server Error)} if the metadata couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Metadata> partialUpdateMetadata(
         @PathVariable(value = "id", required = false) final String id,
@@ -122,52 +154,96 @@ public class MetadataResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!metadataRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Metadata result = metadataRepository
+            .partialUpdate(metadata)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Metadata.class, result.getId());
+        metadataSearchRepository.index(result);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, metadata.getId()))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /metadata/_bulk} : Create new metadata in one batch.
+     *
+     * @param metadata the metadata to create, an item with an ID is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkCreateMetadata(@RequestBody List<Metadata> metadata) {
+        log.debug("REST request to save {} Metadata", metadata.size());
+        List<BulkItemResult> results = entityBulkWriter.insertAll(Metadata.class, metadata);
+        entityChangeOutbox.recordAll(Metadata.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                metadataSearchRepository.index(metadata.get(i));
+            }
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
+    /**
+     * {@code PUT  /metadata/_bulk} : Updates existing metadata in one batch.
+     *
+     * @param metadata the metadata to update, an item whose ID is unknown is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PutMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpdateMetadata(@RequestBody List<Metadata> metadata) {
+        log.debug("REST request to update {} Metadata", metadata.size());
+        List<BulkItemResult> results = entityBulkWriter.replaceAll(Metadata.class, metadata);
+        entityChangeOutbox.recordAll(Metadata.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                metadataSearchRepository.index(metadata.get(i));
+            }
         }
+        return ResponseEntity.ok().body(results);
+    }
 
-        Optional<Metadata> result = metadataRepository
-            .findById(metadata.getId())
-            .map(existingMetadata -> {
-                if (metadata.getCreatedBy() != null) {
-                    existingMetadata.setCreatedBy(metadata.getCreatedBy());
-                }
-                if (metadata.getModifiedBy() != null) {
-                    existingMetadata.setModifiedBy(metadata.getModifiedBy());
-                }
-                if (metadata.getCreatedDate() != null) {
-                    existingMetadata.setCreatedDate(metadata.getCreatedDate());
-                }
-                if (metadata.getModifiedDate() != null) {
-                    existingMetadata.setModifiedDate(metadata.getModifiedDate());
-                }
-                if (metadata.getData() != null) {
-                    existingMetadata.setData(metadata.getData());
-                }
-
-                return existingMetadata;
-            })
-            .map(metadataRepository::save)
-            .map(savedMetadata -> {
-                metadataSearchRepository.index(savedMetadata);
-                return savedMetadata;
-            });
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, metadata.getId())
-        );
+    /**
+     * {@code DELETE  /metadata/_bulk} : delete the metadata with the given ids in one batch.
+     *
+     * @param ids the ids of the metadata to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkDeleteMetadata(@RequestBody List<String> ids) {
+        log.debug("REST request to delete {} Metadata", ids.size());
+        List<BulkItemResult> results = entityBulkWriter.deleteAllById(Metadata.class, ids);
+        entityChangeOutbox.recordAll(Metadata.class, results);
+        results.stream().filter(BulkItemResult::succeeded).forEach(result -> metadataSearchRepository.deleteFromIndexById(result.id()));
+        return ResponseEntity.ok().body(results);
     }
 
     /**
      * {@code GET  /metadata} : get all the metadata.
      *
+     * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of metadata in body.
      */
     @GetMapping("")
-    public List<Metadata> getAllMetadata() {
-        log.debug("REST request to get all Metadata");
-        return metadataRepository.findAll();
+    public ResponseEntity<List<Metadata>> getAllMetadata(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of Metadata");
+        Page<Metadata> page = metadataRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /metadata} with {@code Accept: application/x-ndjson} : stream all the metadata, one per line.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the metadata in body, written as they are read.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllMetadata() {
+        log.debug("REST request to stream all Metadata");
+        return NdjsonUtil.streamingResponse(objectMapper, metadataRepository.streamAllBy());
     }
 
     /**
@@ -189,10 +265,13 @@ public class MetadataResource {
      * @param id the id of the metadata to delete.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
+    @Transactional
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteMetadata(@PathVariable("id") String id) {
         log.debug("REST request to delete Metadata : {}", id);
-        metadataRepository.deleteById(id);
+        if (metadataRepository.removeById(id) > 0) {
+            entityChangeOutbox.deleted(Metadata.class, id);
+        }
         metadataSearchRepository.deleteFromIndexById(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
@@ -202,13 +281,44 @@ public class MetadataResource {
      * to the query.
      *
      * @param query the query of the metadata search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<Metadata> searchMetadata(@RequestParam("query") String query) {
-        log.debug("REST request to search Metadata for query {}", query);
+    public ResponseEntity<List<Metadata>> searchMetadata(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Metadata for query {}", query);
+        try {
+            Page<Metadata> page = metadataSearchRepository.search(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /metadata/_search?query=:query&cursor=:cursor} : walk the metadata search results
+     * with a point-in-time cursor, at constant cost per page however deep.
+     *
+     * @param query the query of the metadata search.
+     * @param cursor the continuation token of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the page size is used.
+     * @return the result of the search, with the next continuation token in the {@code X-Search-Cursor} header.
+     */
+    @GetMapping(value = "/_search", params = "cursor")
+    public ResponseEntity<List<Metadata>> searchMetadataWithCursor(
+        @RequestParam("query") String query,
+        @RequestParam("cursor") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search Metadata with a cursor for query {}", query);
         try {
-            return StreamSupport.stream(metadataSearchRepository.search(query).spliterator(), false).toList();
+            SearchCursorPage<Metadata> page = metadataSearchRepository.search(query, cursor, pageable.getPageSize());
+            HttpHeaders headers = SearchCursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
@@ -0,0 +1,61 @@
+package demo.jojoaddison.web.rest;
+
+import demo.jojoaddison.service.PatientTimelineService;
+import demo.jojoaddison.service.dto.TimelineEntryDTO;
+import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
+import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * REST controller for the timeline of a patient.
+ */
+@RestController
+@RequestMapping("/api/patients")
+public class PatientTimelineResource {
+
+    private static final String ENTITY_NAME = "patientTimeline";
+
+    private final Logger log = LoggerFactory.getLogger(PatientTimelineResource.class);
+
+    private final PatientTimelineService patientTimelineService;
+
+    public PatientTimelineResource(PatientTimelineService patientTimelineService) {
+        this.patientTimelineService = patientTimelineService;
+    }
+
+    /**
+     * {@code GET  /patients/:id/timeline} : get the conditions, medications, reports, stats and tasks of the "id"
+     * patient, most recent first.
+     *
+     * @param id the id of the patient.
+     * @param pageable the pagination information, entries are always sorted by creation date.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of timeline entries in body.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the page ends beyond the first
+     * {@link PatientTimelineService#MAX_RESULT_WINDOW} entries.
+     */
+    @GetMapping("/{id}/timeline")
+    public ResponseEntity<List<TimelineEntryDTO>> getPatientTimeline(
+        @PathVariable("id") String id,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of the timeline of patient : {}", id);
+        try {
+            Page<TimelineEntryDTO> page = patientTimelineService.findTimeline(id, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Page beyond the timeline window", ENTITY_NAME, "pagetoodeep");
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+}
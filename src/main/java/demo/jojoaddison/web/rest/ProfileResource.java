@@ -1,22 +1,36 @@
 package demo.jojoaddison.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import demo.jojoaddison.domain.Profile;
-import demo.jojoaddison.repository.ProfileRepository;
+import demo.jojoaddison.repository.BulkItemResult;
+import demo.jojoaddison.repository.UnknownFieldException;
+import demo.jojoaddison.repository.search.SearchCursorPage;
 import demo.jojoaddison.service.ProfileService;
 import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
 import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import demo.jojoaddison.web.rest.util.NdjsonUtil;
+import demo.jojoaddison.web.rest.util.ProjectionUtil;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -35,11 +49,11 @@ public class ProfileResource {
 
     private final ProfileService profileService;
 
-    private final ProfileRepository profileRepository;
+    private final ObjectMapper objectMapper;
 
-    public ProfileResource(ProfileService profileService, ProfileRepository profileRepository) {
+    public ProfileResource(ProfileService profileService, ObjectMapper objectMapper) {
         this.profileService = profileService;
-        this.profileRepository = profileRepository;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -85,11 +99,9 @@ public class ProfileResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!profileRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Profile result = profileService.update(profile);
+        Profile result = profileService
+            .update(profile)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, profile.getId()))
@@ -120,27 +132,97 @@ public class ProfileResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!profileRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Profile result = profileService
+            .partialUpdate(profile)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, profile.getId()))
+            .body(result);
+    }
 
-        Optional<Profile> result = profileService.partialUpdate(profile);
+    /**
+     * {@code POST  /profiles/_bulk} : Create new profiles in one batch.
+     *
+     * @param profiles the profiles to create, an item with an ID is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkCreateProfiles(@RequestBody List<Profile> profiles) {
+        log.debug("REST request to save {} Profiles", profiles.size());
+        return ResponseEntity.ok().body(profileService.saveAll(profiles));
+    }
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, profile.getId())
-        );
+    /**
+     * {@code PUT  /profiles/_bulk} : Updates existing profiles in one batch.
+     *
+     * @param profiles the profiles to update, an item whose ID is unknown is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @PutMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpdateProfiles(@RequestBody List<Profile> profiles) {
+        log.debug("REST request to update {} Profiles", profiles.size());
+        return ResponseEntity.ok().body(profileService.updateAll(profiles));
+    }
+
+    /**
+     * {@code DELETE  /profiles/_bulk} : delete the profiles with the given ids in one batch.
+     *
+     * @param ids the ids of the profiles to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkDeleteProfiles(@RequestBody List<String> ids) {
+        log.debug("REST request to delete {} Profiles", ids.size());
+        return ResponseEntity.ok().body(profileService.deleteAll(ids));
     }
 
     /**
      * {@code GET  /profiles} : get all the profiles.
      *
+     * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of profiles in body.
      */
     @GetMapping("")
-    public List<Profile> getAllProfiles() {
-        log.debug("REST request to get all Profiles");
-        return profileService.findAll();
+    public ResponseEntity<List<Profile>> getAllProfiles(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of Profiles");
+        Page<Profile> page = profileService.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /profiles?fields=:fields} : get all the profiles, with only the given fields.
+     *
+     * @param fields the names of the fields to return, the id is always returned.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of partial profiles in body,
+     * or with status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "", params = "fields")
+    public ResponseEntity<List<ObjectNode>> getAllProfilesWithFields(
+        @RequestParam("fields") Set<String> fields,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of Profiles with fields {}", fields);
+        try {
+            Page<Profile> page = profileService.findAll(fields, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(ProjectionUtil.retainFields(objectMapper, page.getContent(), fields));
+        } catch (UnknownFieldException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "fieldunknown");
+        }
+    }
+
+    /**
+     * {@code GET  /profiles} with {@code Accept: application/x-ndjson} : stream all the profiles, one per line.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the profiles in body, written as they are read.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProfiles() {
+        log.debug("REST request to stream all Profiles");
+        return NdjsonUtil.streamingResponse(objectMapper, profileService.streamAll());
     }
 
     /**
@@ -174,13 +256,71 @@ public class ProfileResource {
      * to the query.
      *
      * @param query the query of the profile search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<Profile> searchProfiles(@RequestParam("query") String query) {
-        log.debug("REST request to search Profiles for query {}", query);
+    public ResponseEntity<List<Profile>> searchProfiles(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Profiles for query {}", query);
+        try {
+            Page<Profile> page = profileService.search(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /profiles/_search?query=:query&fields=:fields} : search for the profile corresponding
+     * to the query, with only the given fields.
+     *
+     * @param query the query of the profile search.
+     * @param fields the names of the fields to return, the id is always returned.
+     * @param pageable the pagination information.
+     * @return the result of the search.
+     */
+    @GetMapping(value = "/_search", params = { "fields", "!cursor" })
+    public ResponseEntity<List<ObjectNode>> searchProfilesWithFields(
+        @RequestParam("query") String query,
+        @RequestParam("fields") Set<String> fields,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Profiles for query {} with fields {}", query, fields);
+        try {
+            Page<Profile> page = profileService.search(query, fields, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(ProjectionUtil.retainFields(objectMapper, page.getContent(), fields));
+        } catch (UnknownFieldException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "fieldunknown");
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /profiles/_search?query=:query&cursor=:cursor} : walk the profile search results
+     * with a point-in-time cursor, at constant cost per page however deep.
+     *
+     * @param query the query of the profile search.
+     * @param cursor the continuation token of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the page size is used.
+     * @return the result of the search, with the next continuation token in the {@code X-Search-Cursor} header.
+     */
+    @GetMapping(value = "/_search", params = "cursor")
+    public ResponseEntity<List<Profile>> searchProfilesWithCursor(
+        @RequestParam("query") String query,
+        @RequestParam("cursor") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search Profiles with a cursor for query {}", query);
         try {
-            return profileService.search(query);
+            SearchCursorPage<Profile> page = profileService.search(query, cursor, pageable.getPageSize());
+            HttpHeaders headers = SearchCursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
@@ -1,22 +1,36 @@
 package demo.jojoaddison.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import demo.jojoaddison.domain.Report;
+import demo.jojoaddison.repository.BulkItemResult;
+import demo.jojoaddison.repository.EntityBulkWriter;
 import demo.jojoaddison.repository.ReportRepository;
 import demo.jojoaddison.repository.search.ReportSearchRepository;
+import demo.jojoaddison.repository.search.SearchCursorPage;
+import demo.jojoaddison.service.EntityChangeOutbox;
 import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
 import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import demo.jojoaddison.web.rest.util.NdjsonUtil;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -37,9 +51,24 @@ public class ReportResource {
 
     private final ReportSearchRepository reportSearchRepository;
 
-    public ReportResource(ReportRepository reportRepository, ReportSearchRepository reportSearchRepository) {
+    private final EntityBulkWriter entityBulkWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityChangeOutbox entityChangeOutbox;
+
+    public ReportResource(
+        ReportRepository reportRepository,
+        ReportSearchRepository reportSearchRepository,
+        EntityBulkWriter entityBulkWriter,
+        ObjectMapper objectMapper,
+        EntityChangeOutbox entityChangeOutbox
+    ) {
         this.reportRepository = reportRepository;
         this.reportSearchRepository = reportSearchRepository;
+        this.entityBulkWriter = entityBulkWriter;
+        this.objectMapper = objectMapper;
+        this.entityChangeOutbox = entityChangeOutbox;
     }
 
     /**
@@ -49,6 +78,7 @@ public class ReportResource {
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new report, or with status {@code 400 (Bad Request)} if the report has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PostMapping("")
     public ResponseEntity<Report> createReport(@RequestBody Report report) throws URISyntaxException {
         log.debug("REST request to save Report : {}", report);
@@ -56,6 +86,7 @@ public class ReportResource {
             throw new BadRequestAlertException("A new report cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Report result = reportRepository.save(report);
+        entityChangeOutbox.created(Report.class, result.getId());
         reportSearchRepository.index(result);
         return ResponseEntity
             .created(new URI("/api/reports/" + result.getId()))
@@ -73,6 +104,7 @@ public class ReportResource {
      * or with status {@code 500 (Internal Server Error)} if the report couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PutMapping("/{id}")
     public ResponseEntity<Report> updateReport(@PathVariable(value = "id", required = false) final String id, @RequestBody Report report)
         throws URISyntaxException {
@@ -84,11 +116,10 @@ public class ReportResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!reportRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Report result = reportRepository.save(report);
+        Report result = reportRepository
+            .replaceIfExists(report)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Report.class, result.getId());
         reportSearchRepository.index(result);
         return ResponseEntity
             .ok()
@@ -107,6 +138,7 @@ public class ReportResource {
      * or with status {@code 500 (Internal Server Error)} if the report couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Report> partialUpdateReport(
         @PathVariable(value = "id", required = false) final String id,
@@ -120,61 +152,96 @@ public class ReportResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!reportRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Report result = reportRepository
+            .partialUpdate(report)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Report.class, result.getId());
+        reportSearchRepository.index(result);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, report.getId()))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /reports/_bulk} : Create new reports in one batch.
+     *
+     * @param reports the reports to create, an item with an ID is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkCreateReports(@RequestBody List<Report> reports) {
+        log.debug("REST request to save {} Reports", reports.size());
+        List<BulkItemResult> results = entityBulkWriter.insertAll(Report.class, reports);
+        entityChangeOutbox.recordAll(Report.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                reportSearchRepository.index(reports.get(i));
+            }
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
+    /**
+     * {@code PUT  /reports/_bulk} : Updates existing reports in one batch.
+     *
+     * @param reports the reports to update, an item whose ID is unknown is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PutMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpdateReports(@RequestBody List<Report> reports) {
+        log.debug("REST request to update {} Reports", reports.size());
+        List<BulkItemResult> results = entityBulkWriter.replaceAll(Report.class, reports);
+        entityChangeOutbox.recordAll(Report.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                reportSearchRepository.index(reports.get(i));
+            }
         }
+        return ResponseEntity.ok().body(results);
+    }
 
-        Optional<Report> result = reportRepository
-            .findById(report.getId())
-            .map(existingReport -> {
-                if (report.getCategory() != null) {
-                    existingReport.setCategory(report.getCategory());
-                }
-                if (report.getDescription() != null) {
-                    existingReport.setDescription(report.getDescription());
-                }
-                if (report.getName() != null) {
-                    existingReport.setName(report.getName());
-                }
-                if (report.getUrl() != null) {
-                    existingReport.setUrl(report.getUrl());
-                }
-                if (report.getPatientId() != null) {
-                    existingReport.setPatientId(report.getPatientId());
-                }
-                if (report.getCreatedDate() != null) {
-                    existingReport.setCreatedDate(report.getCreatedDate());
-                }
-                if (report.getModifiedDate() != null) {
-                    existingReport.setModifiedDate(report.getModifiedDate());
-                }
-                if (report.getCreatedBy() != null) {
-                    existingReport.setCreatedBy(report.getCreatedBy());
-                }
-                if (report.getModifiedBy() != null) {
-                    existingReport.setModifiedBy(report.getModifiedBy());
-                }
-
-                return existingReport;
-            })
-            .map(reportRepository::save)
-            .map(savedReport -> {
-                reportSearchRepository.index(savedReport);
-                return savedReport;
-            });
-
-        return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, report.getId()));
+    /**
+     * {@code DELETE  /reports/_bulk} : delete the reports with the given ids in one batch.
+     *
+     * @param ids the ids of the reports to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkDeleteReports(@RequestBody List<String> ids) {
+        log.debug("REST request to delete {} Reports", ids.size());
+        List<BulkItemResult> results = entityBulkWriter.deleteAllById(Report.class, ids);
+        entityChangeOutbox.recordAll(Report.class, results);
+        results.stream().filter(BulkItemResult::succeeded).forEach(result -> reportSearchRepository.deleteFromIndexById(result.id()));
+        return ResponseEntity.ok().body(results);
     }
 
     /**
      * {@code GET  /reports} : get all the reports.
      *
+     * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of reports in body.
      */
     @GetMapping("")
-    public List<Report> getAllReports() {
-        log.debug("REST request to get all Reports");
-        return reportRepository.findAll();
+    public ResponseEntity<List<Report>> getAllReports(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of Reports");
+        Page<Report> page = reportRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /reports} with {@code Accept: application/x-ndjson} : stream all the reports, one per line.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the reports in body, written as they are read.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllReports() {
+        log.debug("REST request to stream all Reports");
+        return NdjsonUtil.streamingResponse(objectMapper, reportRepository.streamAllBy());
     }
 
     /**
@@ -196,10 +263,13 @@ public class ReportResource {
      * @param id the id of the report to delete.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
+    @Transactional
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteReport(@PathVariable("id") String id) {
         log.debug("REST request to delete Report : {}", id);
-        reportRepository.deleteById(id);
+        if (reportRepository.removeById(id) > 0) {
+            entityChangeOutbox.deleted(Report.class, id);
+        }
         reportSearchRepository.deleteFromIndexById(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
@@ -209,13 +279,44 @@ public class ReportResource {
      * to the query.
      *
      * @param query the query of the report search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<Report> searchReports(@RequestParam("query") String query) {
-        log.debug("REST request to search Reports for query {}", query);
+    public ResponseEntity<List<Report>> searchReports(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Reports for query {}", query);
+        try {
+            Page<Report> page = reportSearchRepository.search(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /reports/_search?query=:query&cursor=:cursor} : walk the report search results
+     * with a point-in-time cursor, at constant cost per page however deep.
+     *
+     * @param query the query of the report search.
+     * @param cursor the continuation token of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the page size is used.
+     * @return the result of the search, with the next continuation token in the {@code X-Search-Cursor} header.
+     */
+    @GetMapping(value = "/_search", params = "cursor")
+    public ResponseEntity<List<Report>> searchReportsWithCursor(
+        @RequestParam("query") String query,
+        @RequestParam("cursor") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search Reports with a cursor for query {}", query);
         try {
-            return StreamSupport.stream(reportSearchRepository.search(query).spliterator(), false).toList();
+            SearchCursorPage<Report> page = reportSearchRepository.search(query, cursor, pageable.getPageSize());
+            HttpHeaders headers = SearchCursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
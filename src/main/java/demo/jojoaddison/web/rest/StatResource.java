@@ -1,22 +1,36 @@
 package demo.jojoaddison.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import demo.jojoaddison.domain.Stat;
+import demo.jojoaddison.repository.BulkItemResult;
+import demo.jojoaddison.repository.EntityBulkWriter;
 import demo.jojoaddison.repository.StatRepository;
+import demo.jojoaddison.repository.search.SearchCursorPage;
 import demo.jojoaddison.repository.search.StatSearchRepository;
+import demo.jojoaddison.service.EntityChangeOutbox;
 import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
 import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import demo.jojoaddison.web.rest.util.NdjsonUtil;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -37,9 +51,24 @@ public class StatResource {
 
     private final StatSearchRepository statSearchRepository;
 
-    public StatResource(StatRepository statRepository, StatSearchRepository statSearchRepository) {
+    private final EntityBulkWriter entityBulkWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityChangeOutbox entityChangeOutbox;
+
+    public StatResource(
+        StatRepository statRepository,
+        StatSearchRepository statSearchRepository,
+        EntityBulkWriter entityBulkWriter,
+        ObjectMapper objectMapper,
+        EntityChangeOutbox entityChangeOutbox
+    ) {
         this.statRepository = statRepository;
         this.statSearchRepository = statSearchRepository;
+        this.entityBulkWriter = entityBulkWriter;
+        this.objectMapper = objectMapper;
+        this.entityChangeOutbox = entityChangeOutbox;
     }
 
     /**
@@ -49,6 +78,7 @@ public class StatResource {
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new stat, or with status {@code 400 (Bad Request)} if the stat has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PostMapping("")
     public ResponseEntity<Stat> createStat(@RequestBody Stat stat) throws URISyntaxException {
         log.debug("REST request to save Stat : {}", stat);
@@ -56,6 +86,7 @@ public class StatResource {
             throw new BadRequestAlertException("A new stat cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Stat result = statRepository.save(stat);
+        entityChangeOutbox.created(Stat.class, result.getId());
         statSearchRepository.index(result);
         return ResponseEntity
             .created(new URI("/api/stats/" + result.getId()))
@@ -73,6 +104,7 @@ public class StatResource {
      * or with status {@code 500 (Internal Server Error)} if the stat couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PutMapping("/{id}")
     public ResponseEntity<Stat> updateStat(@PathVariable(value = "id", required = false) final String id, @RequestBody Stat stat)
         throws URISyntaxException {
@@ -84,11 +116,10 @@ public class StatResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!statRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Stat result = statRepository.save(stat);
+        Stat result = statRepository
+            .replaceIfExists(stat)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Stat.class, result.getId());
         statSearchRepository.index(result);
         return ResponseEntity
             .ok()
@@ -107,6 +138,7 @@ public class StatResource {
      * or with status {@code 500 (Internal Server Error)} if the stat couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Stat> partialUpdateStat(@PathVariable(value = "id", required = false) final String id, @RequestBody Stat stat)
         throws URISyntaxException {
@@ -118,58 +150,96 @@ public class StatResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!statRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Stat result = statRepository
+            .partialUpdate(stat)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Stat.class, result.getId());
+        statSearchRepository.index(result);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, stat.getId()))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /stats/_bulk} : Create new stats in one batch.
+     *
+     * @param stats the stats to create, an item with an ID is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkCreateStats(@RequestBody List<Stat> stats) {
+        log.debug("REST request to save {} Stats", stats.size());
+        List<BulkItemResult> results = entityBulkWriter.insertAll(Stat.class, stats);
+        entityChangeOutbox.recordAll(Stat.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                statSearchRepository.index(stats.get(i));
+            }
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
+    /**
+     * {@code PUT  /stats/_bulk} : Updates existing stats in one batch.
+     *
+     * @param stats the stats to update, an item whose ID is unknown is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PutMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpdateStats(@RequestBody List<Stat> stats) {
+        log.debug("REST request to update {} Stats", stats.size());
+        List<BulkItemResult> results = entityBulkWriter.replaceAll(Stat.class, stats);
+        entityChangeOutbox.recordAll(Stat.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                statSearchRepository.index(stats.get(i));
+            }
         }
+        return ResponseEntity.ok().body(results);
+    }
 
-        Optional<Stat> result = statRepository
-            .findById(stat.getId())
-            .map(existingStat -> {
-                if (stat.getType() != null) {
-                    existingStat.setType(stat.getType());
-                }
-                if (stat.getName() != null) {
-                    existingStat.setName(stat.getName());
-                }
-                if (stat.getDescription() != null) {
-                    existingStat.setDescription(stat.getDescription());
-                }
-                if (stat.getValue() != null) {
-                    existingStat.setValue(stat.getValue());
-                }
-                if (stat.getNote() != null) {
-                    existingStat.setNote(stat.getNote());
-                }
-                if (stat.getPatientId() != null) {
-                    existingStat.setPatientId(stat.getPatientId());
-                }
-                if (stat.getCreatedDate() != null) {
-                    existingStat.setCreatedDate(stat.getCreatedDate());
-                }
-                if (stat.getCreatedBy() != null) {
-                    existingStat.setCreatedBy(stat.getCreatedBy());
-                }
-
-                return existingStat;
-            })
-            .map(statRepository::save)
-            .map(savedStat -> {
-                statSearchRepository.index(savedStat);
-                return savedStat;
-            });
-
-        return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, stat.getId()));
+    /**
+     * {@code DELETE  /stats/_bulk} : delete the stats with the given ids in one batch.
+     *
+     * @param ids the ids of the stats to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkDeleteStats(@RequestBody List<String> ids) {
+        log.debug("REST request to delete {} Stats", ids.size());
+        List<BulkItemResult> results = entityBulkWriter.deleteAllById(Stat.class, ids);
+        entityChangeOutbox.recordAll(Stat.class, results);
+        results.stream().filter(BulkItemResult::succeeded).forEach(result -> statSearchRepository.deleteFromIndexById(result.id()));
+        return ResponseEntity.ok().body(results);
     }
 
     /**
      * {@code GET  /stats} : get all the stats.
      *
+     * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of stats in body.
      */
     @GetMapping("")
-    public List<Stat> getAllStats() {
-        log.debug("REST request to get all Stats");
-        return statRepository.findAll();
+    public ResponseEntity<List<Stat>> getAllStats(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of Stats");
+        Page<Stat> page = statRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /stats} with {@code Accept: application/x-ndjson} : stream all the stats, one per line.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the stats in body, written as they are read.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllStats() {
+        log.debug("REST request to stream all Stats");
+        return NdjsonUtil.streamingResponse(objectMapper, statRepository.streamAllBy());
     }
 
     /**
@@ -191,10 +261,13 @@ public class StatResource {
      * @param id the id of the stat to delete.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
+    @Transactional
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteStat(@PathVariable("id") String id) {
         log.debug("REST request to delete Stat : {}", id);
-        statRepository.deleteById(id);
+        if (statRepository.removeById(id) > 0) {
+            entityChangeOutbox.deleted(Stat.class, id);
+        }
         statSearchRepository.deleteFromIndexById(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
@@ -204,13 +277,61 @@ public class StatResource {
      * to the query.
      *
      * @param query the query of the stat search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<Stat> searchStats(@RequestParam("query") String query) {
-        log.debug("REST request to search Stats for query {}", query);
+    public ResponseEntity<List<Stat>> searchStats(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Stats for query {}", query);
+        try {
+            Page<Stat> page = statSearchRepository.search(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /stats/_search?query=:query&cursor=:cursor} : walk the stat search results
+     * with a point-in-time cursor, at constant cost per page however deep.
+     *
+     * @param query the query of the stat search.
+     * @param cursor the continuation token of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the page size is used.
+     * @return the result of the search, with the next continuation token in the {@code X-Search-Cursor} header.
+     */
+    @GetMapping(value = "/_search", params = "cursor")
+    public ResponseEntity<List<Stat>> searchStatsWithCursor(
+        @RequestParam("query") String query,
+        @RequestParam("cursor") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search Stats with a cursor for query {}", query);
+        try {
+            SearchCursorPage<Stat> page = statSearchRepository.search(query, cursor, pageable.getPageSize());
+            HttpHeaders headers = SearchCursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code GET  /stats/_export?query=:query} : stream every stat corresponding to the query
+     * as newline-delimited JSON, scrolling through the index so memory stays flat whatever the result size.
+     *
+     * @param query the query of the stat search.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the matching stats, one per line.
+     */
+    @GetMapping(value = "/_export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportStats(@RequestParam("query") String query) {
+        log.debug("REST request to export Stats for query {}", query);
         try {
-            return StreamSupport.stream(statSearchRepository.search(query).spliterator(), false).toList();
+            return NdjsonUtil.streamingResponse(objectMapper, statSearchRepository.searchForStream(query));
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
@@ -1,22 +1,41 @@
 package demo.jojoaddison.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import demo.jojoaddison.domain.Task;
+import demo.jojoaddison.repository.BulkItemResult;
+import demo.jojoaddison.repository.EntityBulkWriter;
+import demo.jojoaddison.repository.FieldProjectionReader;
 import demo.jojoaddison.repository.TaskRepository;
+import demo.jojoaddison.repository.UnknownFieldException;
+import demo.jojoaddison.repository.search.SearchCursorPage;
 import demo.jojoaddison.repository.search.TaskSearchRepository;
+import demo.jojoaddison.service.EntityChangeOutbox;
 import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
 import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import demo.jojoaddison.web.rest.util.NdjsonUtil;
+import demo.jojoaddison.web.rest.util.ProjectionUtil;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -37,9 +56,28 @@ public class TaskResource {
 
     private final TaskSearchRepository taskSearchRepository;
 
-    public TaskResource(TaskRepository taskRepository, TaskSearchRepository taskSearchRepository) {
+    private final EntityBulkWriter entityBulkWriter;
+
+    private final FieldProjectionReader fieldProjectionReader;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityChangeOutbox entityChangeOutbox;
+
+    public TaskResource(
+        TaskRepository taskRepository,
+        TaskSearchRepository taskSearchRepository,
+        EntityBulkWriter entityBulkWriter,
+        FieldProjectionReader fieldProjectionReader,
+        ObjectMapper objectMapper,
+        EntityChangeOutbox entityChangeOutbox
+    ) {
         this.taskRepository = taskRepository;
         this.taskSearchRepository = taskSearchRepository;
+        this.entityBulkWriter = entityBulkWriter;
+        this.fieldProjectionReader = fieldProjectionReader;
+        this.objectMapper = objectMapper;
+        this.entityChangeOutbox = entityChangeOutbox;
     }
 
     /**
@@ -49,6 +87,7 @@ public class TaskResource {
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new task, or with status {@code 400 (Bad Request)} if the task has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PostMapping("")
     public ResponseEntity<Task> createTask(@RequestBody Task task) throws URISyntaxException {
         log.debug("REST request to save Task : {}", task);
@@ -56,6 +95,7 @@ public class TaskResource {
             throw new BadRequestAlertException("A new task cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Task result = taskRepository.save(task);
+        entityChangeOutbox.created(Task.class, result.getId());
         taskSearchRepository.index(result);
         return ResponseEntity
             .created(new URI("/api/tasks/" + result.getId()))
@@ -73,6 +113,7 @@ public class TaskResource {
      * or with status {@code 500 (Internal Server Error)} if the task couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PutMapping("/{id}")
     public ResponseEntity<Task> updateTask(@PathVariable(value = "id", required = false) final String id, @RequestBody Task task)
         throws URISyntaxException {
@@ -84,11 +125,10 @@ public class TaskResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!taskRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Task result = taskRepository.save(task);
+        Task result = taskRepository
+            .replaceIfExists(task)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Task.class, result.getId());
         taskSearchRepository.index(result);
         return ResponseEntity
             .ok()
@@ -107,6 +147,7 @@ public class TaskResource {
      * or with status {@code 500 (Internal Server Error)} if the task couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Task> partialUpdateTask(@PathVariable(value = "id", required = false) final String id, @RequestBody Task task)
         throws URISyntaxException {
@@ -118,70 +159,119 @@ public class TaskResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!taskRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Task result = taskRepository
+            .partialUpdate(task)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Task.class, result.getId());
+        taskSearchRepository.index(result);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, task.getId()))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /tasks/_bulk} : Create new tasks in one batch.
+     *
+     * @param tasks the tasks to create, an item with an ID is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkCreateTasks(@RequestBody List<Task> tasks) {
+        log.debug("REST request to save {} Tasks", tasks.size());
+        List<BulkItemResult> results = entityBulkWriter.insertAll(Task.class, tasks);
+        entityChangeOutbox.recordAll(Task.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                taskSearchRepository.index(tasks.get(i));
+            }
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
+    /**
+     * {@code PUT  /tasks/_bulk} : Updates existing tasks in one batch.
+     *
+     * @param tasks the tasks to update, an item whose ID is unknown is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PutMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpdateTasks(@RequestBody List<Task> tasks) {
+        log.debug("REST request to update {} Tasks", tasks.size());
+        List<BulkItemResult> results = entityBulkWriter.replaceAll(Task.class, tasks);
+        entityChangeOutbox.recordAll(Task.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                taskSearchRepository.index(tasks.get(i));
+            }
         }
+        return ResponseEntity.ok().body(results);
+    }
 
-        Optional<Task> result = taskRepository
-            .findById(task.getId())
-            .map(existingTask -> {
-                if (task.getName() != null) {
-                    existingTask.setName(task.getName());
-                }
-                if (task.getDescription() != null) {
-                    existingTask.setDescription(task.getDescription());
-                }
-                if (task.getSchedule() != null) {
-                    existingTask.setSchedule(task.getSchedule());
-                }
-                if (task.getDuration() != null) {
-                    existingTask.setDuration(task.getDuration());
-                }
-                if (task.getAttendantId() != null) {
-                    existingTask.setAttendantId(task.getAttendantId());
-                }
-                if (task.getTeamId() != null) {
-                    existingTask.setTeamId(task.getTeamId());
-                }
-                if (task.getPatientId() != null) {
-                    existingTask.setPatientId(task.getPatientId());
-                }
-                if (task.getAttendant() != null) {
-                    existingTask.setAttendant(task.getAttendant());
-                }
-                if (task.getCreatedDate() != null) {
-                    existingTask.setCreatedDate(task.getCreatedDate());
-                }
-                if (task.getModifiedDate() != null) {
-                    existingTask.setModifiedDate(task.getModifiedDate());
-                }
-                if (task.getCreatedBy() != null) {
-                    existingTask.setCreatedBy(task.getCreatedBy());
-                }
-                if (task.getModifiedBy() != null) {
-                    existingTask.setModifiedBy(task.getModifiedBy());
-                }
-
-                return existingTask;
-            })
-            .map(taskRepository::save)
-            .map(savedTask -> {
-                taskSearchRepository.index(savedTask);
-                return savedTask;
-            });
-
-        return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, task.getId()));
+    /**
+     * {@code DELETE  /tasks/_bulk} : delete the tasks with the given ids in one batch.
+     *
+     * @param ids the ids of the tasks to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkDeleteTasks(@RequestBody List<String> ids) {
+        log.debug("REST request to delete {} Tasks", ids.size());
+        List<BulkItemResult> results = entityBulkWriter.deleteAllById(Task.class, ids);
+        entityChangeOutbox.recordAll(Task.class, results);
+        results.stream().filter(BulkItemResult::succeeded).forEach(result -> taskSearchRepository.deleteFromIndexById(result.id()));
+        return ResponseEntity.ok().body(results);
     }
 
     /**
      * {@code GET  /tasks} : get all the tasks.
      *
+     * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of tasks in body.
      */
     @GetMapping("")
-    public List<Task> getAllTasks() {
-        log.debug("REST request to get all Tasks");
-        return taskRepository.findAll();
+    public ResponseEntity<List<Task>> getAllTasks(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of Tasks");
+        Page<Task> page = taskRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /tasks?fields=:fields} : get all the tasks, with only the given fields.
+     *
+     * @param fields the names of the fields to return, the id is always returned.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of partial tasks in body,
+     * or with status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "", params = "fields")
+    public ResponseEntity<List<ObjectNode>> getAllTasksWithFields(
+        @RequestParam("fields") Set<String> fields,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of Tasks with fields {}", fields);
+        try {
+            Page<Task> page = fieldProjectionReader.findAll(Task.class, fields, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(ProjectionUtil.retainFields(objectMapper, page.getContent(), fields));
+        } catch (UnknownFieldException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "fieldunknown");
+        }
+    }
+
+    /**
+     * {@code GET  /tasks} with {@code Accept: application/x-ndjson} : stream all the tasks, one per line.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the tasks in body, written as they are read.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTasks() {
+        log.debug("REST request to stream all Tasks");
+        return NdjsonUtil.streamingResponse(objectMapper, taskRepository.streamAllBy());
     }
 
     /**
@@ -203,10 +293,13 @@ public class TaskResource {
      * @param id the id of the task to delete.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
+    @Transactional
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(@PathVariable("id") String id) {
         log.debug("REST request to delete Task : {}", id);
-        taskRepository.deleteById(id);
+        if (taskRepository.removeById(id) > 0) {
+            entityChangeOutbox.deleted(Task.class, id);
+        }
         taskSearchRepository.deleteFromIndexById(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
@@ -216,13 +309,88 @@ public class TaskResource {
      * to the query.
      *
      * @param query the query of the task search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<Task> searchTasks(@RequestParam("query") String query) {
-        log.debug("REST request to search Tasks for query {}", query);
+    public ResponseEntity<List<Task>> searchTasks(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Tasks for query {}", query);
+        try {
+            Page<Task> page = taskSearchRepository.search(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /tasks/_search?query=:query&fields=:fields} : search for the task corresponding
+     * to the query, with only the given fields.
+     *
+     * @param query the query of the task search.
+     * @param fields the names of the fields to return, the id is always returned.
+     * @param pageable the pagination information.
+     * @return the result of the search.
+     */
+    @GetMapping(value = "/_search", params = { "fields", "!cursor" })
+    public ResponseEntity<List<ObjectNode>> searchTasksWithFields(
+        @RequestParam("query") String query,
+        @RequestParam("fields") Set<String> fields,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Tasks for query {} with fields {}", query, fields);
+        try {
+            Page<Task> page = taskSearchRepository.search(query, fields, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(ProjectionUtil.retainFields(objectMapper, page.getContent(), fields));
+        } catch (UnknownFieldException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "fieldunknown");
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /tasks/_search?query=:query&cursor=:cursor} : walk the task search results
+     * with a point-in-time cursor, at constant cost per page however deep.
+     *
+     * @param query the query of the task search.
+     * @param cursor the continuation token of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the page size is used.
+     * @return the result of the search, with the next continuation token in the {@code X-Search-Cursor} header.
+     */
+    @GetMapping(value = "/_search", params = "cursor")
+    public ResponseEntity<List<Task>> searchTasksWithCursor(
+        @RequestParam("query") String query,
+        @RequestParam("cursor") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search Tasks with a cursor for query {}", query);
+        try {
+            SearchCursorPage<Task> page = taskSearchRepository.search(query, cursor, pageable.getPageSize());
+            HttpHeaders headers = SearchCursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code GET  /tasks/_export?query=:query} : stream every task corresponding to the query
+     * as newline-delimited JSON, scrolling through the index so memory stays flat whatever the result size.
+     *
+     * @param query the query of the task search.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the matching tasks, one per line.
+     */
+    @GetMapping(value = "/_export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam("query") String query) {
+        log.debug("REST request to export Tasks for query {}", query);
         try {
-            return StreamSupport.stream(taskSearchRepository.search(query).spliterator(), false).toList();
+            return NdjsonUtil.streamingResponse(objectMapper, taskSearchRepository.searchForStream(query));
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
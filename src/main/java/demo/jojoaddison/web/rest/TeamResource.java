@@ -1,22 +1,36 @@
 package demo.jojoaddison.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import demo.jojoaddison.domain.Team;
+import demo.jojoaddison.repository.BulkItemResult;
+import demo.jojoaddison.repository.EntityBulkWriter;
 import demo.jojoaddison.repository.TeamRepository;
+import demo.jojoaddison.repository.search.SearchCursorPage;
 import demo.jojoaddison.repository.search.TeamSearchRepository;
+import demo.jojoaddison.service.EntityChangeOutbox;
 import demo.jojoaddison.web.rest.errors.BadRequestAlertException;
 import demo.jojoaddison.web.rest.errors.ElasticsearchExceptionMapper;
+import demo.jojoaddison.web.rest.util.NdjsonUtil;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -37,9 +51,24 @@ public class TeamResource {
 
     private final TeamSearchRepository teamSearchRepository;
 
-    public TeamResource(TeamRepository teamRepository, TeamSearchRepository teamSearchRepository) {
+    private final EntityBulkWriter entityBulkWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityChangeOutbox entityChangeOutbox;
+
+    public TeamResource(
+        TeamRepository teamRepository,
+        TeamSearchRepository teamSearchRepository,
+        EntityBulkWriter entityBulkWriter,
+        ObjectMapper objectMapper,
+        EntityChangeOutbox entityChangeOutbox
+    ) {
         this.teamRepository = teamRepository;
         this.teamSearchRepository = teamSearchRepository;
+        this.entityBulkWriter = entityBulkWriter;
+        this.objectMapper = objectMapper;
+        this.entityChangeOutbox = entityChangeOutbox;
     }
 
     /**
@@ -49,6 +78,7 @@ public class TeamResource {
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new team, or with status {@code 400 (Bad Request)} if the team has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PostMapping("")
     public ResponseEntity<Team> createTeam(@RequestBody Team team) throws URISyntaxException {
         log.debug("REST request to save Team : {}", team);
@@ -56,6 +86,7 @@ public class TeamResource {
             throw new BadRequestAlertException("A new team cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Team result = teamRepository.save(team);
+        entityChangeOutbox.created(Team.class, result.getId());
         teamSearchRepository.index(result);
         return ResponseEntity
             .created(new URI("/api/teams/" + result.getId()))
@@ -73,6 +104,7 @@ public class TeamResource {
      * or with status {@code 500 (Internal Server Error)} if the team couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PutMapping("/{id}")
     public ResponseEntity<Team> updateTeam(@PathVariable(value = "id", required = false) final String id, @RequestBody Team team)
         throws URISyntaxException {
@@ -84,11 +116,10 @@ public class TeamResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!teamRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Team result = teamRepository.save(team);
+        Team result = teamRepository
+            .replaceIfExists(team)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Team.class, result.getId());
         teamSearchRepository.index(result);
         return ResponseEntity
             .ok()
@@ -107,6 +138,7 @@ public class TeamResource {
      * or with status {@code 500 (Internal Server Error)} if the team couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
+    @Transactional
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Team> partialUpdateTeam(@PathVariable(value = "id", required = false) final String id, @RequestBody Team team)
         throws URISyntaxException {
@@ -118,43 +150,96 @@ public class TeamResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!teamRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Team result = teamRepository
+            .partialUpdate(team)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        entityChangeOutbox.updated(Team.class, result.getId());
+        teamSearchRepository.index(result);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, team.getId()))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /teams/_bulk} : Create new teams in one batch.
+     *
+     * @param teams the teams to create, an item with an ID is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkCreateTeams(@RequestBody List<Team> teams) {
+        log.debug("REST request to save {} Teams", teams.size());
+        List<BulkItemResult> results = entityBulkWriter.insertAll(Team.class, teams);
+        entityChangeOutbox.recordAll(Team.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                teamSearchRepository.index(teams.get(i));
+            }
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
+    /**
+     * {@code PUT  /teams/_bulk} : Updates existing teams in one batch.
+     *
+     * @param teams the teams to update, an item whose ID is unknown is rejected.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @PutMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpdateTeams(@RequestBody List<Team> teams) {
+        log.debug("REST request to update {} Teams", teams.size());
+        List<BulkItemResult> results = entityBulkWriter.replaceAll(Team.class, teams);
+        entityChangeOutbox.recordAll(Team.class, results);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).succeeded()) {
+                teamSearchRepository.index(teams.get(i));
+            }
         }
+        return ResponseEntity.ok().body(results);
+    }
 
-        Optional<Team> result = teamRepository
-            .findById(team.getId())
-            .map(existingTeam -> {
-                if (team.getName() != null) {
-                    existingTeam.setName(team.getName());
-                }
-                if (team.getDescription() != null) {
-                    existingTeam.setDescription(team.getDescription());
-                }
-                if (team.getContact() != null) {
-                    existingTeam.setContact(team.getContact());
-                }
-
-                return existingTeam;
-            })
-            .map(teamRepository::save)
-            .map(savedTeam -> {
-                teamSearchRepository.index(savedTeam);
-                return savedTeam;
-            });
-
-        return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, team.getId()));
+    /**
+     * {@code DELETE  /teams/_bulk} : delete the teams with the given ids in one batch.
+     *
+     * @param ids the ids of the teams to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item, in request order.
+     */
+    @Transactional
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkDeleteTeams(@RequestBody List<String> ids) {
+        log.debug("REST request to delete {} Teams", ids.size());
+        List<BulkItemResult> results = entityBulkWriter.deleteAllById(Team.class, ids);
+        entityChangeOutbox.recordAll(Team.class, results);
+        results.stream().filter(BulkItemResult::succeeded).forEach(result -> teamSearchRepository.deleteFromIndexById(result.id()));
+        return ResponseEntity.ok().body(results);
     }
 
     /**
      * {@code GET  /teams} : get all the teams.
      *
+     * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of teams in body.
      */
     @GetMapping("")
-    public List<Team> getAllTeams() {
-        log.debug("REST request to get all Teams");
-        return teamRepository.findAll();
+    public ResponseEntity<List<Team>> getAllTeams(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of Teams");
+        Page<Team> page = teamRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /teams} with {@code Accept: application/x-ndjson} : stream all the teams, one per line.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the teams in body, written as they are read.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTeams() {
+        log.debug("REST request to stream all Teams");
+        return NdjsonUtil.streamingResponse(objectMapper, teamRepository.streamAllBy());
     }
 
     /**
@@ -176,10 +261,13 @@ public class TeamResource {
      * @param id the id of the team to delete.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
+    @Transactional
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTeam(@PathVariable("id") String id) {
         log.debug("REST request to delete Team : {}", id);
-        teamRepository.deleteById(id);
+        if (teamRepository.removeById(id) > 0) {
+            entityChangeOutbox.deleted(Team.class, id);
+        }
         teamSearchRepository.deleteFromIndexById(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
@@ -189,13 +277,44 @@ public class TeamResource {
      * to the query.
      *
      * @param query the query of the team search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<Team> searchTeams(@RequestParam("query") String query) {
-        log.debug("REST request to search Teams for query {}", query);
+    public ResponseEntity<List<Team>> searchTeams(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Teams for query {}", query);
+        try {
+            Page<Team> page = teamSearchRepository.search(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code SEARCH  /teams/_search?query=:query&cursor=:cursor} : walk the team search results
+     * with a point-in-time cursor, at constant cost per page however deep.
+     *
+     * @param query the query of the team search.
+     * @param cursor the continuation token of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the page size is used.
+     * @return the result of the search, with the next continuation token in the {@code X-Search-Cursor} header.
+     */
+    @GetMapping(value = "/_search", params = "cursor")
+    public ResponseEntity<List<Team>> searchTeamsWithCursor(
+        @RequestParam("query") String query,
+        @RequestParam("cursor") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search Teams with a cursor for query {}", query);
         try {
-            return StreamSupport.stream(teamSearchRepository.search(query).spliterator(), false).toList();
+            SearchCursorPage<Team> page = teamSearchRepository.search(query, cursor, pageable.getPageSize());
+            HttpHeaders headers = SearchCursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
@@ -2,6 +2,7 @@ package demo.jojoaddison.web.rest.errors;
 
 import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.ErrorCause;
+import demo.jojoaddison.repository.search.InvalidSearchCursorException;
 import java.util.List;
 import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
 
@@ -10,6 +11,9 @@ public class ElasticsearchExceptionMapper {
     private ElasticsearchExceptionMapper() {}
 
     public static RuntimeException mapException(RuntimeException originalException) {
+        if (originalException instanceof InvalidSearchCursorException) {
+            return new BadRequestAlertException("Invalid search cursor!", "elasticseach", "searchCursorInvalid");
+        }
         RuntimeException e = originalException;
         if (e.getCause() instanceof UncategorizedElasticsearchException) {
             e = (UncategorizedElasticsearchException) e.getCause();
@@ -0,0 +1,47 @@
+package demo.jojoaddison.web.rest.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Utility class for streaming entities as newline-delimited JSON ({@code application/x-ndjson}).
+ */
+public final class NdjsonUtil {
+
+    private static final int FLUSH_INTERVAL = 500;
+
+    private NdjsonUtil() {}
+
+    /**
+     * Write every element of the stream as one JSON document per line, flushing as it goes so the response is never
+     * buffered as a whole. The stream is closed once written, or when the client goes away.
+     *
+     * @param objectMapper the mapper used for the REST API.
+     * @param entities the entities to write.
+     * @param <T> the type of the entities.
+     * @return the streaming response.
+     */
+    public static <T> ResponseEntity<StreamingResponseBody> streamingResponse(ObjectMapper objectMapper, Stream<T> entities) {
+        StreamingResponseBody body = outputStream -> {
+            try (entities; SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(outputStream)) {
+                int written = 0;
+                for (Iterator<T> it = entities.iterator(); it.hasNext();) {
+                    writer.write(it.next());
+                    if (++written % FLUSH_INTERVAL == 0) {
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+                if (written > 0) {
+                    outputStream.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,39 @@
+package demo.jojoaddison.web.rest.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility class for returning entities with only the fields requested by the {@code fields} parameter.
+ */
+public final class ProjectionUtil {
+
+    private static final String ID_FIELD = "id";
+
+    private ProjectionUtil() {}
+
+    /**
+     * Convert partial entities to JSON objects holding only the requested fields and the id, so the fields that were
+     * not read don't show up as {@code null}.
+     *
+     * @param objectMapper the mapper used for the REST API.
+     * @param entities the partial entities.
+     * @param fields the requested fields.
+     * @return the JSON objects, in the same order.
+     */
+    public static List<ObjectNode> retainFields(ObjectMapper objectMapper, List<?> entities, Set<String> fields) {
+        Set<String> retained = new HashSet<>(fields);
+        retained.add(ID_FIELD);
+        return entities
+            .stream()
+            .map(entity -> {
+                ObjectNode node = objectMapper.valueToTree(entity);
+                node.retain(retained);
+                return node;
+            })
+            .toList();
+    }
+}
@@ -0,0 +1,38 @@
+package demo.jojoaddison.web.rest.util;
+
+import demo.jojoaddison.repository.search.SearchCursorPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling cursor-based search pagination.
+ * <p>
+ * The continuation token is returned in the {@value #CURSOR_HEADER} header and as a {@code rel="next"} link,
+ * both are omitted once the result set is exhausted.
+ */
+public final class SearchCursorUtil {
+
+    public static final String CURSOR_HEADER = "X-Search-Cursor";
+
+    private static final String CURSOR_PARAM = "cursor";
+
+    private SearchCursorUtil() {}
+
+    /**
+     * Generate the continuation headers for a cursor page.
+     *
+     * @param uriBuilder the builder of the current request.
+     * @param page the cursor page.
+     * @param <T> the type of the entities.
+     * @return the http headers.
+     */
+    public static <T> HttpHeaders generateCursorHttpHeaders(UriComponentsBuilder uriBuilder, SearchCursorPage<T> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.hasNext()) {
+            headers.add(CURSOR_HEADER, page.getNextCursor());
+            String next = uriBuilder.replaceQueryParam(CURSOR_PARAM, page.getNextCursor()).replaceQueryParam("page").toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Utility classes for the REST layer.
+ */
+package demo.jojoaddison.web.rest.util;
@@ -0,0 +1,60 @@
+package demo.jojoaddison.broker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.support.MessageBuilder;
+
+class EntityChangeEventConverterTests {
+
+    private static final MessageHeaders HEADERS = new MessageHeaders(
+        Map.of(MessageHeaders.CONTENT_TYPE, EntityChangeEventConverter.CONTENT_TYPE)
+    );
+
+    private final EntityChangeEventConverter converter = new EntityChangeEventConverter();
+
+    @Test
+    void testRoundTrip() {
+        EntityChangeEvent event = new EntityChangeEvent(
+            "Task",
+            "65a1b2c3d4e5f60718293a4b",
+            EntityChangeEvent.Operation.UPDATED,
+            Instant.now().truncatedTo(ChronoUnit.MILLIS)
+        );
+
+        Message<?> message = converter.toMessage(event, HEADERS);
+
+        assertThat(converter.fromMessage(message, EntityChangeEvent.class)).isEqualTo(event);
+    }
+
+    @Test
+    void testSmallerThanJson() throws Exception {
+        EntityChangeEvent event = new EntityChangeEvent(
+            "Task",
+            "65a1b2c3d4e5f60718293a4b",
+            EntityChangeEvent.Operation.CREATED,
+            Instant.now()
+        );
+
+        byte[] avro = (byte[]) converter.toMessage(event, HEADERS).getPayload();
+        byte[] json = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsBytes(event);
+
+        assertThat(avro.length).isLessThan(json.length);
+    }
+
+    @Test
+    void testUnknownSchemaIsRejected() {
+        Message<byte[]> message = MessageBuilder.withPayload("{\"id\":\"1\"}".getBytes()).copyHeaders(HEADERS).build();
+
+        assertThatThrownBy(() -> converter.fromMessage(message, EntityChangeEvent.class)).isInstanceOf(MessageConversionException.class);
+    }
+}
@@ -0,0 +1,71 @@
+package demo.jojoaddison.broker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import demo.jojoaddison.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+class KafkaConsumerTests {
+
+    private MeterRegistry meterRegistry;
+
+    private KafkaConsumer kafkaConsumer;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        kafkaConsumer = new KafkaConsumer(new ApplicationProperties(), meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        kafkaConsumer.shutdown();
+    }
+
+    @Test
+    void testUnregisterRemovesClient() {
+        kafkaConsumer.register("user");
+        assertThat(meterRegistry.get(KafkaConsumer.CLIENTS_METER).gauge().value()).isEqualTo(1);
+
+        kafkaConsumer.unregister("user");
+
+        assertThat(kafkaConsumer.clientCount()).isZero();
+        assertThat(meterRegistry.get(KafkaConsumer.CLIENTS_METER).gauge().value()).isZero();
+    }
+
+    @Test
+    void testRegisterAgainReplacesClient() {
+        kafkaConsumer.register("user");
+        kafkaConsumer.register("user");
+        kafkaConsumer.register("other");
+
+        assertThat(kafkaConsumer.clientCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testUnregisterRemovesSubscriptions() {
+        kafkaConsumer.register("user", "sse-topic", List.of("patient-1", "patient-2"), null);
+        kafkaConsumer.register("other", null, List.of("patient-1"), null);
+        assertThat(kafkaConsumer.subscriptionCount()).isEqualTo(3);
+
+        kafkaConsumer.unregister("user");
+        kafkaConsumer.register("other", "sse-topic", List.of(), null);
+
+        assertThat(kafkaConsumer.subscriptionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testAcceptWithoutClients() {
+        kafkaConsumer.accept(MessageBuilder.withPayload("message").setHeader(KafkaHeaders.RECEIVED_KEY, "patient-1".getBytes()).build());
+
+        assertThat(kafkaConsumer.clientCount()).isZero();
+        assertThat(meterRegistry.get(KafkaConsumer.DROPPED_METER).counter().count()).isZero();
+    }
+}
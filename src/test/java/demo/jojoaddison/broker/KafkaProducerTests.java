@@ -0,0 +1,57 @@
+package demo.jojoaddison.broker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+class KafkaProducerTests {
+
+    @Test
+    void testMessagesAreDeliveredToSubscriber() {
+        KafkaProducer kafkaProducer = new KafkaProducer();
+        List<String> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = kafkaProducer.get().subscribe(received::add);
+
+        assertThat(kafkaProducer.send("first")).isTrue();
+
+        assertThat(received).containsExactly("first");
+        subscription.dispose();
+    }
+
+    @Test
+    void testSendStillDeliversAfterSubscriberCancels() {
+        KafkaProducer kafkaProducer = new KafkaProducer();
+        List<String> received = new CopyOnWriteArrayList<>();
+        kafkaProducer.get().subscribe(received::add).dispose();
+
+        assertThat(kafkaProducer.send("after-cancel")).isTrue();
+        Disposable subscription = kafkaProducer.get().subscribe(received::add);
+
+        assertThat(received).containsExactly("after-cancel");
+        subscription.dispose();
+    }
+
+    @Test
+    void testSendStillDeliversAfterSubscriberErrors() {
+        KafkaProducer kafkaProducer = new KafkaProducer();
+        kafkaProducer
+            .get()
+            .subscribe(
+                message -> {
+                    throw new IllegalStateException("binding failed");
+                },
+                error -> {}
+            );
+        kafkaProducer.send("failing");
+
+        List<String> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = kafkaProducer.get().subscribe(received::add);
+        assertThat(kafkaProducer.send("after-error")).isTrue();
+
+        assertThat(received).containsExactly("after-error");
+        subscription.dispose();
+    }
+}
@@ -0,0 +1,82 @@
+package demo.jojoaddison.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import demo.jojoaddison.IntegrationTest;
+import demo.jojoaddison.domain.Task;
+import java.time.LocalDate;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+/**
+ * Integration tests for the derived finders of {@link TaskRepository} and the indexes backing them.
+ */
+@IntegrationTest
+class TaskRepositoryIT {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    public void initTest() {
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    void secondaryIndexesAreCreated() {
+        assertThat(mongoTemplate.indexOps(Task.class).getIndexInfo())
+            .extracting(IndexInfo::getName)
+            .contains("patient_id_created_date", "team_id_created_date", "attendant_id_schedule");
+    }
+
+    @Test
+    void findByPatientIdUsesIndex() {
+        taskRepository.saveAll(
+            List.of(
+                new Task().patientId("patient-1").createdDate(LocalDate.of(2024, 1, 1)),
+                new Task().patientId("patient-1").createdDate(LocalDate.of(2024, 2, 1)),
+                new Task().patientId("patient-2").createdDate(LocalDate.of(2024, 3, 1))
+            )
+        );
+
+        assertThat(
+            taskRepository.findByPatientId("patient-1", PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdDate"))).getContent()
+        )
+            .extracting(Task::getCreatedDate)
+            .containsExactly(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1));
+
+        Document plan = mongoTemplate
+            .getCollection("task")
+            .find(new Document("patient_id", "patient-1"))
+            .sort(new Document("created_date", -1))
+            .explain();
+        assertThat(plan.toJson()).contains("patient_id_created_date");
+    }
+
+    @Test
+    void findByAttendantIdAndScheduleBetween() {
+        taskRepository.saveAll(
+            List.of(
+                new Task().attendantId("attendant-1").schedule(LocalDate.of(2024, 1, 10)),
+                new Task().attendantId("attendant-1").schedule(LocalDate.of(2024, 2, 10)),
+                new Task().attendantId("attendant-2").schedule(LocalDate.of(2024, 1, 10))
+            )
+        );
+
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        assertThat(taskRepository.findByAttendantIdAndScheduleBetween("attendant-1", from, to, PageRequest.of(0, 10)).getContent())
+            .extracting(Task::getSchedule)
+            .containsExactly(LocalDate.of(2024, 1, 10));
+    }
+}
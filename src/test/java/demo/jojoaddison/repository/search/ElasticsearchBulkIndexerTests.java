@@ -0,0 +1,363 @@
+package demo.jojoaddison.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ErrorCause;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import demo.jojoaddison.config.ApplicationProperties;
+import demo.jojoaddison.domain.Task;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+
+class ElasticsearchBulkIndexerTests {
+
+    private static final IndexCoordinates TASK_INDEX = IndexCoordinates.of("task");
+
+    private static final IndexCoordinates VERSIONED_INDEX = IndexCoordinates.of("versioned");
+
+    private static final Answer<BulkResponse> ACKNOWLEDGE = invocation -> respond(invocation.getArgument(0), Map.of());
+
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    private ElasticsearchClient client;
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties applicationProperties;
+
+    private ElasticsearchBulkIndexer bulkIndexer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException {
+        elasticsearchTemplate = mock(ElasticsearchTemplate.class);
+        ElasticsearchConverter converter = mock(ElasticsearchConverter.class);
+        when(elasticsearchTemplate.getElasticsearchConverter()).thenReturn(converter);
+        when(converter.mapObject(any())).thenAnswer(invocation -> Document.create());
+        doReturn(new SimpleElasticsearchMappingContext()).when(converter).getMappingContext();
+        when(elasticsearchTemplate.getIndexCoordinatesFor(Task.class)).thenReturn(TASK_INDEX);
+        when(elasticsearchTemplate.getIndexCoordinatesFor(VersionedEntity.class)).thenReturn(VERSIONED_INDEX);
+        client = mock(ElasticsearchClient.class);
+        when(elasticsearchTemplate.execute(any(ElasticsearchTemplate.ClientCallback.class)))
+            .thenAnswer(invocation -> invocation.<ElasticsearchTemplate.ClientCallback<?>>getArgument(0).doWithClient(client));
+        when(client.bulk(any(BulkRequest.class))).thenAnswer(ACKNOWLEDGE);
+        meterRegistry = new SimpleMeterRegistry();
+
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearch().getBulk().setBatchSize(10);
+        applicationProperties.getSearch().getBulk().setRetryBackoff(Duration.ZERO);
+        SearchResultCache searchResultCache = new SearchResultCache(elasticsearchTemplate, applicationProperties, meterRegistry);
+        bulkIndexer =
+            new ElasticsearchBulkIndexer(elasticsearchTemplate, applicationProperties, Runnable::run, meterRegistry, searchResultCache);
+    }
+
+    @Test
+    void testOnlyLatestOperationPerDocumentIsFlushed() throws IOException {
+        bulkIndexer.index("1", new Task().id("1"));
+        bulkIndexer.index("1", new Task().id("1").name("updated"));
+        bulkIndexer.index("2", new Task().id("2"));
+        verify(client, never()).bulk(any(BulkRequest.class));
+
+        bulkIndexer.flushAll();
+
+        List<BulkRequest> requests = sentRequests(1);
+        List<BulkOperation> operations = requests.get(0).operations();
+        assertThat(operations).allMatch(BulkOperation::isIndex);
+        assertThat(operations).extracting(ElasticsearchBulkIndexerTests::idOf).containsExactly("1", "2");
+        assertThat(meterRegistry.get("search.bulk.batch.size").tag("index", "task").summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("search.bulk.flush").tag("index", "task").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testDeleteSupersedesIndex() throws IOException {
+        bulkIndexer.index("1", new Task().id("1"));
+        bulkIndexer.delete("1", Task.class);
+
+        bulkIndexer.flushAll();
+
+        List<BulkOperation> operations = sentRequests(1).get(0).operations();
+        assertThat(operations).hasSize(1);
+        assertThat(operations.get(0).isDelete()).isTrue();
+        assertThat(operations.get(0).delete().id()).isEqualTo("1");
+    }
+
+    @Test
+    void testIndexingsAndDeletionsAreSentInOneRequest() throws IOException {
+        bulkIndexer.index("1", new Task().id("1"));
+        bulkIndexer.delete("2", Task.class);
+
+        bulkIndexer.flushAll();
+
+        List<BulkOperation> operations = sentRequests(1).get(0).operations();
+        assertThat(operations).extracting(ElasticsearchBulkIndexerTests::idOf).containsExactly("1", "2");
+        assertThat(operations.get(0).isIndex()).isTrue();
+        assertThat(operations.get(1).isDelete()).isTrue();
+    }
+
+    @Test
+    void testBatchSizeTriggersFlush() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            bulkIndexer.index(String.valueOf(i), new Task().id(String.valueOf(i)));
+        }
+
+        verify(client).bulk(any(BulkRequest.class));
+    }
+
+    @Test
+    void testRejectedDocumentsAreRetried() throws IOException {
+        when(client.bulk(any(BulkRequest.class)))
+            .thenAnswer(invocation -> respond(invocation.getArgument(0), Map.of("1", "mapper_parsing_exception")))
+            .thenAnswer(ACKNOWLEDGE);
+        bulkIndexer.index("1", new Task().id("1"));
+        bulkIndexer.index("2", new Task().id("2"));
+
+        bulkIndexer.flushAll();
+        bulkIndexer.flushAll();
+
+        List<BulkRequest> requests = sentRequests(2);
+        assertThat(requests.get(1).operations()).extracting(ElasticsearchBulkIndexerTests::idOf).containsExactly("1");
+        assertThat(meterRegistry.get("search.bulk.retries").tag("index", "task").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testVersionConflictIsNotRetried() throws IOException {
+        when(client.bulk(any(BulkRequest.class)))
+            .thenAnswer(invocation -> respond(invocation.getArgument(0), Map.of("1", "version_conflict_engine_exception")));
+        bulkIndexer.index("1", new Task().id("1"));
+
+        bulkIndexer.flushAll();
+        bulkIndexer.flushAllAcknowledged();
+
+        sentRequests(1);
+        assertThat(meterRegistry.find("search.bulk.retries").counter()).isNull();
+    }
+
+    @Test
+    void testRejectedDocumentIsDroppedAfterMaxRetries() throws IOException {
+        when(client.bulk(any(BulkRequest.class)))
+            .thenAnswer(invocation -> respond(invocation.getArgument(0), Map.of("1", "mapper_parsing_exception")));
+        bulkIndexer.index("1", new Task().id("1"));
+
+        for (int i = 0; i < 5; i++) {
+            bulkIndexer.flushAll();
+        }
+
+        sentRequests(4);
+        assertThat(meterRegistry.get("search.bulk.retries").tag("index", "task").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("search.bulk.dropped").tag("index", "task").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFlushAllAcknowledgedThrowsOnceAfterDrop() {
+        applicationProperties.getSearch().getBulk().setMaxPending(1);
+        bulkIndexer.index("1", new Task().id("1"));
+        bulkIndexer.index("2", new Task().id("2"));
+
+        assertThatThrownBy(() -> bulkIndexer.flushAllAcknowledged())
+            .isInstanceOf(SearchIndexingException.class)
+            .hasMessageContaining("dropped");
+        bulkIndexer.flushAllAcknowledged();
+    }
+
+    @Test
+    void testRejectedScheduledFlushIsLeftToScheduledFlush() throws IOException {
+        SearchResultCache searchResultCache = new SearchResultCache(elasticsearchTemplate, applicationProperties, meterRegistry);
+        Executor rejectingExecutor = command -> {
+            throw new RejectedExecutionException("Queue full");
+        };
+        bulkIndexer =
+            new ElasticsearchBulkIndexer(elasticsearchTemplate, applicationProperties, rejectingExecutor, meterRegistry, searchResultCache);
+
+        for (int i = 0; i < 10; i++) {
+            bulkIndexer.index(String.valueOf(i), new Task().id(String.valueOf(i)));
+        }
+        verify(client, never()).bulk(any(BulkRequest.class));
+
+        bulkIndexer.flushAll();
+        assertThat(sentRequests(1).get(0).operations()).hasSize(10);
+    }
+
+    @Test
+    void testUnavailableClusterIsRetriedUntilBack() throws IOException {
+        when(client.bulk(any(BulkRequest.class)))
+            .thenThrow(new IllegalStateException("Connection refused"))
+            .thenThrow(new IllegalStateException("Connection refused"))
+            .thenThrow(new IllegalStateException("Connection refused"))
+            .thenThrow(new IllegalStateException("Connection refused"))
+            .thenThrow(new IllegalStateException("Connection refused"))
+            .thenAnswer(ACKNOWLEDGE);
+        bulkIndexer.index("1", new Task().id("1"));
+
+        for (int i = 0; i < 7; i++) {
+            bulkIndexer.flushAll();
+        }
+
+        sentRequests(6);
+        assertThat(meterRegistry.find("search.bulk.dropped").counter()).isNull();
+    }
+
+    @Test
+    void testOverloadedClusterIsRetriedUntilBack() throws IOException {
+        when(client.bulk(any(BulkRequest.class)))
+            .thenAnswer(invocation -> respond(invocation.getArgument(0), Map.of("1", "es_rejected_execution_exception")));
+        bulkIndexer.index("1", new Task().id("1"));
+
+        for (int i = 0; i < 6; i++) {
+            bulkIndexer.flushAll();
+        }
+
+        sentRequests(6);
+        assertThat(meterRegistry.find("search.bulk.dropped").counter()).isNull();
+    }
+
+    @Test
+    void testRetryWaitsForBackoff() throws IOException {
+        applicationProperties.getSearch().getBulk().setRetryBackoff(Duration.ofHours(1));
+        when(client.bulk(any(BulkRequest.class))).thenThrow(new IllegalStateException("Connection refused")).thenAnswer(ACKNOWLEDGE);
+        bulkIndexer.index("1", new Task().id("1"));
+
+        bulkIndexer.flushAll();
+        bulkIndexer.flushAll();
+        verify(client, times(1)).bulk(any(BulkRequest.class));
+
+        bulkIndexer.flushAllAcknowledged();
+        verify(client, times(2)).bulk(any(BulkRequest.class));
+    }
+
+    @Test
+    void testFlushAllAcknowledgedThrowsOnFailure() throws IOException {
+        when(client.bulk(any(BulkRequest.class))).thenThrow(new IllegalStateException("Connection refused"));
+        bulkIndexer.index("1", new Task().id("1"));
+
+        assertThatThrownBy(() -> bulkIndexer.flushAllAcknowledged()).isInstanceOf(SearchIndexingException.class);
+        assertThatThrownBy(() -> bulkIndexer.flushAllAcknowledged()).isInstanceOf(SearchIndexingException.class);
+        verify(client, times(2)).bulk(any(BulkRequest.class));
+    }
+
+    @Test
+    void testOldestOperationsAreDroppedBeyondMaxPending() throws IOException {
+        applicationProperties.getSearch().getBulk().setMaxPending(2);
+        bulkIndexer.index("1", new Task().id("1"));
+        bulkIndexer.index("2", new Task().id("2"));
+        bulkIndexer.index("3", new Task().id("3"));
+
+        bulkIndexer.flushAll();
+
+        assertThat(sentRequests(1).get(0).operations()).extracting(ElasticsearchBulkIndexerTests::idOf).containsExactly("2", "3");
+        assertThat(meterRegistry.get("search.bulk.dropped").tag("index", "task").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testMirrorFailuresAreCounted() throws IOException {
+        bulkIndexer.mirror(Task.class, IndexCoordinates.of("task-v2"));
+        when(client.bulk(any(BulkRequest.class)))
+            .thenAnswer(ACKNOWLEDGE)
+            .thenAnswer(invocation -> respond(invocation.getArgument(0), Map.of("1", "mapper_parsing_exception")));
+        bulkIndexer.index("1", new Task().id("1"));
+        bulkIndexer.index("2", new Task().id("2"));
+
+        bulkIndexer.flushAll();
+
+        List<BulkRequest> requests = sentRequests(2);
+        assertThat(requests.get(1).operations()).allMatch(operation -> operation.index().index().equals("task-v2"));
+        assertThat(bulkIndexer.mirrorFailures(Task.class)).isEqualTo(1);
+        assertThat(meterRegistry.find("search.bulk.retries").counter()).isNull();
+
+        bulkIndexer.stopMirroring(Task.class);
+        assertThat(bulkIndexer.mirrorFailures(Task.class)).isZero();
+    }
+
+    @Test
+    void testStaleVersionIsNotIndexed() throws IOException {
+        bulkIndexer.index("1", new VersionedEntity("1", 2L));
+        bulkIndexer.index("1", new VersionedEntity("1", 1L));
+
+        bulkIndexer.flushAll();
+
+        List<BulkOperation> operations = sentRequests(1).get(0).operations();
+        assertThat(operations).hasSize(1);
+        assertThat(operations.get(0).index().version()).isEqualTo(2L);
+        assertThat(operations.get(0).index().versionType()).isEqualTo(VersionType.External);
+    }
+
+    private List<BulkRequest> sentRequests(int count) throws IOException {
+        ArgumentCaptor<BulkRequest> requests = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client, times(count)).bulk(requests.capture());
+        return requests.getAllValues();
+    }
+
+    private static String idOf(BulkOperation operation) {
+        return operation.isIndex() ? operation.index().id() : operation.delete().id();
+    }
+
+    /**
+     * Answer a bulk request, failing the operations on the given documents with the given error types.
+     */
+    private static BulkResponse respond(BulkRequest request, Map<String, String> errors) {
+        List<BulkResponseItem> items = request
+            .operations()
+            .stream()
+            .map(operation ->
+                BulkResponseItem.of(item -> {
+                    String id = idOf(operation);
+                    item.operationType(operation.isIndex() ? OperationType.Index : OperationType.Delete).index("task").id(id);
+                    String error = errors.get(id);
+                    if (error == null) {
+                        return item.status(200);
+                    }
+                    return item.status(400).error(ErrorCause.of(cause -> cause.type(error).reason(error)));
+                })
+            )
+            .toList();
+        return BulkResponse.of(response -> response.errors(!errors.isEmpty()).took(1).items(items));
+    }
+
+    @org.springframework.data.elasticsearch.annotations.Document(indexName = "versioned")
+    static class VersionedEntity {
+
+        @Id
+        private String id;
+
+        @Version
+        private Long version;
+
+        VersionedEntity(String id, Long version) {
+            this.id = id;
+            this.version = version;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Long getVersion() {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package demo.jojoaddison.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import demo.jojoaddison.config.ApplicationProperties;
+import demo.jojoaddison.domain.Task;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+class SearchResultCacheTests {
+
+    private MeterRegistry meterRegistry;
+
+    private SearchResultCache searchResultCache;
+
+    private AtomicInteger searches;
+
+    private Supplier<Page<Task>> search;
+
+    @BeforeEach
+    public void setup() {
+        ElasticsearchTemplate elasticsearchTemplate = mock(ElasticsearchTemplate.class);
+        when(elasticsearchTemplate.getIndexCoordinatesFor(Task.class)).thenReturn(IndexCoordinates.of("task"));
+        meterRegistry = new SimpleMeterRegistry();
+        searchResultCache = new SearchResultCache(elasticsearchTemplate, new ApplicationProperties(), meterRegistry);
+        searches = new AtomicInteger();
+        search = () -> {
+            searches.incrementAndGet();
+            return new PageImpl<>(List.of(new Task().id("1")));
+        };
+    }
+
+    @Test
+    void testSameQueryIsServedFromCache() {
+        searchResultCache.get(Task.class, "name:foo", PageRequest.of(0, 20), search);
+        searchResultCache.get(Task.class, "  name:foo ", PageRequest.of(0, 20), search);
+
+        assertThat(searches.get()).isEqualTo(1);
+        assertThat(
+            meterRegistry.get("cache.gets").tag("cache", SearchResultCache.CACHE_NAME).tag("result", "hit").functionCounter().count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testOtherPageIsNotServedFromCache() {
+        searchResultCache.get(Task.class, "name:foo", PageRequest.of(0, 20), search);
+        searchResultCache.get(Task.class, "name:foo", PageRequest.of(1, 20), search);
+
+        assertThat(searches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testWriteInvalidatesIndex() {
+        searchResultCache.get(Task.class, "name:foo", PageRequest.of(0, 20), search);
+
+        searchResultCache.invalidate(Task.class);
+        searchResultCache.get(Task.class, "name:foo", PageRequest.of(0, 20), search);
+        searchResultCache.get(Task.class, "name:foo", PageRequest.of(0, 20), search);
+
+        // right after a write, the index may not have been refreshed yet: nothing is cached
+        assertThat(searches.get()).isEqualTo(3);
+    }
+
+    @Test
+    void testOnlyInvalidationsOfSentWritesAreHandedToListeners() {
+        List<String> invalidated = new ArrayList<>();
+        searchResultCache.addInvalidationListener(invalidated::add);
+
+        searchResultCache.invalidate(Task.class);
+        searchResultCache.invalidate("task");
+
+        assertThat(invalidated).containsExactly("task");
+    }
+
+    @Test
+    void testLocalInvalidationIsNotHandedToListeners() {
+        List<String> invalidated = new ArrayList<>();
+        searchResultCache.addInvalidationListener(invalidated::add);
+        searchResultCache.get(Task.class, "name:foo", PageRequest.of(0, 20), search);
+
+        searchResultCache.invalidateLocally("task");
+        searchResultCache.get(Task.class, "name:foo", PageRequest.of(0, 20), search);
+
+        assertThat(searches.get()).isEqualTo(2);
+        assertThat(invalidated).isEmpty();
+    }
+
+    @Test
+    void testNormalize() {
+        assertThat(SearchResultCache.normalize(" name:foo   AND\tid:1 ")).isEqualTo("name:foo AND id:1");
+    }
+
+    @Test
+    void testNormalizeKeepsWhitespaceOfQuotedPhrases() {
+        assertThat(SearchResultCache.normalize(" name:\"foo   bar\"   AND  id:1")).isEqualTo("name:\"foo   bar\" AND id:1");
+        assertThat(SearchResultCache.normalize("name:\"say \\\"a  b\\\"  c\"  x")).isEqualTo("name:\"say \\\"a  b\\\"  c\" x");
+        assertThat(SearchResultCache.normalize("name:\"foo  bar\"")).isNotEqualTo(SearchResultCache.normalize("name:\"foo bar\""));
+    }
+}
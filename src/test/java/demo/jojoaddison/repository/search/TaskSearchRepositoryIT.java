@@ -0,0 +1,55 @@
+package demo.jojoaddison.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import demo.jojoaddison.IntegrationTest;
+import demo.jojoaddison.domain.Task;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Integration tests for the exact-match lookups of {@link TaskSearchRepository}.
+ */
+@IntegrationTest
+class TaskSearchRepositoryIT {
+
+    @Autowired
+    private TaskSearchRepository taskSearchRepository;
+
+    @AfterEach
+    public void cleanup() {
+        taskSearchRepository.deleteAll();
+    }
+
+    @Test
+    void findByPatientIdMatchesWholeIdentifierOnly() {
+        // "patient-1" and "patient-12" share the "patient" token, a full-text query would match both
+        taskSearchRepository.saveAll(
+            List.of(
+                new Task().id("task-1").patientId("patient-1").teamId("team-a"),
+                new Task().id("task-2").patientId("patient-12").teamId("team-a"),
+                new Task().id("task-3").patientId("Patient-1").teamId("team-b")
+            )
+        );
+
+        Page<Task> page = taskSearchRepository.findByPatientId("patient-1", PageRequest.of(0, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(page.getContent()).extracting(Task::getId).containsExactly("task-1");
+    }
+
+    @Test
+    void findByTeamId() {
+        taskSearchRepository.saveAll(
+            List.of(new Task().id("task-1").teamId("team-a"), new Task().id("task-2").teamId("team-b"))
+        );
+
+        assertThat(taskSearchRepository.findByTeamId("team-b", PageRequest.of(0, 10)).getContent())
+            .extracting(Task::getId)
+            .containsExactly("task-2");
+    }
+}
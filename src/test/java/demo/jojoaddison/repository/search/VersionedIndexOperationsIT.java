@@ -0,0 +1,77 @@
+package demo.jojoaddison.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import demo.jojoaddison.IntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+/**
+ * Integration tests for {@link VersionedIndexOperations}.
+ */
+@IntegrationTest
+class VersionedIndexOperationsIT {
+
+    private static final String ALIAS = "versioned-test";
+
+    @Autowired
+    private VersionedIndexOperations versionedIndexOperations;
+
+    @Autowired
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @AfterEach
+    public void cleanup() {
+        versionedIndexOperations
+            .physicalIndicesOf(VersionedEntity.class)
+            .forEach(index -> elasticsearchTemplate.indexOps(IndexCoordinates.of(index)).delete());
+    }
+
+    @Test
+    void replacesUnversionedIndexWithAlias() {
+        elasticsearchTemplate.indexOps(IndexCoordinates.of(ALIAS)).create();
+        assertThat(versionedIndexOperations.isUpToDate(VersionedEntity.class)).isFalse();
+
+        IndexCoordinates target = versionedIndexOperations.createNextVersion(VersionedEntity.class);
+        assertThat(target.getIndexName()).isEqualTo(ALIAS + "_v1");
+        versionedIndexOperations.switchAlias(VersionedEntity.class, target);
+
+        assertThat(versionedIndexOperations.physicalIndicesOf(VersionedEntity.class)).containsExactly(ALIAS + "_v1");
+        assertThat(versionedIndexOperations.isUpToDate(VersionedEntity.class)).isTrue();
+    }
+
+    @Test
+    void switchesToNextVersionAndDeletesPreviousOne() {
+        versionedIndexOperations.switchAlias(VersionedEntity.class, versionedIndexOperations.createNextVersion(VersionedEntity.class));
+
+        IndexCoordinates target = versionedIndexOperations.createNextVersion(VersionedEntity.class);
+        assertThat(target.getIndexName()).isEqualTo(ALIAS + "_v2");
+        versionedIndexOperations.switchAlias(VersionedEntity.class, target);
+
+        assertThat(versionedIndexOperations.physicalIndicesOf(VersionedEntity.class)).containsExactly(ALIAS + "_v2");
+        assertThat(elasticsearchTemplate.indexOps(IndexCoordinates.of(ALIAS + "_v1")).exists()).isFalse();
+    }
+
+    @Test
+    void detectsMappingChange() {
+        IndexCoordinates stale = IndexCoordinates.of(ALIAS + "_v1");
+        elasticsearchTemplate.indexOps(stale).create();
+        versionedIndexOperations.switchAlias(VersionedEntity.class, stale);
+
+        assertThat(versionedIndexOperations.isUpToDate(VersionedEntity.class)).isFalse();
+    }
+
+    @Document(indexName = ALIAS, createIndex = false)
+    static class VersionedEntity {
+
+        @Id
+        private String id;
+
+        private String name;
+    }
+}
@@ -0,0 +1,83 @@
+package demo.jojoaddison.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.mongodb.client.model.Filters;
+import demo.jojoaddison.IntegrationTest;
+import demo.jojoaddison.domain.Task;
+import demo.jojoaddison.repository.TaskRepository;
+import demo.jojoaddison.repository.search.TaskSearchRepository;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for {@link ChangeStreamIndexer}.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = { "application.search.change-stream.enabled=true", "application.search.change-stream.checkpoint-interval=PT1S" }
+)
+class ChangeStreamIndexerIT {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskSearchRepository taskSearchRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @AfterEach
+    public void cleanup() {
+        taskRepository.deleteAll();
+        taskSearchRepository.deleteAll();
+    }
+
+    @Test
+    void indexesWritesMadeOutsideTheRestApi() {
+        // Written straight to Mongo, as a migration or another service would
+        Task task = taskRepository.save(new Task().name("AAAAAAAAAA").patientId("patient-1"));
+
+        await()
+            .atMost(10, TimeUnit.SECONDS)
+            .untilAsserted(() ->
+                assertThat(taskSearchRepository.findById(task.getId()))
+                    .hasValueSatisfying(indexed -> assertThat(indexed.getName()).isEqualTo("AAAAAAAAAA"))
+            );
+
+        taskRepository.save(task.name("BBBBBBBBBB"));
+        await()
+            .atMost(10, TimeUnit.SECONDS)
+            .untilAsserted(() ->
+                assertThat(taskSearchRepository.findById(task.getId()))
+                    .hasValueSatisfying(indexed -> assertThat(indexed.getName()).isEqualTo("BBBBBBBBBB"))
+            );
+
+        taskRepository.deleteById(task.getId());
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> assertThat(taskSearchRepository.existsById(task.getId())).isFalse());
+    }
+
+    @Test
+    void persistsResumeToken() {
+        taskRepository.save(new Task().name("AAAAAAAAAA"));
+
+        await()
+            .atMost(10, TimeUnit.SECONDS)
+            .untilAsserted(() ->
+                assertThat(
+                    mongoTemplate
+                        .getCollection(ChangeStreamIndexer.CHECKPOINT_COLLECTION)
+                        .find(Filters.eq("_id", ChangeStreamIndexer.CHECKPOINT_ID))
+                        .first()
+                )
+                    .isNotNull()
+                    .containsKey("token")
+            );
+    }
+}
@@ -0,0 +1,79 @@
+package demo.jojoaddison.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import demo.jojoaddison.IntegrationTest;
+import demo.jojoaddison.broker.EntityChangeEvent;
+import demo.jojoaddison.broker.EntityChangeEvent.Operation;
+import demo.jojoaddison.broker.EntityChangeEventConverter;
+import demo.jojoaddison.config.EmbeddedKafka;
+import demo.jojoaddison.domain.Task;
+import demo.jojoaddison.repository.TaskRepository;
+import demo.jojoaddison.repository.search.TaskSearchRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Integration tests for {@link EntityChangeIndexer}.
+ */
+@IntegrationTest
+@EmbeddedKafka
+@ImportAutoConfiguration(TestChannelBinderConfiguration.class)
+class EntityChangeIndexerIT {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskSearchRepository taskSearchRepository;
+
+    @Autowired
+    private InputDestination input;
+
+    @Autowired
+    private EntityChangeEventConverter entityChangeEventConverter;
+
+    @AfterEach
+    public void cleanup() {
+        taskRepository.deleteAll();
+        taskSearchRepository.deleteAll();
+    }
+
+    @Test
+    void indexesLatestChangeOfEachEntity() {
+        // written straight to Mongo, so only the change events get them indexed
+        Task created = taskRepository.save(new Task().name("AAAAAAAAAA"));
+        Task deleted = taskRepository.save(new Task().name("BBBBBBBBBB"));
+        taskSearchRepository.index(deleted);
+        Instant now = Instant.now();
+
+        List<EntityChangeEvent> batch = List.of(
+            new EntityChangeEvent("Task", created.getId(), Operation.CREATED, now),
+            new EntityChangeEvent("Task", deleted.getId(), Operation.UPDATED, now),
+            new EntityChangeEvent("Task", created.getId(), Operation.UPDATED, now.plusMillis(1)),
+            new EntityChangeEvent("Task", deleted.getId(), Operation.DELETED, now.plusMillis(1))
+        );
+        MessageHeaders headers = new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, EntityChangeEventConverter.CONTENT_TYPE));
+        List<Object> payloads = batch.stream().map(event -> entityChangeEventConverter.toMessage(event, headers).getPayload()).toList();
+        input.send(MessageBuilder.withPayload(payloads).copyHeaders(headers).build(), "entity-changes");
+
+        await()
+            .atMost(10, TimeUnit.SECONDS)
+            .untilAsserted(() -> {
+                assertThat(taskSearchRepository.findById(created.getId()))
+                    .hasValueSatisfying(indexed -> assertThat(indexed.getName()).isEqualTo("AAAAAAAAAA"));
+                assertThat(taskSearchRepository.existsById(deleted.getId())).isFalse();
+            });
+    }
+}
@@ -0,0 +1,117 @@
+package demo.jojoaddison.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import com.mongodb.client.model.Filters;
+import demo.jojoaddison.IntegrationTest;
+import demo.jojoaddison.broker.EntityChangeEvent;
+import demo.jojoaddison.broker.EntityChangeEventConverter;
+import demo.jojoaddison.config.EmbeddedKafka;
+import demo.jojoaddison.domain.Profile;
+import demo.jojoaddison.domain.Task;
+import demo.jojoaddison.repository.ProfileRepository;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link EntityChangeOutbox}.
+ */
+@IntegrationTest
+@EmbeddedKafka
+@ImportAutoConfiguration(TestChannelBinderConfiguration.class)
+class EntityChangeOutboxIT {
+
+    @Autowired
+    private EntityChangeOutbox entityChangeOutbox;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private EntityChangeEventConverter entityChangeEventConverter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProfileService profileService;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Test
+    void relaysRecordedChangeKeyedById() {
+        transactionTemplate.executeWithoutResult(status -> entityChangeOutbox.updated(Task.class, "outbox-task"));
+        entityChangeOutbox.relay();
+
+        // other tests record changes too, skip them
+        for (int i = 0; i < 100; i++) {
+            Message<byte[]> message = output.receive(1000, "entity-changes");
+            if (message == null) {
+                break;
+            }
+            EntityChangeEvent event = (EntityChangeEvent) entityChangeEventConverter.fromMessage(message, EntityChangeEvent.class);
+            if (event.id().equals("outbox-task")) {
+                assertThat(event.entity()).isEqualTo("Task");
+                assertThat(event.operation()).isEqualTo(EntityChangeEvent.Operation.UPDATED);
+                assertThat(message.getHeaders().get(KafkaHeaders.KEY)).isEqualTo("outbox-task".getBytes(StandardCharsets.UTF_8));
+                assertThat(
+                    mongoTemplate.getCollection(EntityChangeOutbox.COLLECTION).countDocuments(Filters.eq("entityId", "outbox-task"))
+                )
+                    .isZero();
+                return;
+            }
+        }
+        fail("Expected entity change of outbox-task not relayed");
+    }
+
+    @Test
+    void discardsChangeOfRolledBackWrite() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityChangeOutbox.created(Task.class, "rolled-back-task");
+            status.setRollbackOnly();
+        });
+
+        assertThat(mongoTemplate.getCollection(EntityChangeOutbox.COLLECTION).countDocuments(Filters.eq("entityId", "rolled-back-task")))
+            .isZero();
+    }
+
+    @Test
+    void refusesChangeRecordedOutsideTransaction() {
+        assertThatThrownBy(() -> entityChangeOutbox.created(Task.class, "untransacted-task"))
+            .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    void recordsDeletionOnlyOfStoredEntity() {
+        Profile profile = profileRepository.save(new Profile());
+
+        // counted before the commit, so that the scheduled relay can't have removed the records yet
+        transactionTemplate.executeWithoutResult(status -> {
+            profileService.delete(profile.getId());
+            profileService.delete("unknown-profile");
+
+            assertThat(mongoTemplate.count(Query.query(Criteria.where("entityId").is(profile.getId())), EntityChangeOutbox.COLLECTION))
+                .isEqualTo(1);
+            assertThat(mongoTemplate.count(Query.query(Criteria.where("entityId").is("unknown-profile")), EntityChangeOutbox.COLLECTION))
+                .isZero();
+            status.setRollbackOnly();
+        });
+    }
+}
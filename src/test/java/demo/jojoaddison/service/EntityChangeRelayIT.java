@@ -0,0 +1,117 @@
+package demo.jojoaddison.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.jojoaddison.IntegrationTest;
+import demo.jojoaddison.broker.EntityChangeEvent;
+import demo.jojoaddison.broker.EntityChangeEventConverter;
+import demo.jojoaddison.config.EmbeddedKafka;
+import demo.jojoaddison.domain.Task;
+import demo.jojoaddison.repository.TaskRepository;
+import demo.jojoaddison.repository.search.TaskSearchRepository;
+import demo.jojoaddison.web.rest.TestUtil;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests of the path from a REST write to the search index through {@link EntityChangeOutbox} and
+ * {@link EntityChangeIndexer}, with the REST resources not indexing on their own.
+ */
+@IntegrationTest
+@EmbeddedKafka
+@ImportAutoConfiguration(TestChannelBinderConfiguration.class)
+@AutoConfigureMockMvc
+@WithMockUser
+@TestPropertySource(properties = "application.search.index-on-request=false")
+class EntityChangeRelayIT {
+
+    @Autowired
+    private MockMvc restTaskMockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskSearchRepository taskSearchRepository;
+
+    @Autowired
+    private EntityChangeOutbox entityChangeOutbox;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private InputDestination input;
+
+    @Autowired
+    private EntityChangeEventConverter entityChangeEventConverter;
+
+    @AfterEach
+    public void cleanup() {
+        taskRepository.deleteAll();
+        taskSearchRepository.deleteAll();
+    }
+
+    @Test
+    void createdEntityBecomesSearchableThroughRelay() throws Exception {
+        Task task = new Task().name("AAAAAAAAAA");
+        byte[] response = restTaskMockMvc
+            .perform(post("/api/tasks").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(task)))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+        String id = objectMapper.readValue(response, Task.class).getId();
+        assertThat(taskSearchRepository.existsById(id)).isFalse();
+
+        entityChangeOutbox.relay();
+        // the test binder doesn't connect its destinations, hand the relayed events over to the indexer
+        Message<byte[]> relayed = receiveChangeOf(id);
+        input.send(MessageBuilder.withPayload(List.of(relayed.getPayload())).copyHeaders(relayed.getHeaders()).build(), "entity-changes");
+
+        await()
+            .atMost(10, TimeUnit.SECONDS)
+            .untilAsserted(() ->
+                assertThat(taskSearchRepository.findById(id))
+                    .hasValueSatisfying(indexed -> assertThat(indexed.getName()).isEqualTo("AAAAAAAAAA"))
+            );
+    }
+
+    private Message<byte[]> receiveChangeOf(String id) {
+        // other tests record changes too, skip them
+        for (int i = 0; i < 100; i++) {
+            Message<byte[]> message = output.receive(1000, "entity-changes");
+            if (message == null) {
+                break;
+            }
+            EntityChangeEvent event = (EntityChangeEvent) entityChangeEventConverter.fromMessage(message, EntityChangeEvent.class);
+            if (event.id().equals(id)) {
+                assertThat(event.operation()).isEqualTo(EntityChangeEvent.Operation.CREATED);
+                return message;
+            }
+        }
+        return fail("Expected entity change of " + id + " not relayed");
+    }
+}
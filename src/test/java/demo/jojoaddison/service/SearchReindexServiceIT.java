@@ -0,0 +1,75 @@
+package demo.jojoaddison.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import demo.jojoaddison.IntegrationTest;
+import demo.jojoaddison.domain.Task;
+import demo.jojoaddison.repository.TaskRepository;
+import demo.jojoaddison.repository.search.TaskSearchRepository;
+import demo.jojoaddison.repository.search.VersionedIndexOperations;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link SearchReindexService}.
+ */
+@IntegrationTest
+class SearchReindexServiceIT {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskSearchRepository taskSearchRepository;
+
+    @Autowired
+    private VersionedIndexOperations versionedIndexOperations;
+
+    @Autowired
+    private SearchReindexService searchReindexService;
+
+    @BeforeEach
+    public void initTest() {
+        taskRepository.deleteAll();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        taskRepository.deleteAll();
+        taskSearchRepository.deleteAll();
+    }
+
+    @Test
+    void rebuildsIndexFromMongoAndSwitchesAlias() {
+        // Written straight to Mongo, so never indexed
+        taskRepository.saveAll(IntStream.range(0, 10).mapToObj(i -> new Task().name("task-" + i)).toList());
+        assertThat(taskSearchRepository.count()).isZero();
+
+        SearchReindexJob job = searchReindexService.reindex("task");
+
+        await().atMost(30, TimeUnit.SECONDS).until(() -> !job.isActive());
+        assertThat(job.getState()).isEqualTo(SearchReindexJob.State.COMPLETED);
+        assertThat(job.getIndexed()).isEqualTo(10);
+        assertThat(job.getTargetIndex()).startsWith("task_v");
+        assertThat(versionedIndexOperations.physicalIndicesOf(Task.class)).containsExactly(job.getTargetIndex());
+        assertThat(taskSearchRepository.count()).isEqualTo(10);
+        assertThat(searchReindexService.findOne("task")).isSameAs(job);
+    }
+
+    @Test
+    void searchesThroughAliasOfUpToDateVersion() {
+        assertThat(versionedIndexOperations.physicalIndicesOf(Task.class)).allMatch(index -> index.startsWith("task_v"));
+        assertThat(versionedIndexOperations.isUpToDate(Task.class)).isTrue();
+    }
+
+    @Test
+    void rejectsUnknownIndex() {
+        assertThatThrownBy(() -> searchReindexService.reindex("unknown")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
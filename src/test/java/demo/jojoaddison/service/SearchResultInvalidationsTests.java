@@ -0,0 +1,72 @@
+package demo.jojoaddison.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import demo.jojoaddison.repository.search.SearchResultCache;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+class SearchResultInvalidationsTests {
+
+    private SearchResultCache searchResultCache;
+
+    private StreamBridge streamBridge;
+
+    private SearchResultInvalidations searchResultInvalidations;
+
+    private Consumer<String> listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        searchResultCache = mock(SearchResultCache.class);
+        streamBridge = mock(StreamBridge.class);
+        searchResultInvalidations = new SearchResultInvalidations(searchResultCache, streamBridge);
+        ArgumentCaptor<Consumer<String>> listenerCaptor = ArgumentCaptor.forClass(Consumer.class);
+        verify(searchResultCache).addInvalidationListener(listenerCaptor.capture());
+        listener = listenerCaptor.getValue();
+    }
+
+    @Test
+    void testLocalInvalidationIsPublished() {
+        listener.accept("task");
+
+        verify(streamBridge).send(eq(SearchResultInvalidations.BINDING_NAME), any(Message.class));
+    }
+
+    @Test
+    void testInvalidationOfAnotherInstanceIsApplied() {
+        searchResultInvalidations.accept(
+            MessageBuilder.withPayload("task").setHeader(SearchResultInvalidations.INSTANCE_HEADER, "other-instance").build()
+        );
+
+        verify(searchResultCache).invalidateLocally("task");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOwnInvalidationIsIgnored() {
+        listener.accept("task");
+        ArgumentCaptor<Message<String>> published = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge).send(eq(SearchResultInvalidations.BINDING_NAME), published.capture());
+
+        searchResultInvalidations.accept(published.getValue());
+
+        verify(searchResultCache, never()).invalidateLocally(any());
+    }
+
+    @Test
+    void testPublicationFailureIsNotPropagated() {
+        when(streamBridge.send(eq(SearchResultInvalidations.BINDING_NAME), any(Message.class)))
+            .thenThrow(new IllegalStateException("Kafka is down"));
+
+        listener.accept("task");
+    }
+}
@@ -213,6 +213,7 @@ class AddressResourceIT {
             .perform(get(ENTITY_API_URL + "?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(address.getId())))
             .andExpect(jsonPath("$.[*].digitalAddress").value(hasItem(DEFAULT_DIGITAL_ADDRESS)))
             .andExpect(jsonPath("$.[*].streetAddress").value(hasItem(DEFAULT_STREET_ADDRESS)))
@@ -585,6 +586,7 @@ class AddressResourceIT {
         restAddressMockMvc
             .perform(get(ENTITY_SEARCH_API_URL + "?query=id:" + address.getId()))
             .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(address.getId())))
             .andExpect(jsonPath("$.[*].digitalAddress").value(hasItem(DEFAULT_DIGITAL_ADDRESS)))
@@ -177,6 +177,7 @@ class ConditionResourceIT {
             .perform(get(ENTITY_API_URL + "?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(condition.getId())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
             .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION)))
@@ -503,6 +504,7 @@ class ConditionResourceIT {
         restConditionMockMvc
             .perform(get(ENTITY_SEARCH_API_URL + "?query=id:" + condition.getId()))
             .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(condition.getId())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
@@ -17,9 +17,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.cloud.stream.binder.test.InputDestination;
 import org.springframework.cloud.stream.binder.test.OutputDestination;
 import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.GenericMessage;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -44,12 +46,12 @@ class DemoSearchKafkaResourceIT {
     @Test
     void producesMessages() throws Exception {
         restMockMvc.perform(post("/api/demo-search-kafka/publish?message=value-produce")).andExpect(status().isOk());
-        assertThat(output.receive(1000, "binding-out-0").getPayload()).isEqualTo("value-produce".getBytes());
+        assertThat(output.receive(1000, "kafkaProducer-out-0").getPayload()).isEqualTo("value-produce".getBytes());
     }
 
     @Test
-    void producesPooledMessages() throws Exception {
-        assertThat(output.receive(1500, "kafkaProducer-out-0").getPayload()).isEqualTo("kakfa_producer".getBytes());
+    void producesNothingUntilPublished() throws Exception {
+        assertThat(output.receive(1500, "kafkaProducer-out-0")).isNull();
     }
 
     @Test
@@ -64,7 +66,7 @@ class DemoSearchKafkaResourceIT {
             .andExpect(request().asyncStarted())
             .andReturn();
         for (int i = 0; i < 100; i++) {
-            input.send(testMessage);
+            input.send(testMessage, "sse-topic");
             Thread.sleep(100);
             String content = mvcResult.getResponse().getContentAsString();
             if (content.contains("data:value-consume")) {
@@ -74,4 +76,106 @@ class DemoSearchKafkaResourceIT {
         }
         fail("Expected content data:value-consume not received");
     }
+
+    @Test
+    void consumesOnlyMessagesWithSubscribedKey() throws Exception {
+        MvcResult mvcResult = restMockMvc
+            .perform(get("/api/demo-search-kafka/register?key=patient-1"))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        for (int i = 0; i < 100; i++) {
+            input.send(keyedMessage("value-other", "patient-2"), "sse-topic");
+            input.send(keyedMessage("value-subscribed", "patient-1"), "sse-topic");
+            Thread.sleep(100);
+            String content = mvcResult.getResponse().getContentAsString();
+            if (content.contains("data:value-subscribed")) {
+                assertThat(content).doesNotContain("data:value-other");
+                restMockMvc.perform(get("/api/demo-search-kafka/unregister"));
+                return;
+            }
+        }
+        fail("Expected content data:value-subscribed not received");
+    }
+
+    @Test
+    void replaysMissedMessagesAfterLastEventId() throws Exception {
+        input.send(recordMessage("value-seen", 1000), "sse-topic");
+        input.send(recordMessage("value-missed-1", 1001), "sse-topic");
+        input.send(recordMessage("value-missed-2", 1002), "sse-topic");
+
+        MvcResult mvcResult = restMockMvc
+            .perform(get("/api/demo-search-kafka/register").header("Last-Event-ID", "sse-topic-0-1000"))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        for (int i = 0; i < 100; i++) {
+            Thread.sleep(100);
+            String content = mvcResult.getResponse().getContentAsString();
+            if (content.contains("data:value-missed-2")) {
+                assertThat(content).contains("id:sse-topic-0-1001", "data:value-missed-1", "id:sse-topic-0-1002");
+                assertThat(content).doesNotContain("data:value-seen");
+                restMockMvc.perform(get("/api/demo-search-kafka/unregister"));
+                return;
+            }
+        }
+        fail("Expected content data:value-missed-2 not received");
+    }
+
+    @Test
+    void asksToResyncAfterUnknownLastEventId() throws Exception {
+        MvcResult mvcResult = restMockMvc
+            .perform(get("/api/demo-search-kafka/register").header("Last-Event-ID", "sse-topic-0-unknown"))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        for (int i = 0; i < 100; i++) {
+            Thread.sleep(100);
+            if (mvcResult.getResponse().getContentAsString().contains("event:resync")) {
+                restMockMvc.perform(get("/api/demo-search-kafka/unregister"));
+                return;
+            }
+        }
+        fail("Expected content event:resync not received");
+    }
+
+    @Test
+    void asksToResyncAfterLocalEventIdOfPreviousStart() throws Exception {
+        // not read from Kafka, so numbered locally, the same as the last event seen before a restart
+        input.send(keyedMessage("value-local", "patient-1"), "sse-topic");
+
+        MvcResult mvcResult = restMockMvc
+            .perform(get("/api/demo-search-kafka/register").header("Last-Event-ID", "local-previousstart-1"))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        for (int i = 0; i < 100; i++) {
+            Thread.sleep(100);
+            String content = mvcResult.getResponse().getContentAsString();
+            if (content.contains("event:resync")) {
+                assertThat(content).doesNotContain("data:value-local");
+                restMockMvc.perform(get("/api/demo-search-kafka/unregister"));
+                return;
+            }
+        }
+        fail("Expected content event:resync not received");
+    }
+
+    private Message<String> recordMessage(String payload, long offset) {
+        return MessageBuilder
+            .withPayload(payload)
+            .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN_VALUE)
+            .setHeader(KafkaHeaders.RECEIVED_TOPIC, "sse-topic")
+            .setHeader(KafkaHeaders.RECEIVED_PARTITION, 0)
+            .setHeader(KafkaHeaders.OFFSET, offset)
+            .build();
+    }
+
+    private Message<String> keyedMessage(String payload, String key) {
+        return MessageBuilder
+            .withPayload(payload)
+            .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN_VALUE)
+            .setHeader(KafkaHeaders.RECEIVED_KEY, key)
+            .build();
+    }
 }
@@ -177,6 +177,7 @@ class HCCredentialResourceIT {
             .perform(get(ENTITY_API_URL + "?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(hCCredential.getId())))
             .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)))
             .andExpect(jsonPath("$.[*].phoneNumber").value(hasItem(DEFAULT_PHONE_NUMBER)))
@@ -510,6 +511,7 @@ class HCCredentialResourceIT {
         restHCCredentialMockMvc
             .perform(get(ENTITY_SEARCH_API_URL + "?query=id:" + hCCredential.getId()))
             .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(hCCredential.getId())))
             .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)))
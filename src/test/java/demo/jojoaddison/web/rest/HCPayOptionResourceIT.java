@@ -145,6 +145,7 @@ class HCPayOptionResourceIT {
             .perform(get(ENTITY_API_URL + "?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(hCPayOption.getId())))
             .andExpect(jsonPath("$.[*].type").value(hasItem(DEFAULT_TYPE)))
             .andExpect(jsonPath("$.[*].userID").value(hasItem(DEFAULT_USER_ID)))
@@ -433,6 +434,7 @@ class HCPayOptionResourceIT {
         restHCPayOptionMockMvc
             .perform(get(ENTITY_SEARCH_API_URL + "?query=id:" + hCPayOption.getId()))
             .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(hCPayOption.getId())))
             .andExpect(jsonPath("$.[*].type").value(hasItem(DEFAULT_TYPE)))
@@ -0,0 +1,112 @@
+package demo.jojoaddison.web.rest;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import demo.jojoaddison.IntegrationTest;
+import demo.jojoaddison.domain.Condition;
+import demo.jojoaddison.domain.Medication;
+import demo.jojoaddison.domain.Report;
+import demo.jojoaddison.domain.Stat;
+import demo.jojoaddison.domain.Task;
+import demo.jojoaddison.repository.search.ConditionSearchRepository;
+import demo.jojoaddison.repository.search.MedicationSearchRepository;
+import demo.jojoaddison.repository.search.ReportSearchRepository;
+import demo.jojoaddison.repository.search.StatSearchRepository;
+import demo.jojoaddison.repository.search.TaskSearchRepository;
+import java.time.LocalDate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link PatientTimelineResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class PatientTimelineResourceIT {
+
+    private static final String PATIENT_ID = "patient-1";
+
+    private static final String ENTITY_API_URL = "/api/patients/{id}/timeline";
+
+    @Autowired
+    private ConditionSearchRepository conditionSearchRepository;
+
+    @Autowired
+    private MedicationSearchRepository medicationSearchRepository;
+
+    @Autowired
+    private ReportSearchRepository reportSearchRepository;
+
+    @Autowired
+    private StatSearchRepository statSearchRepository;
+
+    @Autowired
+    private TaskSearchRepository taskSearchRepository;
+
+    @Autowired
+    private MockMvc restTimelineMockMvc;
+
+    @BeforeEach
+    public void initTest() {
+        LocalDate today = LocalDate.ofEpochDay(20000L);
+        conditionSearchRepository.save(new Condition().id("condition-1").patientId(PATIENT_ID).createdDate(today.minusDays(4)));
+        medicationSearchRepository.save(new Medication().id("medication-1").patientId(PATIENT_ID).createdDate(today.minusDays(1)));
+        reportSearchRepository.save(new Report().id("report-1").patientId(PATIENT_ID).createdDate(today.minusDays(3)));
+        statSearchRepository.save(new Stat().id("stat-1").patientId(PATIENT_ID).createdDate(today));
+        taskSearchRepository.save(new Task().id("task-1").patientId(PATIENT_ID).createdDate(today.minusDays(2)));
+        taskSearchRepository.save(new Task().id("task-2").patientId("patient-12").createdDate(today));
+    }
+
+    @AfterEach
+    public void cleanupElasticSearchRepository() {
+        conditionSearchRepository.deleteAll();
+        medicationSearchRepository.deleteAll();
+        reportSearchRepository.deleteAll();
+        statSearchRepository.deleteAll();
+        taskSearchRepository.deleteAll();
+    }
+
+    @Test
+    void getPatientTimeline() throws Exception {
+        restTimelineMockMvc
+            .perform(get(ENTITY_API_URL, PATIENT_ID))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "5"))
+            .andExpect(jsonPath("$.[*].type").value(contains("stat", "medication", "task", "report", "condition")))
+            .andExpect(jsonPath("$.[*].id").value(contains("stat-1", "medication-1", "task-1", "report-1", "condition-1")));
+    }
+
+    @Test
+    void getPatientTimelinePage() throws Exception {
+        restTimelineMockMvc
+            .perform(get(ENTITY_API_URL + "?page=1&size=2", PATIENT_ID))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "5"))
+            .andExpect(jsonPath("$.[*].id").value(contains("task-1", "report-1")));
+    }
+
+    @Test
+    void getPatientTimelinePageBeyondResultWindow() throws Exception {
+        restTimelineMockMvc.perform(get(ENTITY_API_URL + "?page=500&size=20", PATIENT_ID)).andExpect(status().isBadRequest());
+        restTimelineMockMvc.perform(get(ENTITY_API_URL + "?page=2147483647&size=20", PATIENT_ID)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUnknownPatientTimeline() throws Exception {
+        restTimelineMockMvc
+            .perform(get(ENTITY_API_URL, "unknown"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "0"))
+            .andExpect(jsonPath("$").isEmpty());
+    }
+}
@@ -11,6 +11,7 @@ import demo.jojoaddison.IntegrationTest;
 import demo.jojoaddison.domain.Profile;
 import demo.jojoaddison.repository.ProfileRepository;
 import demo.jojoaddison.repository.search.ProfileSearchRepository;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
@@ -26,6 +27,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 /**
  * Integration tests for the {@link ProfileResource} REST controller.
@@ -219,6 +221,7 @@ class ProfileResourceIT {
             .perform(get(ENTITY_API_URL + "?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(profile.getId())))
             .andExpect(jsonPath("$.[*].firstName").value(hasItem(DEFAULT_FIRST_NAME)))
             .andExpect(jsonPath("$.[*].middleNames").value(hasItem(DEFAULT_MIDDLE_NAMES)))
@@ -606,6 +609,7 @@ class ProfileResourceIT {
         restProfileMockMvc
             .perform(get(ENTITY_SEARCH_API_URL + "?query=id:" + profile.getId()))
             .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(profile.getId())))
             .andExpect(jsonPath("$.[*].firstName").value(hasItem(DEFAULT_FIRST_NAME)))
@@ -623,4 +627,32 @@ class ProfileResourceIT {
             .andExpect(jsonPath("$.[*].address").value(hasItem(DEFAULT_ADDRESS)))
             .andExpect(jsonPath("$.[*].team").value(hasItem(DEFAULT_TEAM)));
     }
+
+    @Test
+    void searchProfileWithCursor() throws Exception {
+        // Initialize the database
+        for (int i = 0; i < 3; i++) {
+            profileSearchRepository.save(profileRepository.save(createEntity()));
+        }
+
+        // Walk the profiles two at a time
+        MvcResult firstPage = restProfileMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=*&cursor=&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(header().exists(SearchCursorUtil.CURSOR_HEADER))
+            .andReturn();
+        String cursor = firstPage.getResponse().getHeader(SearchCursorUtil.CURSOR_HEADER);
+
+        restProfileMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=*&size=2&cursor=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(header().doesNotExist(SearchCursorUtil.CURSOR_HEADER));
+    }
+
+    @Test
+    void searchProfileWithInvalidCursor() throws Exception {
+        restProfileMockMvc.perform(get(ENTITY_SEARCH_API_URL + "?query=*&cursor=not-a-cursor")).andExpect(status().isBadRequest());
+    }
 }
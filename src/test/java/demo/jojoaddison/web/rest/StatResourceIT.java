@@ -11,6 +11,7 @@ import demo.jojoaddison.IntegrationTest;
 import demo.jojoaddison.domain.Stat;
 import demo.jojoaddison.repository.StatRepository;
 import demo.jojoaddison.repository.search.StatSearchRepository;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
@@ -26,6 +27,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 /**
  * Integration tests for the {@link StatResource} REST controller.
@@ -61,6 +63,7 @@ class StatResourceIT {
 
     private static final String ENTITY_API_URL = "/api/stats";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_EXPORT_API_URL = "/api/stats/_export";
     private static final String ENTITY_SEARCH_API_URL = "/api/stats/_search";
 
     @Autowired
@@ -183,6 +186,7 @@ class StatResourceIT {
             .perform(get(ENTITY_API_URL + "?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(stat.getId())))
             .andExpect(jsonPath("$.[*].type").value(hasItem(DEFAULT_TYPE)))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
@@ -194,6 +198,26 @@ class StatResourceIT {
             .andExpect(jsonPath("$.[*].createdBy").value(hasItem(DEFAULT_CREATED_BY)));
     }
 
+    @Test
+    void streamAllStats() throws Exception {
+        // Initialize the database
+        for (int i = 0; i < 3; i++) {
+            statRepository.save(createEntity());
+        }
+
+        // Stream all the stats
+        MvcResult mvcResult = restStatMockMvc
+            .perform(get(ENTITY_API_URL).accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restStatMockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(3).allSatisfy(line -> assertThat(line).contains("\"id\":"));
+    }
+
     @Test
     void getStat() throws Exception {
         // Initialize the database
@@ -521,6 +545,7 @@ class StatResourceIT {
         restStatMockMvc
             .perform(get(ENTITY_SEARCH_API_URL + "?query=id:" + stat.getId()))
             .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(stat.getId())))
             .andExpect(jsonPath("$.[*].type").value(hasItem(DEFAULT_TYPE)))
@@ -532,4 +557,52 @@ class StatResourceIT {
             .andExpect(jsonPath("$.[*].createdDate").value(hasItem(DEFAULT_CREATED_DATE.toString())))
             .andExpect(jsonPath("$.[*].createdBy").value(hasItem(DEFAULT_CREATED_BY)));
     }
+
+    @Test
+    void searchStatWithCursor() throws Exception {
+        // Initialize the database
+        for (int i = 0; i < 3; i++) {
+            statSearchRepository.save(statRepository.save(createEntity()));
+        }
+
+        // Walk the stats two at a time
+        MvcResult firstPage = restStatMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=*&cursor=&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(header().exists(SearchCursorUtil.CURSOR_HEADER))
+            .andReturn();
+        String cursor = firstPage.getResponse().getHeader(SearchCursorUtil.CURSOR_HEADER);
+
+        restStatMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=*&size=2&cursor=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(header().doesNotExist(SearchCursorUtil.CURSOR_HEADER));
+    }
+
+    @Test
+    void searchStatWithInvalidCursor() throws Exception {
+        restStatMockMvc.perform(get(ENTITY_SEARCH_API_URL + "?query=*&cursor=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportStats() throws Exception {
+        // Initialize the database
+        for (int i = 0; i < 3; i++) {
+            statSearchRepository.save(statRepository.save(createEntity()));
+        }
+
+        // Export the stats
+        MvcResult mvcResult = restStatMockMvc
+            .perform(get(ENTITY_EXPORT_API_URL + "?query=*"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restStatMockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(3).allSatisfy(line -> assertThat(line).contains("\"name\":\"" + DEFAULT_NAME + "\""));
+    }
 }
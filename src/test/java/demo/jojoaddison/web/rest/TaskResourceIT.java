@@ -11,11 +11,13 @@ import demo.jojoaddison.IntegrationTest;
 import demo.jojoaddison.domain.Task;
 import demo.jojoaddison.repository.TaskRepository;
 import demo.jojoaddison.repository.search.TaskSearchRepository;
+import demo.jojoaddison.web.rest.util.SearchCursorUtil;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import org.apache.commons.collections4.IterableUtils;
 import org.assertj.core.util.IterableUtil;
 import org.junit.jupiter.api.AfterEach;
@@ -26,6 +28,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 /**
  * Integration tests for the {@link TaskResource} REST controller.
@@ -73,6 +76,8 @@ class TaskResourceIT {
 
     private static final String ENTITY_API_URL = "/api/tasks";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_BULK_API_URL = "/api/tasks/_bulk";
+    private static final String ENTITY_EXPORT_API_URL = "/api/tasks/_export";
     private static final String ENTITY_SEARCH_API_URL = "/api/tasks/_search";
 
     @Autowired
@@ -207,6 +212,7 @@ class TaskResourceIT {
             .perform(get(ENTITY_API_URL + "?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(task.getId())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
             .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION)))
@@ -222,6 +228,48 @@ class TaskResourceIT {
             .andExpect(jsonPath("$.[*].modifiedBy").value(hasItem(DEFAULT_MODIFIED_BY)));
     }
 
+    @Test
+    void streamAllTasks() throws Exception {
+        // Initialize the database
+        for (int i = 0; i < 3; i++) {
+            taskRepository.save(createEntity());
+        }
+
+        // Stream all the tasks
+        MvcResult mvcResult = restTaskMockMvc
+            .perform(get(ENTITY_API_URL).accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restTaskMockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(3).allSatisfy(line -> assertThat(line).contains("\"id\":"));
+    }
+
+    @Test
+    void getAllTasksWithFields() throws Exception {
+        // Initialize the database
+        taskRepository.save(task);
+
+        // Get only the name and the team of the tasks
+        restTaskMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=name,teamId"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[0].id").value(task.getId()))
+            .andExpect(jsonPath("$.[0].name").value(DEFAULT_NAME))
+            .andExpect(jsonPath("$.[0].teamId").value(DEFAULT_TEAM_ID))
+            .andExpect(jsonPath("$.[0].description").doesNotExist())
+            .andExpect(jsonPath("$.[0].patientId").doesNotExist());
+    }
+
+    @Test
+    void getAllTasksWithUnknownField() throws Exception {
+        restTaskMockMvc.perform(get(ENTITY_API_URL + "?fields=name,unknown")).andExpect(status().isBadRequest());
+    }
+
     @Test
     void getTask() throws Exception {
         // Initialize the database
@@ -410,7 +458,9 @@ class TaskResourceIT {
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(partialUpdatedTask))
             )
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(DEFAULT_NAME))
+            .andExpect(jsonPath("$.teamId").value(UPDATED_TEAM_ID));
 
         // Validate the Task in the database
         List<Task> taskList = taskRepository.findAll();
@@ -566,6 +616,102 @@ class TaskResourceIT {
         assertThat(searchDatabaseSizeAfter).isEqualTo(searchDatabaseSizeBefore - 1);
     }
 
+    @Test
+    void bulkCreateTasks() throws Exception {
+        Task existing = createEntity();
+        existing.setId("existing_id");
+
+        // Create two tasks, one of them rejected for having an ID
+        restTaskMockMvc
+            .perform(
+                post(ENTITY_BULK_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(task, existing, createEntity())))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(jsonPath("$[0].status").value("CREATED"))
+            .andExpect(jsonPath("$[1].status").value("INVALID"))
+            .andExpect(jsonPath("$[1].error").value("idexists"))
+            .andExpect(jsonPath("$[2].status").value("CREATED"));
+
+        // Validate the Tasks in the database and in the index
+        List<Task> taskList = taskRepository.findAll();
+        assertThat(taskList).hasSize(2).allSatisfy(testTask -> assertThat(testTask.getName()).isEqualTo(DEFAULT_NAME));
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(IterableUtil.sizeOf(taskSearchRepository.findAll())).isEqualTo(2));
+    }
+
+    @Test
+    void bulkUpdateTasks() throws Exception {
+        // Initialize the database
+        taskRepository.save(task);
+        Task updatedTask = createUpdatedEntity();
+        updatedTask.setId(task.getId());
+        Task unknownTask = createUpdatedEntity();
+        unknownTask.setId(UUID.randomUUID().toString());
+
+        // Update the task, the unknown one must not be created
+        restTaskMockMvc
+            .perform(
+                put(ENTITY_BULK_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(updatedTask, unknownTask)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(task.getId()))
+            .andExpect(jsonPath("$[0].status").value("UPDATED"))
+            .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+
+        // Validate the Task in the database and in the index
+        List<Task> taskList = taskRepository.findAll();
+        assertThat(taskList).hasSize(1);
+        assertThat(taskList.get(0).getName()).isEqualTo(UPDATED_NAME);
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> {
+                List<Task> taskSearchList = IterableUtils.toList(taskSearchRepository.findAll());
+                assertThat(taskSearchList).hasSize(1);
+                assertThat(taskSearchList.get(0).getName()).isEqualTo(UPDATED_NAME);
+            });
+    }
+
+    @Test
+    void bulkRequestAboveMaxItemsIsRejected() throws Exception {
+        List<String> ids = IntStream.range(0, 6).mapToObj(i -> UUID.randomUUID().toString()).toList();
+
+        restTaskMockMvc
+            .perform(delete(ENTITY_BULK_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(ids)))
+            .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void bulkDeleteTasks() throws Exception {
+        // Initialize the database
+        taskRepository.save(task);
+        taskSearchRepository.save(task);
+        String unknownId = UUID.randomUUID().toString();
+
+        // Delete the task
+        restTaskMockMvc
+            .perform(
+                delete(ENTITY_BULK_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(task.getId(), unknownId)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].status").value("DELETED"))
+            .andExpect(jsonPath("$[1].id").value(unknownId))
+            .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+
+        // Validate the database and the index are empty
+        assertThat(taskRepository.findAll()).isEmpty();
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(IterableUtil.sizeOf(taskSearchRepository.findAll())).isZero());
+    }
+
     @Test
     void searchTask() throws Exception {
         // Initialize the database
@@ -576,6 +722,7 @@ class TaskResourceIT {
         restTaskMockMvc
             .perform(get(ENTITY_SEARCH_API_URL + "?query=id:" + task.getId()))
             .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(task.getId())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
@@ -591,4 +738,68 @@ class TaskResourceIT {
             .andExpect(jsonPath("$.[*].createdBy").value(hasItem(DEFAULT_CREATED_BY)))
             .andExpect(jsonPath("$.[*].modifiedBy").value(hasItem(DEFAULT_MODIFIED_BY)));
     }
+
+    @Test
+    void searchTaskWithFields() throws Exception {
+        // Initialize the database
+        task = taskRepository.save(task);
+        taskSearchRepository.save(task);
+
+        // Search the task, reading only its name
+        restTaskMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=id:" + task.getId() + "&fields=name"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[0].id").value(task.getId()))
+            .andExpect(jsonPath("$.[0].name").value(DEFAULT_NAME))
+            .andExpect(jsonPath("$.[0].description").doesNotExist());
+    }
+
+    @Test
+    void searchTaskWithCursor() throws Exception {
+        // Initialize the database
+        for (int i = 0; i < 3; i++) {
+            taskSearchRepository.save(taskRepository.save(createEntity()));
+        }
+
+        // Walk the tasks two at a time
+        MvcResult firstPage = restTaskMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=*&cursor=&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(header().exists(SearchCursorUtil.CURSOR_HEADER))
+            .andReturn();
+        String cursor = firstPage.getResponse().getHeader(SearchCursorUtil.CURSOR_HEADER);
+
+        restTaskMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=*&size=2&cursor=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(header().doesNotExist(SearchCursorUtil.CURSOR_HEADER));
+    }
+
+    @Test
+    void searchTaskWithInvalidCursor() throws Exception {
+        restTaskMockMvc.perform(get(ENTITY_SEARCH_API_URL + "?query=*&cursor=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportTasks() throws Exception {
+        // Initialize the database
+        for (int i = 0; i < 3; i++) {
+            taskSearchRepository.save(taskRepository.save(createEntity()));
+        }
+
+        // Export the tasks
+        MvcResult mvcResult = restTaskMockMvc
+            .perform(get(ENTITY_EXPORT_API_URL + "?query=*"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restTaskMockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(3).allSatisfy(line -> assertThat(line).contains("\"name\":\"" + DEFAULT_NAME + "\""));
+    }
 }
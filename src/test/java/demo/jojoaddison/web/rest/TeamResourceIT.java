@@ -9,6 +9,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import demo.jojoaddison.IntegrationTest;
 import demo.jojoaddison.domain.Team;
+import demo.jojoaddison.repository.EntityBulkWriter;
 import demo.jojoaddison.repository.TeamRepository;
 import demo.jojoaddison.repository.search.TeamSearchRepository;
 import java.util.List;
@@ -52,6 +53,9 @@ class TeamResourceIT {
     @Autowired
     private TeamSearchRepository teamSearchRepository;
 
+    @Autowired
+    private EntityBulkWriter entityBulkWriter;
+
     @Autowired
     private MockMvc restTeamMockMvc;
 
@@ -145,6 +149,7 @@ class TeamResourceIT {
             .perform(get(ENTITY_API_URL + "?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(team.getId())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
             .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION)))
@@ -167,6 +172,71 @@ class TeamResourceIT {
             .andExpect(jsonPath("$.contact").value(DEFAULT_CONTACT));
     }
 
+    @Test
+    void getTeamIsEvictedFromCacheOnUpdate() throws Exception {
+        // Initialize the database and the cache
+        teamRepository.save(team);
+        restTeamMockMvc.perform(get(ENTITY_API_URL_ID, team.getId())).andExpect(jsonPath("$.name").value(DEFAULT_NAME));
+
+        // Update the team through the API
+        Team updatedTeam = createUpdatedEntity();
+        updatedTeam.setId(team.getId());
+        restTeamMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedTeam.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedTeam))
+            )
+            .andExpect(status().isOk());
+
+        // The cached team must not be served anymore
+        restTeamMockMvc
+            .perform(get(ENTITY_API_URL_ID, team.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+
+        // Nor once deleted
+        restTeamMockMvc.perform(delete(ENTITY_API_URL_ID, team.getId())).andExpect(status().isNoContent());
+        restTeamMockMvc.perform(get(ENTITY_API_URL_ID, team.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getTeamIsEvictedFromCacheOnWriteOutsideTheApi() throws Exception {
+        // Initialize the database and the cache
+        teamRepository.save(team);
+        restTeamMockMvc.perform(get(ENTITY_API_URL_ID, team.getId())).andExpect(jsonPath("$.name").value(DEFAULT_NAME));
+
+        // Patch the team straight through the repository
+        teamRepository.partialUpdate(new Team().id(team.getId()).name(UPDATED_NAME));
+        restTeamMockMvc.perform(get(ENTITY_API_URL_ID, team.getId())).andExpect(jsonPath("$.name").value(UPDATED_NAME));
+
+        // Replace it with the bulk writer
+        Team replacedTeam = createEntity();
+        replacedTeam.setId(team.getId());
+        entityBulkWriter.replaceAll(Team.class, List.of(replacedTeam));
+        restTeamMockMvc.perform(get(ENTITY_API_URL_ID, team.getId())).andExpect(jsonPath("$.name").value(DEFAULT_NAME));
+
+        // Save it through the repository
+        teamRepository.save(replacedTeam.name(UPDATED_NAME));
+        restTeamMockMvc.perform(get(ENTITY_API_URL_ID, team.getId())).andExpect(jsonPath("$.name").value(UPDATED_NAME));
+
+        // Delete it with the bulk writer
+        entityBulkWriter.deleteAllById(Team.class, List.of(team.getId()));
+        restTeamMockMvc.perform(get(ENTITY_API_URL_ID, team.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void cachedTeamIsNotShared() {
+        teamRepository.save(team);
+        teamRepository.findById(team.getId()).orElseThrow().setName(UPDATED_NAME);
+
+        // a cache hit is a copy as well
+        teamRepository.findById(team.getId()).orElseThrow().setName(UPDATED_NAME);
+
+        assertThat(teamRepository.findById(team.getId()))
+            .hasValueSatisfying(cached -> assertThat(cached.getName()).isEqualTo(DEFAULT_NAME));
+    }
+
     @Test
     void getNonExistingTeam() throws Exception {
         // Get the team
@@ -431,6 +501,7 @@ class TeamResourceIT {
         restTeamMockMvc
             .perform(get(ENTITY_SEARCH_API_URL + "?query=id:" + team.getId()))
             .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(team.getId())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.ErrorCause;
 import co.elastic.clients.elasticsearch._types.ErrorResponse;
+import demo.jojoaddison.repository.search.InvalidSearchCursorException;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
 
@@ -24,4 +25,11 @@ class ElasticsearchExceptionMapperTest {
             ElasticsearchExceptionMapper.mapException(new UncategorizedElasticsearchException("", cause))
         );
     }
+
+    @Test
+    void testMapInvalidSearchCursor() {
+        RuntimeException mapped = ElasticsearchExceptionMapper.mapException(new InvalidSearchCursorException("Malformed search cursor", null));
+        assertInstanceOf(BadRequestAlertException.class, mapped);
+        assertEquals("searchCursorInvalid", ((BadRequestAlertException) mapped).getErrorKey());
+    }
 }